@@ -0,0 +1,57 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Tabellbasert ArrayAvlTre mot nodebasert SøkeBinærTre bak det samme Beholder-grensesnittet.
+// Kjør med -prof gc for å se at ArrayAvlTre ikke allokerer i leggInnOgFjern.
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class ArrayAvlTreBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"100000", "10000000"})
+    int n;
+
+    @Param({"node", "tabell"})
+    String motor;
+
+    Beholder<Integer> tre;
+    Integer[] oppslag;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        tre = motor.equals("tabell")
+                ? new ArrayAvlTre<>(Comparator.naturalOrder(), n)
+                : new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) tre.leggInn(k);
+        int[] o = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        oppslag = new Integer[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = o[j];
+    }
+
+    private Integer nesteOppslag() {
+        return oppslag[i++ & (OPPSLAG - 1)];
+    }
+
+    @Benchmark
+    public boolean inneholder() {
+        return tre.inneholder(nesteOppslag());
+    }
+
+    // Fjerner en eksisterende nøkkel og legger den tilbake (ArrayAvlTre gjenbruker plassen fra frilisten)
+    @Benchmark
+    public boolean fjernOgLeggInn() {
+        Integer k = nesteOppslag();
+        boolean b = tre.fjern(k);
+        tre.leggInn(k);
+        return b;
+    }
+}
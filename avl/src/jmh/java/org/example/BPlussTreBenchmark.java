@@ -0,0 +1,62 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// Punktoppslag og områdeskann i BPlussTre med ulik fanout mot AVL-treet (SøkeBinærTre), fra
+// 10^5 til 10^8 nøkler. 10^8 trenger rundt 20 GB heap for AVL-treet; kjør med -p n=... for å
+// begrense. Skannet går gjennom 1000 påfølgende verdier fra et tilfeldig startpunkt.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx24g"})
+@State(Scope.Thread)
+public class BPlussTreBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+    private static final int SKANN = 1000;
+
+    @Param({"100000", "1000000", "10000000", "100000000"})
+    int n;
+
+    @Param({"avl", "bpluss-16", "bpluss-64", "bpluss-256"})
+    String motor;
+
+    Beholder<Integer> tre;
+    SøkeBinærTre<Integer> avl;
+    BPlussTre<Integer> bpluss;
+    Integer[] oppslag;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        if (motor.equals("avl")) {
+            tre = avl = new SøkeBinærTre<>(Comparator.naturalOrder());
+        } else {
+            int fanout = Integer.parseInt(motor.substring(motor.indexOf('-') + 1));
+            tre = bpluss = new BPlussTre<>(Comparator.naturalOrder(), fanout);
+        }
+        for (int k : nøkler) tre.leggInn(k); // tilfeldig rekkefølge gir vanlig fyllingsgrad i bladene
+        oppslag = new Integer[OPPSLAG];
+        int[] o = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = o[j];
+    }
+
+    @Benchmark
+    public boolean oppslag() {
+        return tre.inneholder(oppslag[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long skann() {
+        Integer fra = oppslag[i++ & (OPPSLAG - 1)];
+        Iterator<Integer> it = (avl != null ? avl.tailSet(fra, true) : bpluss.tailSet(fra, true)).iterator();
+        long sum = 0;
+        for (int j = 0; j < SKANN && it.hasNext(); j++) sum += it.next();
+        return sum;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Utløp av de eldste 10 % av et tre med tidsordnede nøkler: fjernOmråde (splitt/skjøt),
+// fjernHvis (gjennomgang og ombygging) og fjern én og én, mot TreeSet.headSet(..).clear().
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Thread)
+public class FjernOmrådeBenchmark {
+    @Param({"1000000", "10000000"})
+    int n;
+
+    List<Integer> sortert;
+    SøkeBinærTre<Integer> tre;
+    TreeSet<Integer> treeSet;
+    int grense; // alt under grensen er utløpt
+
+    @Setup(Level.Trial)
+    public void lagData() {
+        sortert = Arrays.asList(Arrays.stream(Fordeling.SORTERT.lag(n, 0)).boxed().toArray(Integer[]::new));
+        grense = n / 10;
+    }
+
+    @Setup(Level.Invocation)
+    public void nyeTrær() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder(), false, sortert);
+        treeSet = new TreeSet<>(sortert);
+    }
+
+    @Benchmark
+    public int fjernOmråde() {
+        return tre.fjernOmråde(0, grense - 1);
+    }
+
+    @Benchmark
+    public int fjernHvis() {
+        return tre.fjernHvis(k -> k < grense);
+    }
+
+    @Benchmark
+    public int fjernEnOgEn() {
+        int fjernet = 0;
+        for (int k = 0; k < grense; k++) if (tre.fjern(k)) fjernet++;
+        return fjernet;
+    }
+
+    @Benchmark
+    public int treeSetHeadSetClear() {
+        treeSet.headSet(grense).clear();
+        return treeSet.size();
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+import java.util.Random;
+
+// Nøkkelfordelinger som brukes av benchmarkene
+public enum Fordeling {
+    TILFELDIG,  // uniformt tilfeldige nøkler
+    SORTERT,    // 0, 1, 2, ... (verste tilfelle for et ubalansert tre)
+    OMVENDT,    // n-1, n-2, ..., 0
+    DUPLIKATER; // tilfeldige nøkler fra et lite utvalg, ca. 16 kopier av hver
+
+    // Lager n nøkler etter fordelingen, alltid med samme frø slik at kjøringer kan sammenlignes
+    int[] lag(int n, long frø) {
+        Random r = new Random(frø);
+        int[] a = new int[n];
+        switch (this) {
+            case TILFELDIG -> { for (int i = 0; i < n; i++) a[i] = r.nextInt(); }
+            case SORTERT -> { for (int i = 0; i < n; i++) a[i] = i; }
+            case OMVENDT -> { for (int i = 0; i < n; i++) a[i] = n - 1 - i; }
+            case DUPLIKATER -> {
+                int forskjellige = Math.max(1, n / 16);
+                for (int i = 0; i < n; i++) a[i] = r.nextInt(forskjellige);
+            }
+        }
+        return a;
+    }
+
+    // Lager oppslag som treffer nøklene i tilfeldig rekkefølge
+    static int[] oppslag(int[] nøkler, int antall, long frø) {
+        Random r = new Random(frø);
+        int[] a = new int[antall];
+        for (int i = 0; i < antall; i++) a[i] = nøkler[r.nextInt(nøkler.length)];
+        return a;
+    }
+}
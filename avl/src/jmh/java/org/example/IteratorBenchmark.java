@@ -0,0 +1,59 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Full gjennomgang med iteratoren. Kjør med -prof gc: forelder-peker-iteratoren skal vise
+// ~0 B/op per element (bare selve iteratoren), mens den gamle stack-iteratoren allokerte én
+// StackNode per node. For å se forskjellen, kjør samme benchmark på commit-en før denne.
+// TreeSet er med som referanse.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class IteratorBenchmark {
+    @Param({"100000", "1000000"})
+    int n;
+
+    @Param({"TILFELDIG", "SORTERT"})
+    Fordeling fordeling;
+
+    SøkeBinærTre<Integer> tre;
+    TreeSet<Integer> treeSet;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        treeSet = new TreeSet<>();
+        for (int k : fordeling.lag(n, 42)) {
+            tre.leggInn(k);
+            treeSet.add(k);
+        }
+    }
+
+    @Benchmark
+    public long iterator() {
+        long sum = 0;
+        for (Iterator<Integer> it = tre.iterator(); it.hasNext(); ) sum += it.next();
+        return sum;
+    }
+
+    @Benchmark
+    public long synkende() {
+        long sum = 0;
+        for (Iterator<Integer> it = tre.synkendeIterator(); it.hasNext(); ) sum += it.next();
+        return sum;
+    }
+
+    @Benchmark
+    public long treeSet() {
+        long sum = 0;
+        for (Integer k : treeSet) sum += k;
+        return sum;
+    }
+}
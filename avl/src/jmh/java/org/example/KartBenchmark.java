@@ -0,0 +1,101 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Tellere per nøkkel (én oppdatering = +1) og oppslag: AvlKart.merge og LongKart.addTo (én
+// nedstigning) mot TreeMap.merge og mot løsningen med en Teller-klasse i SøkeBinærTre, der hver
+// oppdatering er ceiling + fjern + leggInn. Kjør med -prof gc for å se Long-boksene i TreeMap.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class KartBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"10000", "1000000"})
+    int n;
+
+    // Verdiklassen tjenesten bruker i dag, sortert bare på nøkkelen
+    static final class Teller {
+        final Integer nøkkel;
+        final long verdi;
+
+        Teller(Integer nøkkel, long verdi) {
+            this.nøkkel = nøkkel;
+            this.verdi = verdi;
+        }
+    }
+
+    Integer[] oppslag;
+    AvlKart<Integer, Long> avlKart;
+    LongKart<Integer> longKart;
+    TreeMap<Integer, Long> treeMap;
+    SøkeBinærTre<Teller> tellere;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        avlKart = new AvlKart<>(Comparator.naturalOrder());
+        longKart = new LongKart<>(Comparator.naturalOrder());
+        treeMap = new TreeMap<>();
+        tellere = new SøkeBinærTre<>(Comparator.comparing((Teller t) -> t.nøkkel));
+        for (int k : nøkler) {
+            avlKart.put(k, 0L);
+            longKart.put(k, 0);
+            treeMap.put(k, 0L);
+            if (!tellere.inneholder(new Teller(k, 0))) tellere.leggInn(new Teller(k, 0));
+        }
+        int[] o = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        oppslag = new Integer[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = o[j];
+    }
+
+    @Benchmark
+    public Long avlKartMerge() {
+        return avlKart.merge(oppslag[i++ & (OPPSLAG - 1)], 1L, Long::sum);
+    }
+
+    @Benchmark
+    public long longKartAddTo() {
+        return longKart.addTo(oppslag[i++ & (OPPSLAG - 1)], 1);
+    }
+
+    @Benchmark
+    public Long treeMapMerge() {
+        return treeMap.merge(oppslag[i++ & (OPPSLAG - 1)], 1L, Long::sum);
+    }
+
+    @Benchmark
+    public long tellerTre() {
+        Integer k = oppslag[i++ & (OPPSLAG - 1)];
+        Teller gammel = tellere.ceiling(new Teller(k, 0));
+        long verdi = 1;
+        if (gammel != null && gammel.nøkkel.equals(k)) {
+            tellere.fjern(gammel);
+            verdi += gammel.verdi;
+        }
+        tellere.leggInn(new Teller(k, verdi));
+        return verdi;
+    }
+
+    @Benchmark
+    public Long avlKartGet() {
+        return avlKart.get(oppslag[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public long longKartGet() {
+        return longKart.get(oppslag[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public Long treeMapGet() {
+        return treeMap.get(oppslag[i++ & (OPPSLAG - 1)]);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Fingersøk og hurtigbuffer på oppslagsmønstre med ulik lokalitet: sekvensielt (neste rang),
+// klynger (tilfeldig vandring på ±16 ranger) og uniformt tilfeldig. Treet har nøklene 0, 2, 4, ...
+// så oddetall kan legges inn og fjernes igjen uten å endre størrelsen.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class LokalitetBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"1000000"})
+    int n;
+
+    @Param({"sekvensiell", "klynger", "uniform"})
+    String mønster;
+
+    @Param({"vanlig", "finger", "finger+hurtig"})
+    String modus;
+
+    SøkeBinærTre<Integer> tre;
+    Integer[] treff, bom;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k = 0; k < 2 * n; k += 2) tre.leggInn(k);
+        tre.settFingersøk(modus.startsWith("finger"));
+        if (modus.endsWith("hurtig")) tre.settHurtigbuffer(256);
+        SplittableRandom r = new SplittableRandom(42);
+        treff = new Integer[OPPSLAG];
+        bom = new Integer[OPPSLAG];
+        int rang = r.nextInt(n);
+        for (int j = 0; j < OPPSLAG; j++) {
+            rang = switch (mønster) {
+                case "sekvensiell" -> (rang + 1) % n;
+                case "klynger" -> Math.floorMod(rang + r.nextInt(33) - 16, n);
+                default -> r.nextInt(n);
+            };
+            treff[j] = 2 * rang;
+            bom[j] = 2 * rang + 1;
+        }
+    }
+
+    @Benchmark
+    public boolean inneholder() {
+        return tre.inneholder(treff[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public boolean leggInnOgFjern() {
+        Integer k = bom[i++ & (OPPSLAG - 1)];
+        return tre.leggInn(k) & tre.fjern(k);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Kaldstart fra et sortert øyeblikksbilde og sortert masseinnsetting i et eksisterende tre:
+// leggInn én og én mot den lineære byggingen i leggInnAlleSortert / konstruktøren.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Thread)
+public class MasseinnsettingBenchmark {
+    @Param({"1000000", "20000000"})
+    int n;
+
+    @Param({"1000", "1000000"})
+    int batch;
+
+    List<Integer> sortert;   // øyeblikksbildet, n verdier
+    List<Integer> sortertBatch;
+    SøkeBinærTre<Integer> tre; // bygges på nytt før hver måling av batch-innsetting
+
+    @Setup(Level.Trial)
+    public void lagData() {
+        int[] a = Fordeling.TILFELDIG.lag(n, 42);
+        Arrays.sort(a);
+        sortert = Arrays.asList(Arrays.stream(a).boxed().toArray(Integer[]::new));
+        int[] b = Fordeling.TILFELDIG.lag(batch, 7);
+        Arrays.sort(b);
+        sortertBatch = Arrays.asList(Arrays.stream(b).boxed().toArray(Integer[]::new));
+    }
+
+    @Setup(Level.Invocation)
+    public void nyttTre() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder(), false, sortert);
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> byggEnOgEn() {
+        SøkeBinærTre<Integer> t = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (Integer k : sortert) t.leggInn(k);
+        return t;
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> byggSortert() {
+        return new SøkeBinærTre<>(Comparator.naturalOrder(), false, sortert);
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> batchEnOgEn() {
+        for (Integer k : sortertBatch) tre.leggInn(k);
+        return tre;
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> batchSortert() {
+        tre.leggInnAlleSortert(sortertBatch);
+        return tre;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Mengdeoperasjoner med splitt/skjøt (sekvensielt og fork-join) mot den gamle måten:
+// gå gjennom det ene treet og kalle leggInn/inneholder/fjern på det andre.
+// Trærne brukes opp av operasjonene, så de bygges på nytt (lineært fra sortert) før hver måling.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Thread)
+public class MengdeBenchmark {
+    @Param({"1000000x1000000", "1000x10000000"})
+    String størrelser;
+
+    List<Integer> a, b;
+    SøkeBinærTre<Integer> x, y;
+
+    @Setup(Level.Trial)
+    public void lagData() {
+        String[] d = størrelser.split("x");
+        int m = Integer.parseInt(d[0]), n = Integer.parseInt(d[1]);
+        int område = 2 * Math.max(m, n); // gir omtrent halvparten overlapp for like store trær
+        a = tilfeldigSortert(m, område, 1);
+        b = tilfeldigSortert(n, område, 2);
+    }
+
+    private static List<Integer> tilfeldigSortert(int n, int område, long frø) {
+        Random r = new Random(frø);
+        return Arrays.asList(r.ints(n, 0, område).sorted().distinct().boxed().toArray(Integer[]::new));
+    }
+
+    @Setup(Level.Invocation)
+    public void nyeTrær() {
+        x = new SøkeBinærTre<>(Comparator.naturalOrder(), false, a);
+        y = new SøkeBinærTre<>(Comparator.naturalOrder(), false, b);
+    }
+
+    @Benchmark
+    public int union() {
+        x.unionOgTøm(y);
+        return x.antall();
+    }
+
+    @Benchmark
+    public int unionParallell() {
+        x.unionOgTømParallell(y);
+        return x.antall();
+    }
+
+    // Det minste treet legges inn i det største
+    @Benchmark
+    public int unionEnOgEn() {
+        SøkeBinærTre<Integer> stor = x.antall() >= y.antall() ? x : y, liten = stor == x ? y : x;
+        for (Integer k : liten) if (!stor.inneholder(k)) stor.leggInn(k);
+        return stor.antall();
+    }
+
+    @Benchmark
+    public int snitt() {
+        x.snittOgTøm(y);
+        return x.antall();
+    }
+
+    @Benchmark
+    public int snittParallell() {
+        x.snittOgTømParallell(y);
+        return x.antall();
+    }
+
+    @Benchmark
+    public int snittEnOgEn() {
+        SøkeBinærTre<Integer> resultat = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (Integer k : x) if (y.inneholder(k)) resultat.leggInn(k);
+        return resultat.antall();
+    }
+
+    @Benchmark
+    public int differanse() {
+        x.differanseOgTøm(y);
+        return x.antall();
+    }
+
+    @Benchmark
+    public int differanseParallell() {
+        x.differanseOgTømParallell(y);
+        return x.antall();
+    }
+
+    @Benchmark
+    public int differanseEnOgEn() {
+        for (Integer k : y) x.fjern(k);
+        return x.antall();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Prisen på målingen i SøkeBinærTre: metrikker=av skal ligge innenfor støyen av det samme
+// benchmarket kjørt på commit-en før målingen kom inn (da finnes bare null-sjekkene), og
+// metrikker=på viser hva tellerne koster når de er slått på.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class MetrikkBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"1000000"})
+    int n;
+
+    @Param({"av", "på"})
+    String metrikker;
+
+    SøkeBinærTre<Integer> tre;
+    Integer[] oppslag;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        tre.settMetrikker(metrikker.equals("på"));
+        for (int k : nøkler) tre.leggInn(k);
+        int[] o = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        oppslag = new Integer[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = o[j];
+    }
+
+    @Benchmark
+    public boolean inneholder() {
+        return tre.inneholder(oppslag[i++ & (OPPSLAG - 1)]);
+    }
+
+    // Fjerner en nøkkel og legger den inn igjen, så treet holder størrelsen
+    @Benchmark
+    public boolean fjernOgLeggInn() {
+        Integer k = oppslag[i++ & (OPPSLAG - 1)];
+        return tre.fjern(k) & tre.leggInn(k);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Sammenligner én node per duplikat med multimengde-modus (én node med teller per verdi)
+// på duplikattunge data. Kjør med -prof gc: gc.alloc.rate.norm på bygg viser bytes per tre.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class MultimengdeBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"1000000"})
+    int n;
+
+    @Param({"1", "16", "256"})
+    int kopier; // omtrent antall kopier av hver verdi
+
+    @Param({"false", "true"})
+    boolean multimengde;
+
+    Integer[] nøkler;
+    Integer[] oppslag;
+    SøkeBinærTre<Integer> tre;
+    int i;
+
+    @Setup(Level.Trial)
+    public void lagData() {
+        Random r = new Random(42);
+        int forskjellige = Math.max(1, n / kopier);
+        nøkler = new Integer[n];
+        for (int j = 0; j < n; j++) nøkler[j] = r.nextInt(forskjellige);
+        oppslag = new Integer[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = nøkler[r.nextInt(n)];
+        tre = bygg();
+    }
+
+    // Bygger hele treet; tiden og allokeringen er per tre, ikke per element
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SøkeBinærTre<Integer> bygg() {
+        SøkeBinærTre<Integer> t = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+        for (Integer k : nøkler) t.leggInn(k);
+        return t;
+    }
+
+    @Benchmark
+    public int antallVerdi() {
+        return tre.antall(oppslag[i++ & (OPPSLAG - 1)]);
+    }
+
+    // Fjerner alle kopier av en verdi og legger dem inn igjen
+    @Benchmark
+    public int fjernAlle() {
+        Integer k = oppslag[i++ & (OPPSLAG - 1)];
+        int fjernet = tre.fjernAlle(k);
+        for (int j = 0; j < fjernet; j++) tre.leggInn(k);
+        return fjernet;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// OffHeapLongAvlTre mot SøkeBinærTre<Long> på heapen. SampleTime gir p99 for oppslag,
+// og prosessens RSS (fra /proc/self/status) skrives ut etter at treet er bygget, og igjen etter
+// close() og en GC. close() frigir ikke de direkte blokkene selv; RSS etter close viser bare
+// det GC har rukket å samle opp, og kan derfor ligge nær tallet med treet.
+// Kjør gjerne med -jvmArgsAppend -Xlog:gc for å se GC-pausene med de store treene.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g", "-XX:MaxDirectMemorySize=12g"})
+@State(Scope.Thread)
+public class OffHeapBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"1000000", "50000000"})
+    int n;
+
+    @Param({"heap", "offheap"})
+    String lagring;
+
+    SøkeBinærTre<Long> heapTre;
+    OffHeapLongAvlTre offHeapTre;
+    long[] oppslag;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() throws IOException {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        int[] o = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        oppslag = new long[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = o[j];
+
+        String før = rss();
+        if (lagring.equals("offheap")) {
+            offHeapTre = new OffHeapLongAvlTre(n);
+            for (int k : nøkler) offHeapTre.leggInn(k);
+        } else {
+            heapTre = new SøkeBinærTre<>(Comparator.naturalOrder());
+            for (int k : nøkler) heapTre.leggInn((long) k);
+        }
+        System.gc();
+        System.out.printf("%n  RSS før bygging: %s, etter: %s%n", før, rss());
+    }
+
+    @TearDown(Level.Trial)
+    public void lukk() throws IOException {
+        if (offHeapTre == null) return;
+        offHeapTre.close();
+        System.gc(); // blokkene frigis først når GC har samlet dem opp
+        System.out.printf("%n  RSS etter close() og GC: %s%n", rss());
+    }
+
+    private static String rss() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) return "ukjent";
+        return Files.readAllLines(status).stream()
+                .filter(l -> l.startsWith("VmRSS:"))
+                .map(l -> l.substring(6).trim())
+                .findFirst().orElse("ukjent");
+    }
+
+    @Benchmark
+    public boolean inneholder() {
+        long k = oppslag[i++ & (OPPSLAG - 1)];
+        return offHeapTre != null ? offHeapTre.inneholder(k) : heapTre.inneholder(k);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Områdeskanning over tidsordnede nøkler: subSet med søk til start, mot iterator() fra minste
+// verdi som hopper over alt før området, og mot TreeSet.subSet. Kjør med -prof gc for allokering.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class OmrådeBenchmark {
+    private static final int OPPSLAG = 1 << 12;
+
+    @Param({"1000000"})
+    int n;
+
+    @Param({"10", "1000"})
+    int bredde;
+
+    SøkeBinærTre<Integer> tre;
+    TreeSet<Integer> treeSet;
+    Integer[] fra, til;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        treeSet = new TreeSet<>();
+        for (int k : Fordeling.SORTERT.lag(n, 42)) {
+            tre.leggInn(k);
+            treeSet.add(k);
+        }
+        int[] start = Fordeling.oppslag(Fordeling.SORTERT.lag(n - bredde, 0), OPPSLAG, 7);
+        fra = new Integer[OPPSLAG];
+        til = new Integer[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) {
+            fra[j] = start[j];
+            til[j] = start[j] + bredde;
+        }
+    }
+
+    @Benchmark
+    public void subSet(Blackhole bh) {
+        int j = i++ & (OPPSLAG - 1);
+        for (Integer k : tre.subSet(fra[j], true, til[j], false)) bh.consume(k);
+    }
+
+    @Benchmark
+    public void fraStarten(Blackhole bh) {
+        int j = i++ & (OPPSLAG - 1);
+        for (Integer k : tre) {
+            if (k >= til[j]) break;
+            if (k >= fra[j]) bh.consume(k);
+        }
+    }
+
+    @Benchmark
+    public void subSetTreeSet(Blackhole bh) {
+        int j = i++ & (OPPSLAG - 1);
+        for (Integer k : treeSet.subSet(fra[j], true, til[j], false)) bh.consume(k);
+    }
+
+    @Benchmark
+    public Integer ceiling() {
+        return tre.ceiling(fra[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public Integer ceilingTreeSet() {
+        return treeSet.ceiling(fra[i++ & (OPPSLAG - 1)]);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Skalering med antall kjerner: OppdeltSøkeBinærTre (ett tre og én lås per nøkkelområde) mot
+// SamtidigSøkeBinærTre (ett tre, lås per node). blandet er enkeltnøkler fra JMH-trådene,
+// bunt er leggInnAlle + fjernAlle av 64k nøkler kjørt på en pool med like mange tråder.
+// Kjør main() for hele skalaen 1..32; den setter både -t og tråder.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class OppdeltBenchmark {
+    private static final int BUNT = 1 << 16;
+
+    @Param({"1000000"})
+    int n;
+
+    @Param({"1"})
+    int tråder;
+
+    @Param({"50"})
+    int lesProsent;
+
+    @Param({"samtidig", "oppdelt"})
+    String motor;
+
+    SamtidigSøkeBinærTre<Integer> samtidigTre;
+    OppdeltSøkeBinærTre<Integer> oppdeltTre;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        pool = new ForkJoinPool(tråder);
+        samtidigTre = new SamtidigSøkeBinærTre<>(Comparator.naturalOrder());
+        oppdeltTre = new OppdeltSøkeBinærTre<>(Comparator.naturalOrder(), false, List.<Integer>of(), 1 << 16, pool);
+        // partall fra start; skriverne legger inn og fjerner oddetall, så størrelsen holder seg
+        List<Integer> start = new ArrayList<>(n);
+        for (int k = 0; k < 2 * n; k += 2) {
+            samtidigTre.leggInn(k);
+            start.add(k);
+        }
+        oppdeltTre.leggInnAlle(start);
+        oppdeltTre.omfordel(4 * tråder);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopp() {
+        pool.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Tråd {
+        SplittableRandom r = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    @State(Scope.Thread)
+    public static class Bunt {
+        SplittableRandom r = new SplittableRandom(Thread.currentThread().threadId());
+        List<Integer> bunt = new ArrayList<>(BUNT);
+
+        @Setup(Level.Invocation)
+        public void lagBunt(OppdeltBenchmark b) {
+            bunt.clear();
+            for (int i = 0; i < BUNT; i++) bunt.add(r.nextInt(b.n) * 2 + 1);
+        }
+    }
+
+    @Benchmark
+    public boolean blandet(Tråd t) {
+        boolean les = t.r.nextInt(100) < lesProsent;
+        Integer k = les ? t.r.nextInt(2 * n) : t.r.nextInt(n) * 2 + 1; // skrivinger bruker oddetall
+        if (motor.equals("oppdelt")) {
+            return les ? oppdeltTre.inneholder(k) : oppdeltTre.leggInn(k) && oppdeltTre.fjern(k);
+        }
+        return les ? samtidigTre.inneholder(k) : samtidigTre.leggInn(k) && samtidigTre.fjern(k);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int bunt(Bunt t) {
+        if (motor.equals("oppdelt")) return oppdeltTre.leggInnAlle(t.bunt) + oppdeltTre.fjernAlle(t.bunt);
+        int sum = 0;
+        for (Integer k : t.bunt) if (samtidigTre.leggInn(k)) sum++;
+        for (Integer k : t.bunt) if (samtidigTre.fjern(k)) sum++;
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int tråder : new int[]{1, 2, 4, 8, 16, 32}) {
+            new Runner(new OptionsBuilder()
+                    .include(OppdeltBenchmark.class.getSimpleName())
+                    .threads(tråder)
+                    .param("tråder", String.valueOf(tråder))
+                    .build()).run();
+        }
+    }
+}
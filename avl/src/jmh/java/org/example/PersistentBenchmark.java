@@ -0,0 +1,76 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Skriving der hver endring skal gi et nytt øyeblikksbilde for leserne:
+// PersistentAvlTre (stikopiering, O(log n) nye noder) mot kopiering av hele treet ved hver skriving
+// (SøkeBinærTre bygget lineært fra det gamle). Kjør med -prof gc for allokert minne per operasjon.
+// I tillegg masseinnlasting med Bygger mot én persistent versjon per innsetting.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class PersistentBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"1000", "100000"})
+    int n;
+
+    int[] nøkler, skriv;
+    int i;
+    PersistentAvlTre<Integer> persistent;
+    SøkeBinærTre<Integer> kopi;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        skriv = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        PersistentAvlTre.Bygger<Integer> b = PersistentAvlTre.<Integer>tomt(Comparator.naturalOrder()).bygger();
+        kopi = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) {
+            b.leggInn(k);
+            kopi.leggInn(k);
+        }
+        persistent = b.bygg();
+    }
+
+    // Fjern en nøkkel og legg den inn igjen, størrelsen holder seg
+    @Benchmark
+    public PersistentAvlTre<Integer> persistentSkriv() {
+        Integer k = skriv[i++ & (OPPSLAG - 1)];
+        persistent = persistent.fjern(k).leggInn(k);
+        return persistent;
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> kopierHeleTreet() {
+        Integer k = skriv[i++ & (OPPSLAG - 1)];
+        SøkeBinærTre<Integer> ny = new SøkeBinærTre<>(Comparator.naturalOrder(), false, kopi);
+        ny.fjern(k);
+        ny.leggInn(k);
+        kopi = ny; // den gamle kopien er fortsatt et gyldig øyeblikksbilde for leserne
+        return kopi;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PersistentAvlTre<Integer> masseinnlastingBygger() {
+        PersistentAvlTre.Bygger<Integer> b = PersistentAvlTre.<Integer>tomt(Comparator.naturalOrder()).bygger();
+        for (int k : nøkler) b.leggInn(k);
+        return b.bygg();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PersistentAvlTre<Integer> masseinnlastingPersistent() {
+        PersistentAvlTre<Integer> t = PersistentAvlTre.tomt(Comparator.naturalOrder());
+        for (int k : nøkler) t = t.leggInn(k);
+        return t;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// IntAvlTre/LongAvlTre mot SøkeBinærTre<Integer>/<Long>: oppslag og full gjennomgang.
+// Minne per element skrives ut i oppsettet (brukt heap etter GC før og etter bygging).
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class PrimitivBenchmark {
+    private static final int OPPSLAG = 1 << 16;
+
+    @Param({"100000", "10000000"})
+    int n;
+
+    SøkeBinærTre<Integer> generiskInt;
+    SøkeBinærTre<Long> generiskLong;
+    IntAvlTre intTre;
+    LongAvlTre longTre;
+    int[] oppslag;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        oppslag = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+
+        long før = brukt();
+        generiskInt = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) generiskInt.leggInn(k);
+        long etter = brukt();
+        skrivUt("SøkeBinærTre<Integer>", etter - før);
+
+        før = etter;
+        intTre = new IntAvlTre();
+        for (int k : nøkler) intTre.leggInn(k);
+        etter = brukt();
+        skrivUt("IntAvlTre", etter - før);
+
+        før = etter;
+        generiskLong = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) generiskLong.leggInn((long) k);
+        etter = brukt();
+        skrivUt("SøkeBinærTre<Long>", etter - før);
+
+        før = etter;
+        longTre = new LongAvlTre();
+        for (int k : nøkler) longTre.leggInn(k);
+        etter = brukt();
+        skrivUt("LongAvlTre", etter - før);
+    }
+
+    private static long brukt() {
+        Runtime rt = Runtime.getRuntime();
+        for (int j = 0; j < 3; j++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private void skrivUt(String navn, long bytes) {
+        System.out.printf("%n  %-22s %6.1f bytes per element%n", navn, (double) bytes / n);
+    }
+
+    private int nesteOppslag() {
+        return oppslag[i++ & (OPPSLAG - 1)];
+    }
+
+    @Benchmark
+    public boolean inneholderGeneriskInt() {
+        return generiskInt.inneholder(nesteOppslag());
+    }
+
+    @Benchmark
+    public boolean inneholderIntAvlTre() {
+        return intTre.inneholder(nesteOppslag());
+    }
+
+    @Benchmark
+    public boolean inneholderGeneriskLong() {
+        return generiskLong.inneholder((long) nesteOppslag());
+    }
+
+    @Benchmark
+    public boolean inneholderLongAvlTre() {
+        return longTre.inneholder(nesteOppslag());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long summerGeneriskInt() {
+        long sum = 0;
+        for (Integer k : generiskInt) sum += k;
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long summerIntAvlTre() {
+        long sum = 0;
+        for (var it = intTre.iterator(); it.hasNext(); ) sum += it.nextInt();
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// rang, velg, antallMellom og antall(T) via størrelsesfeltene, mot det som var eneste mulighet
+// før: å telle med InorderIterator.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class RangBenchmark {
+    private static final int OPPSLAG = 1 << 12;
+
+    @Param({"100000", "1000000"})
+    int n;
+
+    SøkeBinærTre<Integer> tre;
+    Integer[] fra, til;
+    int[] k;
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.DUPLIKATER.lag(n, 42);
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int x : nøkler) tre.leggInn(x);
+        int[] a = Fordeling.oppslag(nøkler, OPPSLAG, 7), b = Fordeling.oppslag(nøkler, OPPSLAG, 8);
+        fra = new Integer[OPPSLAG];
+        til = new Integer[OPPSLAG];
+        k = new int[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) {
+            fra[j] = Math.min(a[j], b[j]);
+            til[j] = Math.max(a[j], b[j]);
+            k[j] = (int) ((long) j * n / OPPSLAG);
+        }
+    }
+
+    @Benchmark
+    public int rang() {
+        return tre.rang(fra[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public int rangIterator() {
+        Integer v = fra[i++ & (OPPSLAG - 1)];
+        int r = 0;
+        for (Integer x : tre) {
+            if (x >= v) break;
+            r++;
+        }
+        return r;
+    }
+
+    @Benchmark
+    public Integer velg() {
+        return tre.velg(k[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public Integer velgIterator() {
+        int kk = k[i++ & (OPPSLAG - 1)];
+        for (Integer x : tre) if (kk-- == 0) return x;
+        return null;
+    }
+
+    @Benchmark
+    public int antallMellom() {
+        int j = i++ & (OPPSLAG - 1);
+        return tre.antallMellom(fra[j], til[j]);
+    }
+
+    @Benchmark
+    public int antallMellomIterator() {
+        int j = i++ & (OPPSLAG - 1);
+        int c = 0;
+        for (Integer x : tre) {
+            if (x > til[j]) break;
+            if (x >= fra[j]) c++;
+        }
+        return c;
+    }
+
+    @Benchmark
+    public int antallVerdi() {
+        return tre.antall(fra[i++ & (OPPSLAG - 1)]);
+    }
+
+    @Benchmark
+    public int antallVerdiIterator() {
+        Integer v = fra[i++ & (OPPSLAG - 1)];
+        int c = 0;
+        for (Integer x : tre) {
+            if (x > v) break;
+            if (x.equals(v)) c++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Blandet lese/skrive-last fra mange tråder: SamtidigSøkeBinærTre (optimistiske lesere) mot
+// ett SøkeBinærTre bak én lås, slik tjenesten gjør i dag. enLås slipper bare én skriver til om
+// gangen, mens SamtidigSøkeBinærTre låser bare nodene den endrer, så skrivere i ulike deler av
+// treet går parallelt; lesProsent 50 viser hvor mye det gir.
+// Kjør main() for hele trådskalaen 1..64, eller velg trådantall selv med -t.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SamtidigBenchmark {
+    @Param({"1000000"})
+    int n;
+
+    @Param({"90", "50"})
+    int lesProsent;
+
+    @Param({"enLås", "optimistisk"})
+    String motor;
+
+    SøkeBinærTre<Integer> låstTre;
+    SamtidigSøkeBinærTre<Integer> samtidigTre;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        låstTre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        samtidigTre = new SamtidigSøkeBinærTre<>(Comparator.naturalOrder());
+        // partall fra start; skriverne legger inn og fjerner oddetall, så størrelsen holder seg
+        for (int k = 0; k < 2 * n; k += 2) {
+            låstTre.leggInn(k);
+            samtidigTre.leggInn(k);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Tråd {
+        SplittableRandom r = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    @Benchmark
+    public boolean blandet(Tråd t) {
+        boolean les = t.r.nextInt(100) < lesProsent;
+        Integer k = les ? t.r.nextInt(2 * n) : t.r.nextInt(n) * 2 + 1; // skrivinger bruker oddetall
+        if (motor.equals("optimistisk")) {
+            return les ? samtidigTre.inneholder(k) : samtidigTre.leggInn(k) && samtidigTre.fjern(k);
+        }
+        synchronized (låstTre) {
+            return les ? låstTre.inneholder(k) : låstTre.leggInn(k) && låstTre.fjern(k);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int tråder : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            new Runner(new OptionsBuilder()
+                    .include(SamtidigBenchmark.class.getSimpleName())
+                    .threads(tråder)
+                    .build()).run();
+        }
+    }
+}
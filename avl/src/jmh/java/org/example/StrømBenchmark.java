@@ -0,0 +1,72 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Sum, filter og collect over 10M verdier: trærnes egen spliterator (splitter på rang via
+// subtre-størrelsene) mot standard-spliteratoren fra iterator(), som bare kan dele i biter
+// den først kopierer ut. Parallelle strømmer kjøres i en egen pool med tråder = 1..32.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class StrømBenchmark {
+    @Param({"10000000"})
+    int n;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    int tråder;
+
+    @Param({"egen", "iterator"})
+    String spliterator;
+
+    SøkeBinærTre<Integer> tre;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) tre.leggInn(k);
+        pool = new ForkJoinPool(tråder);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopp() {
+        pool.shutdown();
+    }
+
+    private Stream<Integer> strøm() {
+        if (spliterator.equals("egen")) return tre.parallelStream();
+        return StreamSupport.stream(Spliterators.spliterator(tre.iterator(), tre.antall(), 0), true);
+    }
+
+    @Benchmark
+    public long sum() throws Exception {
+        return pool.submit(() -> strøm().mapToLong(Integer::longValue).sum()).get();
+    }
+
+    @Benchmark
+    public long filter() throws Exception {
+        return pool.submit(() -> strøm().filter(k -> (k & 7) == 0).count()).get();
+    }
+
+    @Benchmark
+    public List<Integer> collect() throws Exception {
+        return pool.submit(() -> strøm().filter(k -> (k & 7) == 0).collect(Collectors.toList())).get();
+    }
+
+    @Benchmark
+    public long sekvensiellSum() {
+        return tre.stream().mapToLong(Integer::longValue).sum();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Kortlivede trær slik tjenesten bruker dem per forespørsel: bygg n nøkler, gjør n oppslag,
+// nullstill, om igjen. Kjør med -prof gc: gc.alloc.rate.norm viser bytes per syklus og
+// gc.count/gc.time hvor mye GC-pause det blir. Nøklene er bokset på forhånd, så med gjenbruk
+// skal allokeringen gå mot 0, siden leggInn tar nodene fra forrige syklus. nullstill er O(1) i begge.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class SyklusBenchmark {
+    @Param({"100", "10000"})
+    int n;
+
+    @Param({"false", "true"})
+    boolean gjenbruk;
+
+    Integer[] nøkler;
+    Integer[] oppslag;
+    SøkeBinærTre<Integer> tre;
+
+    @Setup(Level.Trial)
+    public void lagData() {
+        int[] k = Fordeling.TILFELDIG.lag(n, 42);
+        int[] o = Fordeling.oppslag(k, n, 7);
+        nøkler = new Integer[n];
+        oppslag = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            nøkler[i] = k[i];
+            oppslag[i] = o[i];
+        }
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        tre.settGjenbruk(gjenbruk);
+    }
+
+    @Benchmark
+    public int syklus() {
+        for (Integer k : nøkler) tre.leggInn(k);
+        int treff = 0;
+        for (Integer k : oppslag) if (tre.inneholder(k)) treff++;
+        tre.nullstill();
+        return treff;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int nullstill() {
+        tre.leggInn(nøkler[0]); // så det er noe å nullstille
+        tre.nullstill();
+        return tre.antall();
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Måler de vanligste operasjonene på SøkeBinærTre mot TreeSet/TreeMap.
+// Throughput gir ops/s, SampleTime gir persentiler (p50/p90/p99/p99.9).
+// Allokeringsrate: kjør med -prof gc
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class SøkeBinærTreBenchmark {
+    private static final int OPPSLAG = 1 << 16; // må være en potens av 2
+
+    @Param({"1000", "100000", "10000000"})
+    int n;
+
+    @Param({"TILFELDIG", "SORTERT", "OMVENDT", "DUPLIKATER"})
+    Fordeling fordeling;
+
+    SøkeBinærTre<Integer> tre;
+    TreeSet<Integer> treeSet;
+    TreeMap<Integer, Integer> treeMap; // multimengde: nøkkel -> antall kopier
+    Integer[] oppslag;
+    Integer ny; // en nøkkel som ikke finnes i treet
+    int i;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        int[] nøkler = fordeling.lag(n, 42);
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        treeSet = new TreeSet<>();
+        treeMap = new TreeMap<>();
+        for (int k : nøkler) {
+            tre.leggInn(k);
+            treeSet.add(k);
+            treeMap.merge(k, 1, Integer::sum);
+        }
+        int[] o = Fordeling.oppslag(nøkler, OPPSLAG, 7);
+        oppslag = new Integer[OPPSLAG];
+        for (int j = 0; j < OPPSLAG; j++) oppslag[j] = o[j];
+        ny = Integer.MIN_VALUE; // TILFELDIG kan i teorien treffe denne, men det påvirker ikke målingen
+    }
+
+    private Integer nesteOppslag() {
+        return oppslag[i++ & (OPPSLAG - 1)];
+    }
+
+    @Benchmark
+    public boolean inneholder() {
+        return tre.inneholder(nesteOppslag());
+    }
+
+    @Benchmark
+    public boolean inneholderTreeSet() {
+        return treeSet.contains(nesteOppslag());
+    }
+
+    @Benchmark
+    public int antallVerdi() {
+        return tre.antall(nesteOppslag());
+    }
+
+    @Benchmark
+    public int antallVerdiTreeMap() {
+        Integer c = treeMap.get(nesteOppslag());
+        return c == null ? 0 : c;
+    }
+
+    // Legger inn og fjerner samme nøkkel slik at størrelsen på treet holdes fast
+    @Benchmark
+    public boolean leggInnOgFjern() {
+        tre.leggInn(ny);
+        return tre.fjern(ny);
+    }
+
+    @Benchmark
+    public boolean leggInnOgFjernTreeSet() {
+        treeSet.add(ny);
+        return treeSet.remove(ny);
+    }
+
+    // Fjerner en eksisterende nøkkel og legger den tilbake
+    @Benchmark
+    public boolean fjernOgLeggInn() {
+        Integer k = nesteOppslag();
+        boolean b = tre.fjern(k);
+        tre.leggInn(k);
+        return b;
+    }
+
+    @Benchmark
+    public boolean fjernOgLeggInnTreeSet() {
+        Integer k = nesteOppslag();
+        boolean b = treeSet.remove(k);
+        treeSet.add(k);
+        return b;
+    }
+
+    // Fjerner alle kopier av en nøkkel og legger dem tilbake
+    @Benchmark
+    public int fjernAlle() {
+        Integer k = nesteOppslag();
+        int fjernet = tre.fjernAlle(k);
+        for (int j = 0; j < fjernet; j++) tre.leggInn(k);
+        return fjernet;
+    }
+
+    @Benchmark
+    public int fjernAlleTreeMap() {
+        Integer k = nesteOppslag();
+        Integer c = treeMap.remove(k);
+        if (c != null) treeMap.put(k, c);
+        return c == null ? 0 : c;
+    }
+
+    // Full inorden-gjennomgang med InorderIterator
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iterasjon(Blackhole bh) {
+        for (Integer k : tre) bh.consume(k);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iterasjonTreeSet(Blackhole bh) {
+        for (Integer k : treeSet) bh.consume(k);
+    }
+}
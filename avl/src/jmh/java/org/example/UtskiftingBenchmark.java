@@ -0,0 +1,65 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Glidende vindu: hver operasjon legger inn en ny nøkkel og fjerner den eldste,
+// slik at treet holder konstant størrelse n mens det skiftes ut millioner av ganger.
+// Etter hver iterasjon sjekkes invariantene og at høyden holder seg under AVL-grensen 1.44·log2(n+2).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class UtskiftingBenchmark {
+    @Param({"10000", "1000000"})
+    int n;
+
+    @Param({"TILFELDIG", "SORTERT"})
+    Fordeling fordeling;
+
+    SøkeBinærTre<Integer> tre;
+    Integer[] vindu; // nøklene i treet, i innsettingsrekkefølge (ringbuffer)
+    int eldste;
+    int neste;
+    Random r;
+    long operasjoner;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        vindu = new Integer[n];
+        r = new Random(42);
+        for (int i = 0; i < n; i++) {
+            vindu[i] = nyNøkkel();
+            tre.leggInn(vindu[i]);
+        }
+    }
+
+    private Integer nyNøkkel() {
+        return fordeling == Fordeling.SORTERT ? neste++ : r.nextInt();
+    }
+
+    @Benchmark
+    public boolean leggInnOgFjernEldste() {
+        Integer ny = nyNøkkel();
+        tre.leggInn(ny);
+        boolean b = tre.fjern(vindu[eldste]);
+        vindu[eldste] = ny;
+        eldste = (eldste + 1) % n;
+        operasjoner++;
+        return b;
+    }
+
+    @TearDown(Level.Iteration)
+    public void sjekkHøyde() {
+        tre.sjekkInvariant();
+        double grense = 1.44 * (Math.log(n + 2) / Math.log(2));
+        if (tre.hoyde() > grense)
+            throw new IllegalStateException("Høyde " + tre.hoyde() + " over AVL-grensen " + grense);
+        System.out.printf("%n  %,d operasjoner: høyde %d, grense %.1f%n", operasjoner, tre.hoyde(), grense);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Hele treet som tekst: toString bygger én stor String i minnet, skriv strømmer gjennom en fast
+// buffer til en Writer (her en som kaster alt, så bare selve utskriften måles). Kjør med
+// -prof gc: skriv skal ligge på noen få kB/op uansett n, toString på flere byte per element.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class UtskriftBenchmark {
+    @Param({"100000", "1000000"})
+    int n;
+
+    @Param({"INORDEN", "NIVÅORDEN"})
+    String orden; // SøkeBinærTre er ikke public, så JMH kan ikke ta enumen direkte
+
+    SøkeBinærTre.Rekkefølge rekkefølge;
+
+    SøkeBinærTre<Integer> tre;
+    Writer ut;
+
+    @Setup(Level.Trial)
+    public void bygg() {
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : Fordeling.TILFELDIG.lag(n, 42)) tre.leggInn(k);
+        rekkefølge = SøkeBinærTre.Rekkefølge.valueOf(orden);
+        ut = Writer.nullWriter();
+    }
+
+    @Benchmark
+    public int toStringHelt() {
+        String s = rekkefølge == SøkeBinærTre.Rekkefølge.INORDEN ? tre.toString() : tre.toStringPreOrden();
+        return s.length();
+    }
+
+    @Benchmark
+    public long skriv() throws IOException {
+        return tre.skriv(ut, rekkefølge);
+    }
+
+    @Benchmark
+    public long skrivMedToString() throws IOException {
+        return tre.skriv(ut, rekkefølge, Long.MAX_VALUE, (verdi, t) -> t.append(verdi.toString()));
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Skrivegjennomstrømning for VarigSøkeBinærTre under hver varighet, mot SøkeBinærTre uten logg.
+// Mappen lages i java.io.tmpdir; pek den mot disken som skal måles med -Djava.io.tmpdir=...
+// Kjør med -t 4 e.l. for å se group commit i perOperasjon: samtidige skrivere deler fsync.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class WalBenchmark {
+    @Param({"ingenLogg", "perOperasjon", "perBunt64", "perBunt1024", "intervall10"})
+    String varighet;
+
+    @Param({"100000"})
+    int n;
+
+    Path mappe;
+    VarigSøkeBinærTre<Integer> varig;
+    SøkeBinærTre<Integer> tre;
+
+    @Setup(Level.Trial)
+    public void åpne() throws IOException {
+        mappe = Files.createTempDirectory("wal");
+        VarigSøkeBinærTre.Varighet v = switch (varighet) {
+            case "perOperasjon" -> VarigSøkeBinærTre.Varighet.perOperasjon();
+            case "perBunt64" -> VarigSøkeBinærTre.Varighet.perBunt(64);
+            case "perBunt1024" -> VarigSøkeBinærTre.Varighet.perBunt(1024);
+            default -> VarigSøkeBinærTre.Varighet.intervall(10);
+        };
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        if (!varighet.equals("ingenLogg")) {
+            // sjekkpunkt hver 64 MiB logg, så målingen også tar med kostnaden av sjekkpunktene
+            varig = new VarigSøkeBinærTre<>(mappe, Comparator.naturalOrder(), false, Nøkkelkodek.INT, v, 64 << 20);
+        }
+        for (int k = 0; k < 2 * n; k += 2) {
+            if (varig != null) varig.leggInn(k);
+            else tre.leggInn(k);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void lukk() throws IOException {
+        if (varig != null) varig.close();
+        try (Stream<Path> filer = Files.list(mappe)) {
+            for (Path p : (Iterable<Path>) filer::iterator) Files.delete(p);
+        }
+        Files.delete(mappe);
+    }
+
+    @State(Scope.Thread)
+    public static class Tråd {
+        SplittableRandom r = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    // Legger inn et oddetall og fjerner det igjen: to loggposter, størrelsen holder seg
+    @Benchmark
+    public boolean leggInnOgFjern(Tråd t) {
+        Integer k = t.r.nextInt(n) * 2 + 1;
+        if (varig != null) return varig.leggInn(k) & varig.fjern(k);
+        synchronized (tre) {
+            return tre.leggInn(k) & tre.fjern(k);
+        }
+    }
+}
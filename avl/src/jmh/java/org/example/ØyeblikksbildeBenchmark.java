@@ -0,0 +1,64 @@
+package org.example;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Oppstart fra øyeblikksbilde (minnemappet fil + lineær bygging) mot å bygge treet på nytt med
+// n leggInn, slik tjenesten gjør i dag. Skrivingen måles også. Filen ligger i java.io.tmpdir,
+// så pek den mot disken som skal måles med -Djava.io.tmpdir=... lesIntAvlTre laster samme fil
+// med de primitive kodekveiene, uten én Integer per verdi
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class ØyeblikksbildeBenchmark {
+    @Param({"1000000", "10000000"})
+    int n;
+
+    int[] nøkler;
+    SøkeBinærTre<Integer> tre;
+    Path fil;
+
+    @Setup(Level.Trial)
+    public void bygg() throws IOException {
+        nøkler = Fordeling.TILFELDIG.lag(n, 42);
+        tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) tre.leggInn(k);
+        fil = Files.createTempFile("avltre", ".bin");
+        Øyeblikksbilde.skriv(tre, fil, Nøkkelkodek.INT);
+    }
+
+    @TearDown(Level.Trial)
+    public void rydd() throws IOException {
+        Files.deleteIfExists(fil);
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> lesØyeblikksbilde() throws IOException {
+        return Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.INT);
+    }
+
+    @Benchmark
+    public IntAvlTre lesIntAvlTre() throws IOException {
+        return Øyeblikksbilde.lesInt(fil);
+    }
+
+    @Benchmark
+    public SøkeBinærTre<Integer> byggMedLeggInn() {
+        SøkeBinærTre<Integer> t = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k : nøkler) t.leggInn(k);
+        return t;
+    }
+
+    @Benchmark
+    public Path skrivØyeblikksbilde() throws IOException {
+        Øyeblikksbilde.skriv(tre, fil, Nøkkelkodek.INT);
+        return fil;
+    }
+}
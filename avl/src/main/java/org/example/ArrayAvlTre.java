@@ -0,0 +1,277 @@
+package org.example;
+import java.util.*;
+
+// AVL-tre der nodene ligger i parallelle tabeller (struct-of-arrays) og refereres med int-indekser.
+// Treet har derfor bare en håndfull objekter uansett størrelse: ingen Node-objekter å merke for GC,
+// og naboer i tabellene ligger tett i minnet. Indeks 0 er "null", så hoyde[0] = 0 og ingen sjekk trengs.
+// Fjernede plasser legges i en friliste (lenket gjennom venstre[]) og gjenbrukes av leggInn.
+class ArrayAvlTre<T> implements Beholder<T> {
+    private static final int NIL = 0;
+
+    private Object[] nøkler;
+    private int[] venstre, høyre, forelder, hoyde;
+    private int rot = NIL;
+    private int brukt = 1;    // neste plass som aldri har vært brukt (plass 0 er NIL)
+    private int friliste = NIL; // første ledige plass etter fjern
+    private int antall;
+    private int endringer;
+    private final Comparator<? super T> comp;
+
+    public ArrayAvlTre(Comparator<? super T> c) {
+        this(c, 16);
+    }
+
+    public ArrayAvlTre(Comparator<? super T> c, int kapasitet) {
+        this.comp = Objects.requireNonNull(c);
+        int n = Math.max(2, kapasitet + 1);
+        nøkler = new Object[n];
+        venstre = new int[n];
+        høyre = new int[n];
+        forelder = new int[n];
+        hoyde = new int[n];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T nøkkel(int p) {
+        return (T) nøkler[p];
+    }
+
+    public boolean inneholder(T verdi) {
+        if (verdi == null) return false;
+        int p = rot;
+        while (p != NIL) {
+            int cmp = comp.compare(verdi, nøkkel(p));
+            if (cmp < 0) p = venstre[p];
+            else if (cmp > 0) p = høyre[p];
+            else return true;
+        }
+        return false;
+    }
+
+    public int antall() {
+        return antall;
+    }
+    public boolean tom() {
+        return antall == 0;
+    }
+    public int hoyde() {
+        return hoyde[rot];
+    }
+
+    public boolean leggInn(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        int f = NIL;
+        int p = rot;
+        int cmp = 0;
+        while (p != NIL) { // like verdier går til høyre
+            f = p;
+            cmp = comp.compare(verdi, nøkkel(p));
+            p = cmp < 0 ? venstre[p] : høyre[p];
+        }
+        int ny = nyPlass();
+        nøkler[ny] = verdi;
+        venstre[ny] = høyre[ny] = NIL;
+        forelder[ny] = f;
+        hoyde[ny] = 1;
+        if (f == NIL) rot = ny;
+        else if (cmp < 0) venstre[f] = ny;
+        else høyre[f] = ny;
+        antall++;
+        endringer++;
+        balanserForeldre(f);
+        return true;
+    }
+
+    // Henter en plass fra frilisten, ellers neste ubrukte plass (tabellene dobles ved behov)
+    private int nyPlass() {
+        if (friliste != NIL) {
+            int p = friliste;
+            friliste = venstre[p];
+            return p;
+        }
+        if (brukt == nøkler.length) {
+            int n = nøkler.length * 2;
+            nøkler = Arrays.copyOf(nøkler, n);
+            venstre = Arrays.copyOf(venstre, n);
+            høyre = Arrays.copyOf(høyre, n);
+            forelder = Arrays.copyOf(forelder, n);
+            hoyde = Arrays.copyOf(hoyde, n);
+        }
+        return brukt++;
+    }
+
+    public boolean fjern(T verdi) {
+        if (verdi == null) return false;
+        int p = rot;
+        while (p != NIL) {
+            int cmp = comp.compare(verdi, nøkkel(p));
+            if (cmp < 0) p = venstre[p];
+            else if (cmp > 0) p = høyre[p];
+            else break;
+        }
+        if (p == NIL) return false;
+
+        int f;
+        if (venstre[p] != NIL && høyre[p] != NIL) {
+            // Flytt nøkkelen til inorden-etterfølgeren hit og fjern etterfølgerens plass i stedet
+            int etterfølger = høyre[p];
+            while (venstre[etterfølger] != NIL) etterfølger = venstre[etterfølger];
+            nøkler[p] = nøkler[etterfølger];
+            p = etterfølger;
+        }
+        f = forelder[p];
+        erstattBarn(p, venstre[p] != NIL ? venstre[p] : høyre[p]);
+        nøkler[p] = null; // slipp referansen slik at nøkkelen kan samles opp
+        venstre[p] = friliste;
+        friliste = p;
+        antall--;
+        endringer++;
+        balanserForeldre(f); // retracing fra forelderen til den fjernede plassen
+        return true;
+    }
+
+    // Antall forekomster av verdien
+    public int antall(T verdi) {
+        if (verdi == null) return 0;
+        int p = rot, første = NIL;
+        while (p != NIL) { // finn den første like i inorden
+            int cmp = comp.compare(verdi, nøkkel(p));
+            if (cmp > 0) p = høyre[p];
+            else {
+                if (cmp == 0) første = p;
+                p = venstre[p];
+            }
+        }
+        int teller = 0;
+        for (p = første; p != NIL && comp.compare(verdi, nøkkel(p)) == 0; p = nesteInorden(p)) teller++;
+        return teller;
+    }
+
+    // O(1): tabellene beholdes og overskrives fra starten av igjen. Gamle nøkler blir liggende
+    // (referert fra tabellen) til plassene deres tas i bruk på nytt.
+    public void nullstill() {
+        rot = NIL;
+        brukt = 1;
+        friliste = NIL;
+        antall = 0;
+        endringer++;
+    }
+
+    private void balanserForeldre(int node) {
+        while (node != NIL) {
+            hoyde[node] = 1 + Math.max(hoyde[venstre[node]], hoyde[høyre[node]]);
+            int balanseFaktor = balanseFaktor(node);
+            if (balanseFaktor > 1) { // venstre tungt
+                if (balanseFaktor(venstre[node]) < 0) leftRotate(venstre[node]); // venstre høyre tilfelle
+                node = rightRotate(node);
+            } else if (balanseFaktor < -1) { // høyre tungt
+                if (balanseFaktor(høyre[node]) > 0) rightRotate(høyre[node]); // høyre venstre tilfelle
+                node = leftRotate(node);
+            }
+            node = forelder[node];
+        }
+    }
+    private int rightRotate(int y) {
+        int x = venstre[y];
+        int T2 = høyre[x];
+        høyre[x] = y;
+        venstre[y] = T2;
+        if (T2 != NIL) forelder[T2] = y;
+        erstattBarn(y, x);
+        forelder[y] = x;
+        hoyde[y] = Math.max(hoyde[venstre[y]], hoyde[høyre[y]]) + 1;
+        hoyde[x] = Math.max(hoyde[venstre[x]], hoyde[høyre[x]]) + 1;
+        return x;
+    }
+    private int leftRotate(int y) {
+        int x = høyre[y];
+        int T2 = venstre[x];
+        venstre[x] = y;
+        høyre[y] = T2;
+        if (T2 != NIL) forelder[T2] = y;
+        erstattBarn(y, x);
+        forelder[y] = x;
+        hoyde[y] = Math.max(hoyde[venstre[y]], hoyde[høyre[y]]) + 1;
+        hoyde[x] = Math.max(hoyde[venstre[x]], hoyde[høyre[x]]) + 1;
+        return x;
+    }
+    // Setter ny inn på gammel sin plass under gammel sin forelder (eller som rot)
+    private void erstattBarn(int gammel, int ny) {
+        int f = forelder[gammel];
+        if (f == NIL) rot = ny;
+        else if (venstre[f] == gammel) venstre[f] = ny;
+        else høyre[f] = ny;
+        if (ny != NIL) forelder[ny] = f;
+    }
+    private int balanseFaktor(int node) {
+        return hoyde[venstre[node]] - hoyde[høyre[node]];
+    }
+
+    private int førsteInorden(int p) {
+        if (p == NIL) return NIL;
+        while (venstre[p] != NIL) p = venstre[p];
+        return p;
+    }
+    private int nesteInorden(int p) {
+        if (høyre[p] != NIL) return førsteInorden(høyre[p]);
+        int f = forelder[p];
+        while (f != NIL && p == høyre[f]) {
+            p = f;
+            f = forelder[f];
+        }
+        return f;
+    }
+
+    // Kaster IllegalStateException hvis en invariant er brutt: forelder-indekser, lagrede høyder,
+    // balansefaktor i [-1, 1], sortert inorden, antall, og at hver plass under brukt enten er i
+    // treet eller på frilisten
+    public void sjekkInvariant() {
+        if (rot != NIL && forelder[rot] != NIL) throw new IllegalStateException("Roten har forelder");
+        int noder = 0, forrige = NIL;
+        for (int p = førsteInorden(rot); p != NIL; p = nesteInorden(p)) {
+            noder++;
+            if (venstre[p] != NIL && forelder[venstre[p]] != p) throw new IllegalStateException("Feil forelder under " + nøkler[p]);
+            if (høyre[p] != NIL && forelder[høyre[p]] != p) throw new IllegalStateException("Feil forelder under " + nøkler[p]);
+            if (hoyde[p] != 1 + Math.max(hoyde[venstre[p]], hoyde[høyre[p]]))
+                throw new IllegalStateException("Feil høyde i " + nøkler[p]);
+            if (Math.abs(balanseFaktor(p)) > 1) throw new IllegalStateException("Ubalansert node " + nøkler[p]);
+            if (forrige != NIL && comp.compare(nøkkel(forrige), nøkkel(p)) > 0)
+                throw new IllegalStateException("Ikke sortert: " + nøkler[forrige] + " før " + nøkler[p]);
+            forrige = p;
+        }
+        if (noder != antall) throw new IllegalStateException("antall er " + antall + ", men treet har " + noder + " noder");
+        int ledige = 0;
+        for (int p = friliste; p != NIL; p = venstre[p]) {
+            if (nøkler[p] != null) throw new IllegalStateException("Ledig plass " + p + " holder en nøkkel");
+            ledige++;
+        }
+        if (noder + ledige != brukt - 1)
+            throw new IllegalStateException((brukt - 1) + " plasser i bruk, men " + noder + " i treet og " + ledige + " ledige");
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        for (int p = førsteInorden(rot); p != NIL; p = nesteInorden(p)) s.add(nøkler[p].toString());
+        return s.toString();
+    }
+
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int neste = førsteInorden(rot);
+            private final int forventedeEndringer = endringer;
+            @Override
+            public boolean hasNext() {
+                return neste != NIL;
+            }
+            @Override
+            public T next() {
+                if (forventedeEndringer != endringer) throw new ConcurrentModificationException();
+                if (neste == NIL) throw new NoSuchElementException();
+                T verdi = nøkkel(neste);
+                neste = nesteInorden(neste);
+                return verdi;
+            }
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package org.example;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Sortert kart fra nøkkel til verdi på AVL-treet i AvlNøkkeltre. Hver operasjon under går ned
+// i treet én gang: finnes nøkkelen, endres verdien i noden på stedet (ingen rebalansering), og
+// ellers henges den nye noden inn der nedstigningen endte. Erstatter mønsteret med en verdi-
+// klasse og egen comparator i SøkeBinærTre, der en oppdatering var inneholder + fjern + leggInn.
+// Semantikken følger java.util.Map: null-verdi fra compute/merge fjerner nøkkelen.
+class AvlKart<K, V> extends AvlNøkkeltre<K> implements Iterable<Map.Entry<K, V>> {
+    private static final class Post<K, V> extends Node<K> implements Map.Entry<K, V> {
+        private V verdi;
+
+        private Post(K nøkkel, V verdi) {
+            super(nøkkel);
+            this.verdi = verdi;
+        }
+
+        public K getKey() {
+            return nøkkel;
+        }
+
+        public V getValue() {
+            return verdi;
+        }
+
+        public V setValue(V verdi) {
+            V gammel = this.verdi;
+            this.verdi = verdi;
+            return gammel;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e && Objects.equals(nøkkel, e.getKey()) && Objects.equals(verdi, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(nøkkel) ^ Objects.hashCode(verdi);
+        }
+
+        @Override
+        public String toString() {
+            return nøkkel + "=" + verdi;
+        }
+    }
+
+    public AvlKart(Comparator<? super K> c) {
+        super(c);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Post<K, V> post(Node<K> p) {
+        return (Post<K, V>) p;
+    }
+
+    @Override
+    void flyttVerdi(Node<K> fra, Node<K> til) {
+        AvlKart.<K, V>post(til).verdi = AvlKart.<K, V>post(fra).verdi;
+    }
+
+    public V get(Object nøkkel) {
+        Node<K> p = finn(nøkkel);
+        return p == null ? null : AvlKart.<K, V>post(p).verdi;
+    }
+
+    public V getOrDefault(Object nøkkel, V standard) {
+        Node<K> p = finn(nøkkel);
+        return p == null ? standard : AvlKart.<K, V>post(p).verdi;
+    }
+
+    public boolean containsKey(Object nøkkel) {
+        return finn(nøkkel) != null;
+    }
+
+    public V put(K nøkkel, V verdi) {
+        Node<K> p = søk(nøkkel);
+        if (p != null) return AvlKart.<K, V>post(p).setValue(verdi);
+        settInn(new Post<>(nøkkel, verdi));
+        return null;
+    }
+
+    public V putIfAbsent(K nøkkel, V verdi) {
+        Node<K> p = søk(nøkkel);
+        if (p != null) {
+            Post<K, V> e = post(p);
+            if (e.verdi != null) return e.verdi;
+            e.verdi = verdi;
+            return null;
+        }
+        settInn(new Post<>(nøkkel, verdi));
+        return null;
+    }
+
+    public V remove(Object nøkkel) {
+        Node<K> p = finn(nøkkel);
+        if (p == null) return null;
+        V gammel = AvlKart.<K, V>post(p).verdi;
+        fjernNode(p);
+        return gammel;
+    }
+
+    public V computeIfAbsent(K nøkkel, Function<? super K, ? extends V> lag) {
+        Objects.requireNonNull(lag, "Funksjonen kan ikke være null");
+        Node<K> p = søk(nøkkel);
+        if (p != null) {
+            Post<K, V> e = post(p);
+            if (e.verdi == null) {
+                int forventetEndringer = endringer;
+                V ny = lag.apply(nøkkel);
+                if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+                e.verdi = ny;
+            }
+            return e.verdi;
+        }
+        Node<K> forelder = søkForelder;
+        int cmp = søkCmp, forventetEndringer = endringer;
+        V ny = lag.apply(nøkkel);
+        if (endringer != forventetEndringer) throw new ConcurrentModificationException(); // plassen fra søk kan være ugyldig
+        if (ny != null) settInn(new Post<>(nøkkel, ny), forelder, cmp);
+        return ny;
+    }
+
+    public V computeIfPresent(K nøkkel, BiFunction<? super K, ? super V, ? extends V> endre) {
+        Objects.requireNonNull(endre, "Funksjonen kan ikke være null");
+        Node<K> p = finn(nøkkel);
+        if (p == null || AvlKart.<K, V>post(p).verdi == null) return null;
+        int forventetEndringer = endringer;
+        V ny = endre.apply(nøkkel, AvlKart.<K, V>post(p).verdi);
+        if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        return sett(p, nøkkel, ny, null, 0);
+    }
+
+    public V compute(K nøkkel, BiFunction<? super K, ? super V, ? extends V> endre) {
+        Objects.requireNonNull(endre, "Funksjonen kan ikke være null");
+        Node<K> p = søk(nøkkel), forelder = søkForelder;
+        int cmp = søkCmp, forventetEndringer = endringer;
+        V ny = endre.apply(nøkkel, p == null ? null : AvlKart.<K, V>post(p).verdi);
+        if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        return sett(p, nøkkel, ny, forelder, cmp);
+    }
+
+    public V merge(K nøkkel, V verdi, BiFunction<? super V, ? super V, ? extends V> slå) {
+        Objects.requireNonNull(verdi, "Verdien kan ikke være null");
+        Objects.requireNonNull(slå, "Funksjonen kan ikke være null");
+        Node<K> p = søk(nøkkel);
+        if (p == null || AvlKart.<K, V>post(p).verdi == null) return sett(p, nøkkel, verdi, søkForelder, søkCmp);
+        int forventetEndringer = endringer;
+        V ny = slå.apply(AvlKart.<K, V>post(p).verdi, verdi);
+        if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        return sett(p, nøkkel, ny, null, 0);
+    }
+
+    // Resultatet av compute/merge: p er noden fra søk, eller null og plassen søk fant
+    // (forelder, cmp). null som ny verdi fjerner nøkkelen
+    private V sett(Node<K> p, K nøkkel, V ny, Node<K> forelder, int cmp) {
+        if (p == null) {
+            if (ny != null) settInn(new Post<>(nøkkel, ny), forelder, cmp);
+        } else if (ny == null) {
+            fjernNode(p);
+        } else {
+            AvlKart.<K, V>post(p).verdi = ny;
+        }
+        return ny;
+    }
+
+    // Oppslagene under gir en kopi som TreeMap.exportEntry: noden kan senere få en annen nøkkel
+    // av fjernNode, og setValue skal ikke gå rett inn i treet
+    public Map.Entry<K, V> firstEntry() {
+        return kopi(førsteInorden(rot));
+    }
+
+    public Map.Entry<K, V> lastEntry() {
+        return kopi(sisteInorden(rot));
+    }
+
+    public Map.Entry<K, V> floorEntry(K nøkkel) {
+        return kopi(bakerstIkkeOver(nøkkel, true));
+    }
+
+    public Map.Entry<K, V> ceilingEntry(K nøkkel) {
+        return kopi(førstIkkeUnder(nøkkel, true));
+    }
+
+    private static <K, V> Map.Entry<K, V> kopi(Node<K> p) {
+        return p == null ? null : new AbstractMap.SimpleImmutableEntry<>(p.nøkkel, AvlKart.<K, V>post(p).verdi);
+    }
+
+    // Postene i stigende nøkkelrekkefølge; setValue skriver rett inn i treet
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new NodeIterator<>() {
+            Map.Entry<K, V> element(Node<K> p) {
+                return post(p);
+            }
+        };
+    }
+
+    public Iterator<K> nøkler() {
+        return new NodeIterator<>() {
+            K element(Node<K> p) {
+                return p.nøkkel;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(", ", "{", "}");
+        for (Map.Entry<K, V> e : this) s.add(e.toString());
+        return s.toString();
+    }
+}
@@ -0,0 +1,252 @@
+package org.example;
+import java.util.Comparator;
+import java.util.Objects;
+
+// AVL-kjernen som SøkeBinærTre, kartene i AvlNøkkeltre og IntAvlTre/LongAvlTre deler: noder
+// med forelder-pekere, rebalansering oppover fra en endret node med de fire rotasjons-
+// tilfellene, utkobling, inorden-gang og søk etter nærmeste nøkkel. Noden bestemmer selv hva
+// som må regnes om når barna endres (oppdater), så SøkeBinærTre kan holde størrelsen på
+// subtrærne ved like uten at de andre betaler for det. nøkkel(p) er verdien noden sorteres på.
+abstract class AvlKjerne<K, N extends AvlKjerne.Kjernenode<N>> {
+    abstract static class Kjernenode<N extends Kjernenode<N>> {
+        N venstre, høyre, forelder;
+        int hoyde = 1;
+
+        // Regner om det noden lagrer om barna sine. Returnerer false når ingenting endret seg;
+        // da stopper balanserForeldre, fordi resten av stien opp til roten er uendret
+        boolean oppdater() {
+            int gammel = hoyde;
+            hoyde = 1 + Math.max(hoyde(venstre), hoyde(høyre));
+            return hoyde != gammel;
+        }
+    }
+
+    final Comparator<? super K> comp;
+    N rot;
+
+    AvlKjerne(Comparator<? super K> comp) {
+        this.comp = comp;
+    }
+
+    abstract K nøkkel(N p);
+
+    // Kalles for hver rotasjon med et av tilfellene i TreMetrikker, for målingen i SøkeBinærTre
+    void rotert(int tilfelle) {
+    }
+
+    // Regner om nodene fra node og oppover og roterer der balansen er brutt. Returnerer den
+    // øverste noden den kom til: roten i (del)treet node hører til, når ingen oppdater() stoppet
+    // den tidligere
+    N balanserForeldre(N node) {
+        N topp = node;
+        while (node != null) {
+            boolean endret = node.oppdater();
+            int balanseFaktor = balanseFaktor(node);
+            if (balanseFaktor > 1) {
+                if (balanseFaktor(node.venstre) >= 0) { // venstre venstre
+                    node = rightRotate(node);
+                    rotert(TreMetrikker.VENSTRE_VENSTRE);
+                } else { // venstre høyre
+                    leftRotate(node.venstre);
+                    node = rightRotate(node);
+                    rotert(TreMetrikker.VENSTRE_HØYRE);
+                }
+            } else if (balanseFaktor < -1) {
+                if (balanseFaktor(node.høyre) <= 0) { // høyre høyre
+                    node = leftRotate(node);
+                    rotert(TreMetrikker.HØYRE_HØYRE);
+                } else { // høyre venstre
+                    rightRotate(node.høyre);
+                    node = leftRotate(node);
+                    rotert(TreMetrikker.HØYRE_VENSTRE);
+                }
+            } else if (!endret) {
+                return topp;
+            }
+            topp = node;
+            node = node.forelder;
+        }
+        return topp;
+    }
+
+    // Roterer y ned til høyre. Oppdaterer forelder-pekere og rot/foreldrenodens barn
+    N rightRotate(N y) {
+        N x = y.venstre;
+        N t2 = x.høyre;
+        x.høyre = y;
+        y.venstre = t2;
+        if (t2 != null) t2.forelder = y;
+        erstattBarn(y, x);
+        y.forelder = x;
+        y.oppdater(); // y er nå barn av x, så y må oppdateres først
+        x.oppdater();
+        return x;
+    }
+
+    N leftRotate(N y) {
+        N x = y.høyre;
+        N t2 = x.venstre;
+        x.venstre = y;
+        y.høyre = t2;
+        if (t2 != null) t2.forelder = y;
+        erstattBarn(y, x);
+        y.forelder = x;
+        y.oppdater();
+        x.oppdater();
+        return x;
+    }
+
+    // Setter ny inn på gammel sin plass under gammel sin forelder (eller som rot).
+    // I frakoblede deltrær (splitt/skjøt) er gammel aldri rot, og rot røres ikke
+    void erstattBarn(N gammel, N ny) {
+        N f = gammel.forelder;
+        if (f == null) {
+            if (gammel == rot) rot = ny;
+        } else if (f.venstre == gammel) {
+            f.venstre = ny;
+        } else {
+            f.høyre = ny;
+        }
+        if (ny != null) ny.forelder = f;
+    }
+
+    // Kobler p ut av treet og balanserer, uten å flytte verdier mellom noder: med to barn tar
+    // etterfølgeren plassen til p i strukturen, også høyden. Alle andre noder beholder verdien
+    // sin, så en iterator som står på en annen node kan gå videre
+    void kobleUt(N p) {
+        N forelder;
+        if (p.venstre != null && p.høyre != null) {
+            N etterfølger = førsteInorden(p.høyre); // har ikke venstre barn
+            forelder = etterfølger.forelder == p ? etterfølger : etterfølger.forelder;
+            if (etterfølger.forelder != p) {
+                erstattBarn(etterfølger, etterfølger.høyre);
+                etterfølger.høyre = p.høyre;
+                etterfølger.høyre.forelder = etterfølger;
+            }
+            erstattBarn(p, etterfølger);
+            etterfølger.venstre = p.venstre;
+            etterfølger.venstre.forelder = etterfølger;
+            etterfølger.hoyde = p.hoyde; // ellers kan balanserForeldre stoppe under den med feil høyde
+        } else {
+            forelder = p.forelder;
+            erstattBarn(p, p.venstre != null ? p.venstre : p.høyre);
+        }
+        balanserForeldre(forelder); // retracing fra den laveste noden som fikk endret subtre
+    }
+
+    static int hoyde(Kjernenode<?> node) {
+        return node == null ? 0 : node.hoyde;
+    }
+
+    static int balanseFaktor(Kjernenode<?> node) {
+        return node == null ? 0 : hoyde(node.venstre) - hoyde(node.høyre);
+    }
+
+    static <N extends Kjernenode<N>> N førsteInorden(N p) {
+        if (p == null) return null;
+        while (p.venstre != null) p = p.venstre;
+        return p;
+    }
+
+    static <N extends Kjernenode<N>> N nesteInorden(N p) {
+        if (p == null) return null;
+        if (p.høyre != null) return førsteInorden(p.høyre);
+        N forelder = p.forelder; // ellers opp til vi kommer fra et venstre barn
+        while (forelder != null && p == forelder.høyre) {
+            p = forelder;
+            forelder = forelder.forelder;
+        }
+        return forelder;
+    }
+
+    // Speilvendt av førsteInorden/nesteInorden
+    static <N extends Kjernenode<N>> N sisteInorden(N p) {
+        if (p == null) return null;
+        while (p.høyre != null) p = p.høyre;
+        return p;
+    }
+
+    static <N extends Kjernenode<N>> N forrigeInorden(N p) {
+        if (p == null) return null;
+        if (p.venstre != null) return sisteInorden(p.venstre);
+        N forelder = p.forelder;
+        while (forelder != null && p == forelder.venstre) {
+            p = forelder;
+            forelder = forelder.forelder;
+        }
+        return forelder;
+    }
+
+    // En node med lik nøkkel, eller null
+    N finnNode(K nøkkel) {
+        N p = rot;
+        while (p != null) {
+            int cmp = comp.compare(nøkkel, nøkkel(p));
+            if (cmp < 0) p = p.venstre;
+            else if (cmp > 0) p = p.høyre;
+            else return p;
+        }
+        return null;
+    }
+
+    // Første node i inorden med nøkkel >= nøkkel (> nøkkel hvis ikke medLik), null om ingen
+    N førstIkkeUnder(K nøkkel, boolean medLik) {
+        Objects.requireNonNull(nøkkel, "Ikke tillat med null verdier");
+        N p = rot, funnet = null;
+        while (p != null) {
+            int cmp = comp.compare(nøkkel, nøkkel(p));
+            if (cmp < 0 || (medLik && cmp == 0)) {
+                funnet = p; // kandidat, men det kan finnes en tidligere til venstre
+                p = p.venstre;
+            } else {
+                p = p.høyre;
+            }
+        }
+        return funnet;
+    }
+
+    // Siste node i inorden med nøkkel <= nøkkel (< nøkkel hvis ikke medLik), null om ingen
+    N bakerstIkkeOver(K nøkkel, boolean medLik) {
+        Objects.requireNonNull(nøkkel, "Ikke tillat med null verdier");
+        N p = rot, funnet = null;
+        while (p != null) {
+            int cmp = comp.compare(nøkkel, nøkkel(p));
+            if (cmp > 0 || (medLik && cmp == 0)) {
+                funnet = p; // kandidat, men det kan finnes en senere til høyre
+                p = p.høyre;
+            } else {
+                p = p.venstre;
+            }
+        }
+        return funnet;
+    }
+
+    // Ekstra sjekk per node for det subklassen lagrer i tillegg, kalt av sjekkStruktur
+    void sjekkNode(N p) {
+    }
+
+    // Går gjennom hele treet og kaster IllegalStateException hvis en invariant er brutt:
+    // forelder-pekere, lagrede høyder, balansefaktor i [-1, 1] og sortert inorden (strengt
+    // stigende uten likeTillatt). Returnerer antall noder
+    final int sjekkStruktur(boolean likeTillatt) {
+        if (rot != null && rot.forelder != null) throw new IllegalStateException("Roten har forelder");
+        int noder = 0;
+        N forrige = null;
+        for (N p = førsteInorden(rot); p != null; p = nesteInorden(p)) {
+            noder++;
+            if (p.venstre != null && p.venstre.forelder != p)
+                throw new IllegalStateException("Feil forelder-peker under " + nøkkel(p));
+            if (p.høyre != null && p.høyre.forelder != p)
+                throw new IllegalStateException("Feil forelder-peker under " + nøkkel(p));
+            if (p.hoyde != 1 + Math.max(hoyde(p.venstre), hoyde(p.høyre)))
+                throw new IllegalStateException("Feil høyde i " + nøkkel(p));
+            if (Math.abs(balanseFaktor(p)) > 1)
+                throw new IllegalStateException("Ubalansert node " + nøkkel(p));
+            if (forrige != null && comp.compare(nøkkel(forrige), nøkkel(p)) > (likeTillatt ? 0 : -1))
+                throw new IllegalStateException("Ikke sortert: " + nøkkel(forrige) + " før " + nøkkel(p));
+            sjekkNode(p);
+            forrige = p;
+        }
+        return noder;
+    }
+}
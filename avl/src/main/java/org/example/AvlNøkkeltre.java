@@ -0,0 +1,201 @@
+package org.example;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// Felles del for kartene AvlKart og LongKart på AVL-kjernen som SøkeBinærTre også bruker, men
+// med unike nøkler og verdien i en subklasse av Node. fjernNode flytter etterfølgeren inn slik
+// SøkeBinærTre gjør. søk går ned én gang og husker hvor en ny node skal inn, så oppdater-eller-
+// sett-inn klarer seg med én nedstigning.
+abstract class AvlNøkkeltre<K> extends AvlKjerne<K, AvlNøkkeltre.Node<K>> {
+    static class Node<K> extends AvlKjerne.Kjernenode<Node<K>> {
+        K nøkkel;
+
+        Node(K nøkkel) {
+            this.nøkkel = nøkkel;
+        }
+    }
+
+    int antall;
+    int endringer;
+    // Satt av et mislykket søk: noden den nye skal henges under, og hvilken side. Gjelder bare
+    // til neste kall på søk, settInn, fjernNode eller clear, som alle nullstiller dem. Metoder
+    // som kaller brukerkode mellom søk og settInn må ta vare på dem selv
+    Node<K> søkForelder;
+    int søkCmp;
+    private boolean søkBom;
+
+    AvlNøkkeltre(Comparator<? super K> c) {
+        super(Objects.requireNonNull(c, "Comparator kan ikke være null"));
+    }
+
+    @Override
+    final K nøkkel(Node<K> p) {
+        return p.nøkkel;
+    }
+
+    // Flytter verdien fra én node til en annen når fjernNode erstatter en node med etterfølgeren
+    abstract void flyttVerdi(Node<K> fra, Node<K> til);
+
+    public int size() {
+        return antall;
+    }
+
+    public boolean isEmpty() {
+        return antall == 0;
+    }
+
+    public void clear() {
+        rot = null; // nodene har ingen pekere inn fra utsiden, så GC tar hele treet
+        antall = 0;
+        glemSøk();
+        endringer++;
+    }
+
+    public int hoyde() {
+        return hoyde(rot);
+    }
+
+    // Sjekker kjernens invarianter og at antall stemmer, se AvlKjerne.sjekkStruktur
+    public void sjekkInvariant() {
+        int noder = sjekkStruktur(false);
+        if (noder != antall) throw new IllegalStateException("antall er " + antall + ", men treet har " + noder + " noder");
+    }
+
+    // Noden med nøkkelen, eller null. Tar Object slik som Map.get
+    @SuppressWarnings("unchecked")
+    Node<K> finn(Object nøkkel) {
+        return nøkkel == null ? null : finnNode((K) nøkkel);
+    }
+
+    // Som finn, men husker plassen en ny node med nøkkelen skal inn på, for settInn
+    Node<K> søk(K nøkkel) {
+        Objects.requireNonNull(nøkkel, "Ikke tillat med null nøkler");
+        Node<K> p = rot, forelder = null;
+        int cmp = 0;
+        while (p != null) {
+            cmp = comp.compare(nøkkel, p.nøkkel);
+            if (cmp == 0) {
+                glemSøk();
+                return p;
+            }
+            forelder = p;
+            p = cmp < 0 ? p.venstre : p.høyre;
+        }
+        søkForelder = forelder;
+        søkCmp = cmp;
+        søkBom = true;
+        return null;
+    }
+
+    private void glemSøk() {
+        søkForelder = null;
+        søkCmp = 0;
+        søkBom = false;
+    }
+
+    // Henger ny inn der søket rett før bommet, uten nye sammenligninger, og balanserer
+    void settInn(Node<K> ny) {
+        if (!søkBom) throw new IllegalStateException("settInn uten et mislykket søk rett før");
+        settInn(ny, søkForelder, søkCmp);
+    }
+
+    void settInn(Node<K> ny, Node<K> forelder, int cmp) {
+        glemSøk();
+        ny.forelder = forelder;
+        if (forelder == null) rot = ny;
+        else if (cmp < 0) forelder.venstre = ny;
+        else forelder.høyre = ny;
+        antall++;
+        endringer++;
+        balanserForeldre(forelder);
+    }
+
+    // Kobler ut noden og balanserer. Med to barn flyttes etterfølgeren inn i noden og
+    // etterfølgerens node kobles ut i stedet
+    void fjernNode(Node<K> node) {
+        glemSøk();
+        if (node.venstre != null && node.høyre != null) {
+            Node<K> etterfølger = node.høyre;
+            while (etterfølger.venstre != null) etterfølger = etterfølger.venstre;
+            node.nøkkel = etterfølger.nøkkel;
+            flyttVerdi(etterfølger, node);
+            node = etterfølger;
+        }
+        Node<K> forelder = node.forelder;
+        Node<K> barn = node.venstre != null ? node.venstre : node.høyre;
+        if (forelder == null) rot = barn;
+        else if (node == forelder.venstre) forelder.venstre = barn;
+        else forelder.høyre = barn;
+        if (barn != null) barn.forelder = forelder;
+        antall--;
+        endringer++;
+        balanserForeldre(forelder);
+    }
+
+    public K firstKey() {
+        if (rot == null) throw new NoSuchElementException("Kartet er tomt");
+        return førsteInorden(rot).nøkkel;
+    }
+
+    public K lastKey() {
+        if (rot == null) throw new NoSuchElementException("Kartet er tomt");
+        return sisteInorden(rot).nøkkel;
+    }
+
+    public K floorKey(K nøkkel) {
+        return nøkkelEllerNull(bakerstIkkeOver(nøkkel, true));
+    }
+
+    public K lowerKey(K nøkkel) {
+        return nøkkelEllerNull(bakerstIkkeOver(nøkkel, false));
+    }
+
+    public K ceilingKey(K nøkkel) {
+        return nøkkelEllerNull(førstIkkeUnder(nøkkel, true));
+    }
+
+    public K higherKey(K nøkkel) {
+        return nøkkelEllerNull(førstIkkeUnder(nøkkel, false));
+    }
+
+    private static <K> K nøkkelEllerNull(Node<K> p) {
+        return p == null ? null : p.nøkkel;
+    }
+
+    // Stigende gjennomgang via forelder-pekerne. Feiler raskt, og remove() fjerner siste node
+    abstract class NodeIterator<E> implements Iterator<E> {
+        private Node<K> neste = førsteInorden(rot);
+        private Node<K> sist;
+        private int forventetEndringer = endringer;
+
+        abstract E element(Node<K> p);
+
+        @Override
+        public boolean hasNext() {
+            return neste != null;
+        }
+
+        @Override
+        public E next() {
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            if (neste == null) throw new NoSuchElementException();
+            sist = neste;
+            neste = nesteInorden(neste);
+            return element(sist);
+        }
+
+        @Override
+        public void remove() {
+            if (sist == null) throw new IllegalStateException("next() er ikke kalt, eller noden er fjernet");
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            // med to barn flytter fjernNode etterfølgeren (neste) inn i sist
+            if (sist.venstre != null && sist.høyre != null) neste = sist;
+            fjernNode(sist);
+            sist = null;
+            forventetEndringer = endringer;
+        }
+    }
+}
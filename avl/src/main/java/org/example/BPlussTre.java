@@ -0,0 +1,538 @@
+package org.example;
+import java.util.*;
+
+// B+-tre bak Beholder-grensesnittet. Hver node har en sortert tabell med opptil fanout nøkler
+// (bladene) eller fanout barn (de indre nodene), så et oppslag går gjennom log_fanout(n) noder
+// i stedet for ~1.44·log2(n) AVL-noder, og søket inne i en node skjer i én sammenhengende tabell.
+// Alle verdier ligger i bladene, som er lenket i begge retninger for raske områdeskann.
+// Like verdier er tillatt og kan strekke seg over flere blader. Skillenøkkelen nøkler[i] i en indre
+// node oppfyller: nøklene i barn[i] <= nøkler[i] <= nøklene i barn[i+1].
+// Traverseringen er den samme som i SøkeBinærTre: første/siste, floor/ceiling/lower/higher,
+// subSet/headSet/tailSet og synkendeIterator.
+class BPlussTre<T> implements Beholder<T> {
+    private static final int STANDARD_FANOUT = 64;
+
+    private static class Node {
+        int n; // antall nøkler i et blad, antall barn i en indre node
+        final Object[] nøkler;
+        private Node(int plass) {
+            nøkler = new Object[plass];
+        }
+    }
+    private static final class Blad extends Node {
+        private Blad neste, forrige;
+        private Blad(int fanout) {
+            super(fanout);
+        }
+    }
+    private static final class Indre extends Node {
+        private final Node[] barn;
+        private Indre(int fanout) {
+            super(fanout - 1);
+            barn = new Node[fanout];
+        }
+    }
+
+    // Et sted i bladene. blad == null betyr forbi enden (i en av retningene)
+    private static final class Posisjon {
+        private Blad blad;
+        private int indeks;
+        private Posisjon(Blad blad, int indeks) {
+            this.blad = blad;
+            this.indeks = indeks;
+        }
+        private void neste() {
+            if (++indeks == blad.n) {
+                blad = blad.neste;
+                indeks = 0;
+            }
+        }
+        private void forrige() {
+            if (--indeks < 0) {
+                blad = blad.forrige;
+                if (blad != null) indeks = blad.n - 1;
+            }
+        }
+        private boolean er(Posisjon p) {
+            return p != null && blad == p.blad && indeks == p.indeks;
+        }
+    }
+
+    private final Comparator<? super T> comp;
+    private final int fanout;
+    private final int min; // minste antall nøkler i et blad og barn i en indre node, utenom roten
+    private Node rot;
+    private Blad førsteBlad, sisteBlad;
+    private int nivåer; // 1 når roten er et blad
+    private int antall;
+    private int endringer;
+    private Object deleNøkkel; // skillenøkkelen fra siste deling, hentes av forelderen
+
+    public BPlussTre(Comparator<? super T> c) {
+        this(c, STANDARD_FANOUT);
+    }
+
+    // fanout er største antall nøkler i et blad og barn i en indre node
+    public BPlussTre(Comparator<? super T> c, int fanout) {
+        this.comp = Objects.requireNonNull(c, "Comparator kan ikke være null");
+        if (fanout < 4) throw new IllegalArgumentException("fanout må være minst 4: " + fanout);
+        this.fanout = fanout;
+        this.min = fanout / 2;
+        tøm();
+    }
+
+    private void tøm() {
+        Blad b = new Blad(fanout);
+        rot = førsteBlad = sisteBlad = b;
+        nivåer = 1;
+        antall = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T nøkkel(Node p, int i) {
+        return (T) p.nøkler[i];
+    }
+
+    // Antall nøkler i a[0..n) som er mindre enn verdi (eller lik, med medLik). Grenløst binærsøk:
+    // antall runder er gitt av n alene, og valget i hver runde er en betinget tilordning som JIT
+    // kan gjøre om til cmov, så det blir ingen feilspådde hopp. Selve sammenligningen går
+    // fortsatt gjennom comparatoren
+    @SuppressWarnings("unchecked")
+    private int søk(Object[] a, int n, T verdi, boolean medLik) {
+        if (n == 0) return 0;
+        int terskel = medLik ? 1 : 0; // compare < 1 betyr <=, compare < 0 betyr <
+        int base = 0;
+        while (n > 1) {
+            int halv = n >>> 1;
+            base = comp.compare((T) a[base + halv], verdi) < terskel ? base + halv : base;
+            n -= halv;
+        }
+        return base + (comp.compare((T) a[base], verdi) < terskel ? 1 : 0);
+    }
+
+    private static void settInn(Object[] a, int n, int i, Object verdi) {
+        System.arraycopy(a, i, a, i + 1, n - i);
+        a[i] = verdi;
+    }
+
+    private static void fjernFra(Object[] a, int n, int i) {
+        System.arraycopy(a, i + 1, a, i, n - i - 1);
+        a[n - 1] = null;
+    }
+
+    public boolean inneholder(T verdi) {
+        if (verdi == null) return false;
+        Posisjon p = førstIkkeUnder(verdi, true);
+        return p != null && comp.compare(verdi, nøkkel(p.blad, p.indeks)) == 0;
+    }
+
+    public int antall() {
+        return antall;
+    }
+
+    public boolean tom() {
+        return antall == 0;
+    }
+
+    public int nivåer() {
+        return nivåer;
+    }
+
+    public void nullstill() {
+        tøm();
+        endringer++;
+    }
+
+    // Like verdier legges etter de som finnes fra før
+    public boolean leggInn(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        Node ny = leggInn(rot, verdi, nivåer);
+        if (ny != null) { // roten ble delt, treet blir ett nivå høyere
+            Indre r = new Indre(fanout);
+            r.barn[0] = rot;
+            r.barn[1] = ny;
+            r.nøkler[0] = deleNøkkel;
+            r.n = 2;
+            rot = r;
+            nivåer++;
+        }
+        deleNøkkel = null;
+        antall++;
+        endringer++;
+        return true;
+    }
+
+    // Returnerer ny høyre nabo hvis p ble delt, med skillenøkkelen i deleNøkkel
+    private Node leggInn(Node p, T verdi, int nivå) {
+        if (nivå == 1) return leggInnBlad((Blad) p, verdi);
+        Indre q = (Indre) p;
+        int i = søk(q.nøkler, q.n - 1, verdi, true);
+        Node ny = leggInn(q.barn[i], verdi, nivå - 1);
+        return ny == null ? null : leggInnBarn(q, i + 1, deleNøkkel, ny);
+    }
+
+    private Blad leggInnBlad(Blad b, T verdi) {
+        int i = søk(b.nøkler, b.n, verdi, true);
+        if (b.n < fanout) {
+            settInn(b.nøkler, b.n++, i, verdi);
+            return null;
+        }
+        // fullt: øvre halvdel flyttes til et nytt blad, og verdien settes inn i riktig halvdel
+        Blad h = new Blad(fanout);
+        int m = (fanout + 1) / 2;
+        System.arraycopy(b.nøkler, m, h.nøkler, 0, fanout - m);
+        Arrays.fill(b.nøkler, m, fanout, null);
+        h.n = fanout - m;
+        b.n = m;
+        if (i <= m) settInn(b.nøkler, b.n++, i, verdi);
+        else settInn(h.nøkler, h.n++, i - m, verdi);
+        h.forrige = b;
+        h.neste = b.neste;
+        if (b.neste != null) b.neste.forrige = h;
+        else sisteBlad = h;
+        b.neste = h;
+        deleNøkkel = h.nøkler[0];
+        return h;
+    }
+
+    // Setter inn barn på plass j med skillenøkkel foran seg. Deler q hvis den er full
+    private Indre leggInnBarn(Indre q, int j, Object skille, Node barn) {
+        if (q.n < fanout) {
+            settInn(q.nøkler, q.n - 1, j - 1, skille);
+            settInn(q.barn, q.n, j, barn);
+            q.n++;
+            return null;
+        }
+        // full: samle alt i tabeller med plass til én til, og del dem i to. Skjer én gang per
+        // ~fanout/2 innsettinger i noden, så allokeringen betyr lite
+        Object[] nøkler = Arrays.copyOf(q.nøkler, fanout);
+        Node[] barna = Arrays.copyOf(q.barn, fanout + 1);
+        settInn(nøkler, fanout - 1, j - 1, skille);
+        settInn(barna, fanout, j, barn);
+        int m = (fanout + 1) / 2; // barn som blir igjen i q
+        Indre h = new Indre(fanout);
+        h.n = fanout + 1 - m;
+        System.arraycopy(barna, m, h.barn, 0, h.n);
+        System.arraycopy(nøkler, m, h.nøkler, 0, h.n - 1);
+        System.arraycopy(barna, 0, q.barn, 0, m);
+        Arrays.fill(q.barn, m, fanout, null);
+        System.arraycopy(nøkler, 0, q.nøkler, 0, m - 1);
+        Arrays.fill(q.nøkler, m - 1, fanout - 1, null);
+        q.n = m;
+        deleNøkkel = nøkler[m - 1];
+        return h;
+    }
+
+    // Fjerner én forekomst av verdien
+    public boolean fjern(T verdi) {
+        if (verdi == null) return false;
+        if (!fjern(rot, verdi, nivåer)) return false;
+        if (nivåer > 1 && rot.n == 1) { // roten har bare ett barn igjen, treet blir ett nivå lavere
+            rot = ((Indre) rot).barn[0];
+            nivåer--;
+        }
+        antall--;
+        endringer++;
+        return true;
+    }
+
+    private boolean fjern(Node p, T verdi, int nivå) {
+        if (nivå == 1) {
+            int i = søk(p.nøkler, p.n, verdi, false);
+            if (i == p.n || comp.compare(verdi, nøkkel(p, i)) != 0) return false;
+            fjernFra(p.nøkler, p.n--, i);
+            return true;
+        }
+        Indre q = (Indre) p;
+        // Like verdier kan fortsette i neste barn så lenge skillenøkkelen er lik verdien
+        for (int i = søk(q.nøkler, q.n - 1, verdi, false); i < q.n; i++) {
+            if (fjern(q.barn[i], verdi, nivå - 1)) {
+                if (q.barn[i].n < min) fiks(q, i);
+                return true;
+            }
+            if (i == q.n - 1 || comp.compare(verdi, nøkkel(q, i)) != 0) return false;
+        }
+        return false;
+    }
+
+    // barn[i] har for få nøkler/barn: lån fra en nabo som har nok, ellers slå sammen med den
+    private void fiks(Indre q, int i) {
+        if (i > 0 && q.barn[i - 1].n > min) lånFraVenstre(q, i);
+        else if (i < q.n - 1 && q.barn[i + 1].n > min) lånFraHøyre(q, i);
+        else if (i > 0) slåSammen(q, i - 1);
+        else slåSammen(q, i);
+    }
+
+    private void lånFraVenstre(Indre q, int i) {
+        Node v = q.barn[i - 1], c = q.barn[i];
+        if (c instanceof Blad) {
+            settInn(c.nøkler, c.n++, 0, v.nøkler[--v.n]);
+            v.nøkler[v.n] = null;
+            q.nøkler[i - 1] = c.nøkler[0];
+        } else { // roter gjennom forelderen: skillenøkkelen ned i c, v sin siste nøkkel opp
+            Indre vi = (Indre) v, ci = (Indre) c;
+            settInn(ci.nøkler, ci.n - 1, 0, q.nøkler[i - 1]);
+            settInn(ci.barn, ci.n, 0, vi.barn[vi.n - 1]);
+            ci.n++;
+            q.nøkler[i - 1] = vi.nøkler[vi.n - 2];
+            vi.nøkler[vi.n - 2] = null;
+            vi.barn[vi.n - 1] = null;
+            vi.n--;
+        }
+    }
+
+    private void lånFraHøyre(Indre q, int i) {
+        Node c = q.barn[i], h = q.barn[i + 1];
+        if (c instanceof Blad) {
+            c.nøkler[c.n++] = h.nøkler[0];
+            fjernFra(h.nøkler, h.n--, 0);
+            q.nøkler[i] = h.nøkler[0];
+        } else {
+            Indre ci = (Indre) c, hi = (Indre) h;
+            ci.nøkler[ci.n - 1] = q.nøkler[i];
+            ci.barn[ci.n] = hi.barn[0];
+            ci.n++;
+            q.nøkler[i] = hi.nøkler[0];
+            fjernFra(hi.nøkler, hi.n - 1, 0);
+            fjernFra(hi.barn, hi.n, 0);
+            hi.n--;
+        }
+    }
+
+    // Flytter alt fra barn[j+1] over i barn[j] og fjerner barn[j+1] og skillenøkkelen mellom dem
+    private void slåSammen(Indre q, int j) {
+        Node v = q.barn[j], h = q.barn[j + 1];
+        if (v instanceof Blad) {
+            Blad vb = (Blad) v, hb = (Blad) h;
+            System.arraycopy(hb.nøkler, 0, vb.nøkler, vb.n, hb.n);
+            vb.n += hb.n;
+            vb.neste = hb.neste;
+            if (hb.neste != null) hb.neste.forrige = vb;
+            else sisteBlad = vb;
+        } else {
+            Indre vi = (Indre) v, hi = (Indre) h;
+            vi.nøkler[vi.n - 1] = q.nøkler[j];
+            System.arraycopy(hi.nøkler, 0, vi.nøkler, vi.n, hi.n - 1);
+            System.arraycopy(hi.barn, 0, vi.barn, vi.n, hi.n);
+            vi.n += hi.n;
+        }
+        fjernFra(q.nøkler, q.n - 1, j);
+        fjernFra(q.barn, q.n, j + 1);
+        q.n--;
+    }
+
+    // Første nøkkel >= verdi (eller > verdi uten medLik), null hvis ingen
+    private Posisjon førstIkkeUnder(T verdi, boolean medLik) {
+        Node p = rot;
+        for (int nivå = nivåer; nivå > 1; nivå--) {
+            Indre q = (Indre) p;
+            p = q.barn[søk(q.nøkler, q.n - 1, verdi, !medLik)];
+        }
+        int i = søk(p.nøkler, p.n, verdi, !medLik);
+        if (i < p.n) return new Posisjon((Blad) p, i);
+        Blad neste = ((Blad) p).neste; // alle i bladet er mindre, så svaret er først i neste blad
+        return neste == null ? null : new Posisjon(neste, 0);
+    }
+
+    // Siste nøkkel <= verdi (eller < verdi uten medLik), null hvis ingen
+    private Posisjon bakerstIkkeOver(T verdi, boolean medLik) {
+        Posisjon p = førstIkkeUnder(verdi, !medLik);
+        if (p == null) return antall == 0 ? null : new Posisjon(sisteBlad, sisteBlad.n - 1);
+        p.forrige();
+        return p.blad == null ? null : p;
+    }
+
+    private T verdi(Posisjon p) {
+        return p == null ? null : nøkkel(p.blad, p.indeks);
+    }
+
+    public T første() {
+        return tom() ? null : nøkkel(førsteBlad, 0);
+    }
+
+    public T siste() {
+        return tom() ? null : nøkkel(sisteBlad, sisteBlad.n - 1);
+    }
+
+    // Største verdi <= verdi
+    public T floor(T verdi) {
+        return verdi(bakerstIkkeOver(verdi, true));
+    }
+
+    // Minste verdi >= verdi
+    public T ceiling(T verdi) {
+        return verdi(førstIkkeUnder(verdi, true));
+    }
+
+    // Største verdi < verdi
+    public T lower(T verdi) {
+        return verdi(bakerstIkkeOver(verdi, false));
+    }
+
+    // Minste verdi > verdi
+    public T higher(T verdi) {
+        return verdi(førstIkkeUnder(verdi, false));
+    }
+
+    // Verdiene mellom fra og til som en lat visning, som i SøkeBinærTre. Iteratoren starter med
+    // ett søk og går så bladlenkene framover, med én sammenligning mot til per verdi
+    public Iterable<T> subSet(T fra, boolean fraInklusiv, T til, boolean tilInklusiv) {
+        Objects.requireNonNull(fra, "Ikke tillat med null verdier");
+        Objects.requireNonNull(til, "Ikke tillat med null verdier");
+        if (comp.compare(fra, til) > 0) throw new IllegalArgumentException("fra > til: " + fra + " > " + til);
+        return () -> new BladIterator(førstIkkeUnder(fra, fraInklusiv), til, tilInklusiv, false);
+    }
+
+    // Alle verdier før (eller til og med) til
+    public Iterable<T> headSet(T til, boolean inklusiv) {
+        Objects.requireNonNull(til, "Ikke tillat med null verdier");
+        return () -> new BladIterator(start(), til, inklusiv, false);
+    }
+
+    // Alle verdier fra og med (eller etter) fra
+    public Iterable<T> tailSet(T fra, boolean inklusiv) {
+        Objects.requireNonNull(fra, "Ikke tillat med null verdier");
+        return () -> new BladIterator(førstIkkeUnder(fra, inklusiv), null, false, false);
+    }
+
+    // Går gjennom treet fra største til minste verdi
+    public Iterator<T> synkendeIterator() {
+        return new BladIterator(tom() ? null : new Posisjon(sisteBlad, sisteBlad.n - 1), null, false, true);
+    }
+
+    public Iterator<T> iterator() {
+        return new BladIterator(start(), null, false, false);
+    }
+
+    private Posisjon start() {
+        return tom() ? null : new Posisjon(førsteBlad, 0);
+    }
+
+    // Går bladlenkene fra pos og stopper ved grense (hvis gitt). Feiler raskt ved endringer utenom
+    // iteratoren. remove() fjerner via fjern og finner plassen igjen med et nytt søk, siden
+    // bladene kan ha lånt fra eller blitt slått sammen med naboene
+    private class BladIterator implements Iterator<T> {
+        private Posisjon pos; // neste verdi, null når ferdig
+        private final T grense;
+        private final boolean grenseInklusiv;
+        private final boolean synkende;
+        private T sist;
+        private boolean kanFjerne;
+        private int forventetEndringer = endringer;
+
+        private BladIterator(Posisjon start, T grense, boolean grenseInklusiv, boolean synkende) {
+            this.pos = start;
+            this.grense = grense;
+            this.grenseInklusiv = grenseInklusiv;
+            this.synkende = synkende;
+            sjekkGrense();
+        }
+
+        private void sjekkGrense() {
+            if (pos == null || pos.blad == null) {
+                pos = null;
+                return;
+            }
+            if (grense == null) return;
+            int cmp = comp.compare(nøkkel(pos.blad, pos.indeks), grense);
+            if (cmp > 0 || (cmp == 0 && !grenseInklusiv)) pos = null;
+        }
+
+        private void steg(Posisjon p) {
+            if (synkende) p.forrige();
+            else p.neste();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos != null;
+        }
+
+        @Override
+        public T next() {
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            if (pos == null) throw new NoSuchElementException();
+            sist = nøkkel(pos.blad, pos.indeks);
+            kanFjerne = true;
+            steg(pos);
+            sjekkGrense();
+            return sist;
+        }
+
+        @Override
+        public void remove() {
+            if (!kanFjerne) throw new IllegalStateException("next() er ikke kalt, eller verdien er fjernet");
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            // Tell like verdier fra starten av rekken med sist og fram til neste posisjon. Like
+            // verdier kan ikke skilles fra hverandre, så etter fjern hopper vi over én færre
+            int like = 0;
+            for (Posisjon p = førsteLike(); p != null && p.blad != null && !p.er(pos)
+                    && comp.compare(nøkkel(p.blad, p.indeks), sist) == 0; steg(p)) {
+                like++;
+            }
+            fjern(sist);
+            Posisjon p = førsteLike();
+            for (int i = 1; i < like && p != null && p.blad != null; i++) steg(p);
+            pos = p;
+            sjekkGrense();
+            kanFjerne = false;
+            forventetEndringer = endringer;
+        }
+
+        private Posisjon førsteLike() {
+            return synkende ? bakerstIkkeOver(sist, true) : førstIkkeUnder(sist, true);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        for (Blad b = førsteBlad; b != null; b = b.neste) {
+            for (int i = 0; i < b.n; i++) s.add(b.nøkler[i].toString());
+        }
+        return s.toString();
+    }
+
+    // Sjekker hele treet: like dype blader, fyllingsgrad, sortering, skillenøkler, bladlenker og
+    // antall. Kun for feilsøking
+    public void sjekkInvariant() {
+        ArrayList<Blad> blader = new ArrayList<>();
+        sjekk(rot, nivåer, null, null, blader);
+        Blad forrige = null;
+        int totalt = 0;
+        for (Blad b : blader) {
+            if (b.forrige != forrige) throw new IllegalStateException("Feil forrige-lenke");
+            if (forrige != null && forrige.neste != b) throw new IllegalStateException("Feil neste-lenke");
+            if (forrige != null && comp.compare(nøkkel(forrige, forrige.n - 1), nøkkel(b, 0)) > 0)
+                throw new IllegalStateException("Ikke sortert mellom blader");
+            totalt += b.n;
+            forrige = b;
+        }
+        if (blader.get(0) != førsteBlad || forrige != sisteBlad || forrige.neste != null)
+            throw new IllegalStateException("Feil første/siste blad");
+        if (totalt != antall) throw new IllegalStateException("antall er " + antall + ", men bladene har " + totalt);
+    }
+
+    private void sjekk(Node p, int nivå, T nedre, T øvre, ArrayList<Blad> blader) {
+        if (p != rot && p.n < min) throw new IllegalStateException("For få i node på nivå " + nivå + ": " + p.n);
+        int nøkler = nivå == 1 ? p.n : p.n - 1;
+        for (int i = 0; i < nøkler; i++) {
+            T k = nøkkel(p, i);
+            if (i > 0 && comp.compare(nøkkel(p, i - 1), k) > 0) throw new IllegalStateException("Ikke sortert i node");
+            if ((nedre != null && comp.compare(k, nedre) < 0) || (øvre != null && comp.compare(k, øvre) > 0))
+                throw new IllegalStateException("Nøkkel " + k + " utenfor [" + nedre + ", " + øvre + "]");
+        }
+        for (int i = nøkler; i < p.nøkler.length; i++) {
+            if (p.nøkler[i] != null) throw new IllegalStateException("Gammel referanse igjen i node");
+        }
+        if (nivå == 1) {
+            if (!(p instanceof Blad)) throw new IllegalStateException("Blader på ulike nivåer");
+            blader.add((Blad) p);
+            return;
+        }
+        Indre q = (Indre) p;
+        for (int i = 0; i < q.n; i++) {
+            sjekk(q.barn[i], nivå - 1, i == 0 ? nedre : nøkkel(q, i - 1), i == q.n - 1 ? øvre : nøkkel(q, i), blader);
+        }
+    }
+}
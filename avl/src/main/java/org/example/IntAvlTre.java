@@ -0,0 +1,181 @@
+package org.example;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+import java.util.function.IntSupplier;
+
+// AVL-tre spesialisert for int-nøkler. Nøkkelen ligger direkte i noden (ingen Integer),
+// og sammenligningene er vanlige int-sammenligninger i stedet for kall til en Comparator.
+// Rebalansering, rotasjoner og utkobling kommer fra AvlKjerne, som SøkeBinærTre også bruker;
+// her er bare søkene, som må sammenligne int direkte. Like verdier legges til høyre.
+class IntAvlTre extends AvlKjerne<Integer, IntAvlTre.Node> implements IntBeholder {
+    static final class Node extends AvlKjerne.Kjernenode<Node> {
+        private final int verdi; // Nodens verdi
+        private Node(int verdi, Node f) {
+            this.verdi = verdi;
+            this.forelder = f;
+        }
+    }
+    private int antall;
+    private int endringer;
+
+    public IntAvlTre() {
+        super(Comparator.naturalOrder()); // bare for sjekkInvariant; søkene under bruker den ikke
+    }
+
+    // Bygger et balansert tre av n verdier som kilde gir i stigende rekkefølge, i O(n) uten
+    // rotasjoner og uten bokser. Kaster IllegalArgumentException hvis verdiene ikke er sortert
+    public IntAvlTre(int n, IntSupplier kilde) {
+        this();
+        if (n < 0) throw new IllegalArgumentException("Antall kan ikke være negativt: " + n);
+        Objects.requireNonNull(kilde, "Kilden kan ikke være null");
+        rot = byggSortert(n, kilde, new int[1]);
+    }
+
+    // Bygger deltreet i inorden, venstre side før roten, så kilden leses én gang fra start til slutt.
+    // Venstre side får (n - 1) / 2 noder og høyre resten, så høydene skiller seg med høyst én.
+    // forrige[0] er sist leste verdi; antall teller verdiene som er lest så langt
+    private Node byggSortert(int n, IntSupplier kilde, int[] forrige) {
+        if (n == 0) return null;
+        int nVenstre = (n - 1) / 2;
+        Node v = byggSortert(nVenstre, kilde, forrige);
+        int verdi = kilde.getAsInt();
+        if (antall > 0 && verdi < forrige[0]) {
+            throw new IllegalArgumentException("Verdiene er ikke sortert: " + verdi + " kom etter " + forrige[0]);
+        }
+        forrige[0] = verdi;
+        antall++;
+        Node p = new Node(verdi, null);
+        p.venstre = v;
+        if (v != null) v.forelder = p;
+        p.høyre = byggSortert(n - 1 - nVenstre, kilde, forrige);
+        if (p.høyre != null) p.høyre.forelder = p;
+        p.hoyde = 1 + Math.max(hoyde(p.venstre), hoyde(p.høyre));
+        return p;
+    }
+
+    @Override
+    Integer nøkkel(Node p) {
+        return p.verdi;
+    }
+
+    public boolean inneholder(int verdi) {
+        Node p = rot;
+        while (p != null) {
+            if (verdi < p.verdi) p = p.venstre;
+            else if (verdi > p.verdi) p = p.høyre;
+            else return true;
+        }
+        return false;
+    }
+
+    public int antall() {
+        return antall;
+    }
+    public boolean tom() {
+        return antall == 0;
+    }
+    public int hoyde() {
+        return hoyde(rot);
+    }
+
+    public boolean leggInn(int verdi) {
+        Node forelder = null;
+        Node p = rot;
+        while (p != null) { // like verdier går til høyre
+            forelder = p;
+            p = verdi < p.verdi ? p.venstre : p.høyre;
+        }
+        Node nyNode = new Node(verdi, forelder);
+        if (forelder == null) rot = nyNode;
+        else if (verdi < forelder.verdi) forelder.venstre = nyNode;
+        else forelder.høyre = nyNode;
+        antall++;
+        endringer++;
+        balanserForeldre(forelder);
+        return true;
+    }
+
+    public boolean fjern(int verdi) {
+        Node p = rot;
+        while (p != null && p.verdi != verdi) {
+            p = verdi < p.verdi ? p.venstre : p.høyre;
+        }
+        if (p == null) return false;
+        fjernNode(p);
+        return true;
+    }
+
+    private void fjernNode(Node p) {
+        kobleUt(p);
+        antall--;
+        endringer++;
+    }
+
+    // Antall forekomster av verdien
+    public int antall(int verdi) {
+        Node p = rot, første = null;
+        while (p != null) { // finn den første like i inorden
+            if (verdi > p.verdi) p = p.høyre;
+            else {
+                if (verdi == p.verdi) første = p;
+                p = p.venstre;
+            }
+        }
+        int teller = 0;
+        for (p = første; p != null && p.verdi == verdi; p = nesteInorden(p)) teller++;
+        return teller;
+    }
+
+    public void nullstill() {
+        rot = null; // nodene har ingen referanser ut av treet, så GC tar hele strukturen
+        antall = 0;
+        endringer++;
+    }
+
+    // Se AvlKjerne.sjekkStruktur; kaster IllegalStateException hvis treet eller antall er feil
+    public void sjekkInvariant() {
+        int noder = sjekkStruktur(true);
+        if (noder != antall) throw new IllegalStateException("antall er " + antall + ", men treet har " + noder + " noder");
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        for (Node p = førsteInorden(rot); p != null; p = nesteInorden(p)) s.add(Integer.toString(p.verdi));
+        return s.toString();
+    }
+
+    // Inorden via forelder-pekerne, uten stack og uten boksing. Feiler raskt hvis treet endres
+    // utenom iteratoren, og remove() fjerner siste verdi fra next
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Node neste = førsteInorden(rot);
+            private Node sist;
+            private int forventetEndringer = endringer;
+            @Override
+            public boolean hasNext() {
+                return neste != null;
+            }
+            @Override
+            public int nextInt() {
+                if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+                if (neste == null) throw new NoSuchElementException();
+                sist = neste;
+                neste = nesteInorden(neste);
+                return sist.verdi;
+            }
+            @Override
+            public void remove() {
+                if (sist == null) throw new IllegalStateException("next() er ikke kalt, eller verdien er fjernet");
+                if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+                fjernNode(sist); // kobleUt flytter ingen verdier, så neste er fortsatt riktig node
+                sist = null;
+                forventetEndringer = endringer;
+            }
+        };
+    }
+}
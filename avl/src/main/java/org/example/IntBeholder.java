@@ -0,0 +1,13 @@
+package org.example;
+import java.util.PrimitiveIterator;
+
+// int-utgaven av Beholder: samme kontrakt, men uten boksing av verdiene
+interface IntBeholder {
+    boolean leggInn(int t);    // Legger inn t i beholderen
+    boolean inneholder(int t); // Sjekker om beholderen inneholder t
+    boolean fjern(int t);      // Fjerner t fra beholderen
+    int antall();              // Returnerer antall elementer i beholderen
+    boolean tom();             // Sjekker om beholderen er tom
+    void nullstill();          // Tømmer beholderen
+    PrimitiveIterator.OfInt iterator(); // Returnerer en iterator
+}
@@ -0,0 +1,13 @@
+package org.example;
+import java.util.PrimitiveIterator;
+
+// long-utgaven av Beholder: samme kontrakt, men uten boksing av verdiene
+interface LongBeholder {
+    boolean leggInn(long t);    // Legger inn t i beholderen
+    boolean inneholder(long t); // Sjekker om beholderen inneholder t
+    boolean fjern(long t);      // Fjerner t fra beholderen
+    int antall();               // Returnerer antall elementer i beholderen
+    boolean tom();              // Sjekker om beholderen er tom
+    void nullstill();           // Tømmer beholderen
+    PrimitiveIterator.OfLong iterator(); // Returnerer en iterator
+}
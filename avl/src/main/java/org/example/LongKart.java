@@ -0,0 +1,127 @@
+package org.example;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.StringJoiner;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ObjLongConsumer;
+
+// AvlKart med long-verdier rett i noden, for tellere: ingen Long-bokser per oppdatering.
+// addTo og merge går ned én gang og legger inn nøkkelen hvis den mangler. Manglende nøkler
+// leses som standardverdien (0 hvis ikke annet er satt), slik at get(k) kan brukes rett fram.
+class LongKart<K> extends AvlNøkkeltre<K> {
+    private static final class Post<K> extends Node<K> {
+        private long verdi;
+
+        private Post(K nøkkel, long verdi) {
+            super(nøkkel);
+            this.verdi = verdi;
+        }
+    }
+
+    private final long standard;
+
+    public LongKart(Comparator<? super K> c) {
+        this(c, 0);
+    }
+
+    public LongKart(Comparator<? super K> c, long standard) {
+        super(c);
+        this.standard = standard;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Post<K> post(Node<K> p) {
+        return (Post<K>) p;
+    }
+
+    @Override
+    void flyttVerdi(Node<K> fra, Node<K> til) {
+        post(til).verdi = post(fra).verdi;
+    }
+
+    public long standard() {
+        return standard;
+    }
+
+    public long get(Object nøkkel) {
+        Node<K> p = finn(nøkkel);
+        return p == null ? standard : post(p).verdi;
+    }
+
+    public long getOrDefault(Object nøkkel, long annen) {
+        Node<K> p = finn(nøkkel);
+        return p == null ? annen : post(p).verdi;
+    }
+
+    public boolean containsKey(Object nøkkel) {
+        return finn(nøkkel) != null;
+    }
+
+    // Returnerer forrige verdi, eller standard hvis nøkkelen var ny
+    public long put(K nøkkel, long verdi) {
+        Node<K> p = søk(nøkkel);
+        if (p == null) {
+            settInn(new Post<>(nøkkel, verdi));
+            return standard;
+        }
+        long gammel = post(p).verdi;
+        post(p).verdi = verdi;
+        return gammel;
+    }
+
+    // Legger delta til verdien (standard + delta for en ny nøkkel) og returnerer den nye verdien
+    public long addTo(K nøkkel, long delta) {
+        Node<K> p = søk(nøkkel);
+        if (p == null) {
+            settInn(new Post<>(nøkkel, standard + delta));
+            return standard + delta;
+        }
+        return post(p).verdi += delta;
+    }
+
+    // Setter verdi for en ny nøkkel, ellers slå(gammel, verdi). Returnerer den nye verdien
+    public long merge(K nøkkel, long verdi, LongBinaryOperator slå) {
+        Node<K> p = søk(nøkkel);
+        if (p == null) {
+            settInn(new Post<>(nøkkel, verdi));
+            return verdi;
+        }
+        int forventetEndringer = endringer;
+        long ny = slå.applyAsLong(post(p).verdi, verdi);
+        if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        return post(p).verdi = ny;
+    }
+
+    // Returnerer verdien som ble fjernet, eller standard hvis nøkkelen ikke fantes
+    public long remove(Object nøkkel) {
+        Node<K> p = finn(nøkkel);
+        if (p == null) return standard;
+        long gammel = post(p).verdi;
+        fjernNode(p);
+        return gammel;
+    }
+
+    public void forEach(ObjLongConsumer<? super K> handling) {
+        int forventetEndringer = endringer;
+        for (Node<K> p = førsteInorden(rot); p != null; p = nesteInorden(p)) {
+            handling.accept(p.nøkkel, post(p).verdi);
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        }
+    }
+
+    public Iterator<K> nøkler() {
+        return new NodeIterator<>() {
+            K element(Node<K> p) {
+                return p.nøkkel;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(", ", "{", "}");
+        forEach((k, v) -> s.add(k + "=" + v));
+        return s.toString();
+    }
+}
@@ -1,6 +1,17 @@
 package org.example;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 interface Beholder<T> extends Iterable<T> {
     boolean leggInn(T t);    // Legger inn t i beholderen
@@ -12,47 +23,179 @@ interface Beholder<T> extends Iterable<T> {
     Iterator<T> iterator();  // Returnerer en iterator
 }
 
-class SøkeBinærTre<T> implements Beholder<T> {
-    private class Node<T> {
+class SøkeBinærTre<T> extends AvlKjerne<T, SøkeBinærTre.Node<T>> implements Beholder<T> {
+    static final class Node<T> extends AvlKjerne.Kjernenode<Node<T>> {
         private T verdi; // Nodens verdi
-        private Node<T> venstre, høyre, forelder; // Referanser til venstre barn, høyre barn og forelder
-        private int hoyde;
+        private int kopier; // antall like verdier noden står for, alltid 1 utenfor multimengde-modus
+        private int størrelse; // antall verdier i subtreet med denne noden som rot, kopier medregnet
         private Node(T verdi, Node<T> v, Node<T> h, Node<T> f) {
             this.verdi = verdi;
             this.venstre = v;
             this.høyre = h;
             this.forelder = f;
-            this.hoyde = 1; // legger til hoyde
+            this.kopier = 1;
+            this.størrelse = 1;
         }
         // Konstruktør som initialiserer noden med en verdi og forelder, venstre og høyre barn blir null
         private Node(T verdi, Node<T> f) {
             this(verdi, null, null, f); // Kaller den første konstruktøren med venstre og høyre barn som null
         }
+        // Størrelsen må regnes om helt til roten, så balanserForeldre stopper aldri tidlig her
+        @Override
+        boolean oppdater() {
+            super.oppdater();
+            størrelse = størrelse(venstre) + størrelse(høyre) + kopier;
+            return true;
+        }
         @Override
         public String toString() {return verdi.toString();}
     }
-    private Node<T> rot;
     private int antall;
     private int endringer;
-    private Comparator<? super T> comp;
+    private boolean sjekkInvarianter; // sjekker hele treet etter hver endring, kun for feilsøking
+    private final boolean multimengde; // like verdier deler én node med teller i stedet for én node hver
+    private TreMetrikker metrikker; // null når målingen er slått av
+    private boolean fingersøk;
+    private Node<T> finger; // sist brukte node, gyldig bare så lenge endringer == fingerEndringer
+    private int fingerEndringer;
+    private T[] hurtig; // små-buffer for inneholder: verdier som nylig ble funnet, null når av
+    private int[] hurtigEndringer; // en plass i hurtig gjelder bare hvis endringer er uendret
+    private int hurtigBits;
+    private boolean gjenbruk;
+    private Node<T> fri; // nullstilte trær hvis noder kan brukes igjen, lenket via forelder til roten
 
     public SøkeBinærTre(Comparator<? super T> c) {
-        this.comp = c;
-        this.rot = null;
+        this(c, false);
+    }
+
+    // Med multimengde = true lagres hver forskjellige verdi i én node som teller kopiene
+    public SøkeBinærTre(Comparator<? super T> c, boolean multimengde) {
+        super(c);
         this.antall = 0;
+        this.multimengde = multimengde;
+    }
+
+    // Bygger et perfekt balansert tre fra sortert input i O(n). En tabell kan sendes inn med
+    // Arrays.asList(tabell) og en strøm med strøm::iterator
+    public SøkeBinærTre(Comparator<? super T> c, boolean multimengde, Iterable<? extends T> sortert) {
+        this(c, multimengde);
+        leggInnAlleSortert(sortert);
+    }
+
+    // Slår målingen av rotasjoner, sammenligninger, søkedybder og allokerte noder på eller av.
+    // Avslått koster den én null-sjekk per operasjon. Å slå den på igjen begynner med nye tellere
+    public void settMetrikker(boolean på) {
+        metrikker = på ? new TreMetrikker(this::hoyde, this::antall) : null;
+    }
+
+    // Tellerne, eller null når målingen er av. Se TreMetrikker.bilde() og registrer()
+    public TreMetrikker metrikker() {
+        return metrikker;
+    }
+
+    public boolean erMultimengde() {
+        return multimengde;
+    }
+
+    // Gir hver forskjellige verdi i inorden sammen med antall kopier (alltid 1 utenfor
+    // multimengde-modus), så lagring og lignende slipper å se den samme verdien flere ganger
+    void forHverVerdi(ObjIntConsumer<? super T> handling) {
+        for (Node<T> p = førsteInorden(rot); p != null; p = nesteInorden(p)) handling.accept(p.verdi, p.kopier);
     }
 
     public boolean inneholder(T verdi) {
         if(verdi == null) return false;
+        if (fingersøk || hurtig != null) return inneholderLokalt(verdi);
 
         Node<T> p = rot;
+        int dybde = 0; // antall sammenligninger, bare brukt av metrikkene
         while(p != null) {
+            dybde++;
             int comparedValue = comp.compare(verdi,p.verdi);
             if(comparedValue < 0) p = p.venstre;
             else if (comparedValue > 0) p = p.høyre;
-            else return true;
+            else break;
         }
-        return false;
+        if (metrikker != null) metrikker.søk(TreMetrikker.INNEHOLDER, dybde);
+        return p != null;
+    }
+
+    // Fingersøk: inneholder, leggInn og fjern starter fra noden forrige operasjon endte på og
+    // klatrer via forelder bare så langt opp som nødvendig før de går ned igjen. Når påfølgende
+    // nøkler ligger nær hverandre (rangavstand d), koster det O(log d) sammenligninger i stedet
+    // for O(log n). Uten nivålenker kan et steg over en høy subtregrense likevel koste O(log n).
+    // inneholder flytter fingeren, så dette passer ikke for samtidige lesere
+    public void settFingersøk(boolean på) {
+        fingersøk = på;
+        finger = null;
+    }
+
+    // Hurtigbuffer for gjentatte inneholder på de samme verdiene: plasser (rundet opp til en
+    // toerpotens) direkteavbildede plasser med verdier som nylig ble funnet. Enhver endring av
+    // treet gjør hele bufferen ugyldig. 0 slår den av. Treff sjekkes med comparatoren, så en
+    // hashCode som ikke stemmer med comparatoren gir bare bom, aldri feil svar
+    @SuppressWarnings("unchecked")
+    public void settHurtigbuffer(int plasser) {
+        if (plasser < 0) throw new IllegalArgumentException("plasser: " + plasser);
+        if (plasser == 0) {
+            hurtig = null;
+            hurtigEndringer = null;
+            return;
+        }
+        hurtigBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(plasser - 1));
+        hurtig = (T[]) new Object[1 << hurtigBits];
+        hurtigEndringer = new int[1 << hurtigBits];
+    }
+
+    private boolean inneholderLokalt(T verdi) {
+        int plass = 0;
+        if (hurtig != null) {
+            plass = (verdi.hashCode() * 0x9E3779B9) >>> (32 - hurtigBits);
+            T kandidat = hurtig[plass];
+            if (kandidat != null && hurtigEndringer[plass] == endringer && comp.compare(verdi, kandidat) == 0) return true;
+        }
+        Node<T> p = fingersøk ? klatre(verdi) : rot, sist = null;
+        int dybde = 0;
+        while (p != null) {
+            dybde++;
+            sist = p;
+            int cmp = comp.compare(verdi, p.verdi);
+            if (cmp < 0) p = p.venstre;
+            else if (cmp > 0) p = p.høyre;
+            else break;
+        }
+        if (metrikker != null) metrikker.søk(TreMetrikker.INNEHOLDER, dybde);
+        if (fingersøk) settFinger(sist);
+        if (p != null && hurtig != null) {
+            hurtig[plass] = p.verdi;
+            hurtigEndringer[plass] = endringer;
+        }
+        return p != null;
+    }
+
+    private void settFinger(Node<T> p) {
+        finger = p;
+        fingerEndringer = endringer;
+    }
+
+    // Laveste forfar av fingeren som har verdi innenfor sitt subtre, eller en node med lik verdi
+    // funnet på veien. Er verdi større enn fingeren, kan bare øvre grense være brutt: den er verdien
+    // til første forfar vi når fra venstre. Tilsvarende speilvendt. Uten gyldig finger: roten
+    private Node<T> klatre(T verdi) {
+        if (finger == null || fingerEndringer != endringer) return rot;
+        Node<T> p = finger;
+        int cmp = comp.compare(verdi, p.verdi);
+        if (cmp == 0) return p;
+        while (p.forelder != null) {
+            Node<T> q = p.forelder;
+            if (cmp > 0 ? p == q.venstre : p == q.høyre) {
+                int cq = comp.compare(verdi, q.verdi);
+                if (cq == 0) return q;
+                if ((cq < 0) == (cmp > 0)) break; // verdi ligger mellom grensene til p sitt subtre
+            }
+            p = q;
+        }
+        return p;
     }
 
     public int antall() {
@@ -67,25 +210,39 @@ class SøkeBinærTre<T> implements Beholder<T> {
     public boolean leggInn(T verdi) {
         Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
         if (rot == null) {  // Hvis treet er tomt, opprett rot-noden
-            rot = new Node<>(verdi, null, null, null);
+            rot = nyNode(verdi, null);
             antall++;
+            endringer++;
+            if (metrikker != null) metrikker.søk(TreMetrikker.LEGG_INN, 0);
             return true;
         }
-        Node<T> akkuratNode = rot; // Start fra roten
+        Node<T> akkuratNode = fingersøk ? klatre(verdi) : rot; // Start fra roten, eller fra fingeren
         Node<T> forelder = null; // For å holde styr på foreldrenoden
+        int dybde = 0;
         // Løkke for å finne riktig plassering
         while (akkuratNode != null) {
+            dybde++;
             forelder = akkuratNode; // Oppdaterer forelderen
             int comparedValue = comp.compare(verdi, akkuratNode.verdi); // Beregn sammenligningsverdi
             if (comparedValue < 0)
                 akkuratNode = akkuratNode.venstre; // Gå venstre
             else if (comparedValue > 0)
                 akkuratNode = akkuratNode.høyre;
+            else if (multimengde) { // Verdien finnes fra før, tell opp i stedet for å lage en ny node
+                akkuratNode.kopier++;
+                for (Node<T> q = akkuratNode; q != null; q = q.forelder) q.størrelse++;
+                antall++;
+                endringer++;
+                if (metrikker != null) metrikker.søk(TreMetrikker.LEGG_INN, dybde);
+                if (fingersøk) settFinger(akkuratNode);
+                if (sjekkInvarianter) sjekkInvariant();
+                return true;
+            }
             else
                 akkuratNode = akkuratNode.høyre;
         }
         // Opprett en ny node med den funnet forelderen
-        Node<T> nyNode = new Node<>(verdi, forelder);
+        Node<T> nyNode = nyNode(verdi, forelder);
         // Sett den nye noden til venstre eller høyre av forelderen
         if (comp.compare(verdi, forelder.verdi) < 0) {
             forelder.venstre = nyNode; // Legg til venstre
@@ -95,142 +252,210 @@ class SøkeBinærTre<T> implements Beholder<T> {
 
         antall++; // Øk antall noder
         endringer++; // Oppdater endringer
+        if (metrikker != null) metrikker.søk(TreMetrikker.LEGG_INN, dybde + 1); // + sammenligningen med forelderen
         balanserForeldre(forelder); // Balanser treet etter innsetting
+        if (fingersøk) settFinger(nyNode);
+        if (sjekkInvarianter) sjekkInvariant();
         return true; // Indikerer at innsetting var vellykket
     }
-    private void balanserForeldre(Node node) {
-        while (node != null) {
-            // Oppdater høyden til noden
-            node.hoyde = 1 + Math.max(hoyde(node.venstre),hoyde(node.høyre));
-            //finn balanseDaktor
-            int balanseFaktor = balanseFaktor(node);
-            // Venstre venstre tilfelle, Gjør høyre rotasjon
-            if(balanseFaktor > 1 && balanseFaktor(node.venstre) >= 0) {
-                Node<T> nyRot = rightRotate(node);
-                if(node == rot) {
-                    rot = nyRot; // oppdater rot hvis nødvendig
-                } else {
-                    if(node.forelder.venstre == node) {
-                        node.forelder.venstre = nyRot; // oppdater venstre barn av foreldrenoen
-                    } else {
-                        node.forelder.høyre = nyRot;
-                    }
-                }
-                nyRot.forelder = node.forelder; // oppdater forelderen til nyRot
-                node = nyRot;
-            }
-            // Høyre høyre tilfelle
-            else if (balanseFaktor < -1 && balanseFaktor(node.høyre) <= 0) {
-                Node<T> nyRot = leftRotate(node);
-                if(node == rot) {
-                    rot = nyRot; // oppdater rot hvis nødvendig
-                } else {
-                    if(node.forelder.venstre == node) {
-                        node.forelder.venstre = nyRot;
-                    } else {
-                        node.forelder.høyre = nyRot;
-                    }
-                }
-                nyRot.forelder = node.forelder;
-                node = nyRot;
-            }
-            // Venstre høyre tilfelle
-            else if(balanseFaktor > 1 && balanseFaktor(node.venstre) < 0) {
-                node.venstre = leftRotate(node.venstre);
-                Node<T> nyRot = rightRotate(node);
-                node = nyRot;
-                if(node == rot) {
-                    rot = nyRot; // oppdater rot hvis nødvendig
-                } else {
-                    if(node.forelder.venstre == node) {
-                        node.forelder.venstre = nyRot;
-                    } else {
-                        node.forelder.høyre = nyRot;
+    @Override
+    T nøkkel(Node<T> p) {
+        return p.verdi;
+    }
+
+    @Override
+    void rotert(int tilfelle) {
+        if (metrikker != null) metrikker.rotasjon(tilfelle);
+    }
+
+    // Høyden til treet, 0 for et tomt tre
+    public int hoyde() {
+        return hoyde(rot);
+    }
+
+    // Slår av/på sjekk av AVL-invariantene etter hver leggInn og fjern. Koster O(n) per endring
+    public void settInvariantSjekk(boolean på) {
+        sjekkInvarianter = på;
+    }
+
+    // Går gjennom hele treet og kaster IllegalStateException hvis en invariant er brutt:
+    // forelder-pekere, lagrede høyder, balansefaktor i [-1, 1], sortert inorden og antall
+    public void sjekkInvariant() {
+        sjekkStruktur(!multimengde);
+        if (størrelse(rot) != antall) throw new IllegalStateException("antall er " + antall + ", men treet har " + størrelse(rot) + " verdier");
+    }
+
+    @Override
+    void sjekkNode(Node<T> p) {
+        if (p.kopier < 1 || (!multimengde && p.kopier != 1))
+            throw new IllegalStateException("Feil antall kopier i " + p);
+        if (p.størrelse != størrelse(p.venstre) + størrelse(p.høyre) + p.kopier)
+            throw new IllegalStateException("Feil størrelse i " + p);
+    }
+
+    private static int størrelse(Node<?> node) {
+        return (node == null) ? 0 : node.størrelse;
+    }
+
+
+    // Legger inn alle verdiene fra en sortert kilde. Er treet tomt, eller er kilden stor i forhold
+    // til treet, flettes treets noder og de nye verdiene til én sortert tabell som bygges om til et
+    // perfekt balansert tre i O(n + k), uten rotasjoner. Ellers legges verdiene inn én og én.
+    // Kaster IllegalArgumentException hvis kilden ikke er sortert etter treets comparator.
+    public int leggInnAlleSortert(Iterable<? extends T> sortert) {
+        Objects.requireNonNull(sortert, "Kilden kan ikke være null");
+        // Bare verdiene samles og sjekkes først; noder lages ikke før flettingen er valgt, så en
+        // usortert kilde eller innsetting én og én ikke tar noder fra fri eller teller dem i metrikkene
+        ArrayList<T> nye = new ArrayList<>();
+        T forrige = null;
+        int k = 0; // antall nye noder: i multimengde-modus én per forskjellige verdi
+        for (T verdi : sortert) {
+            Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+            int cmp = forrige == null ? -1 : comp.compare(forrige, verdi);
+            if (cmp > 0) throw new IllegalArgumentException("Kilden er ikke sortert: " + forrige + " før " + verdi);
+            if (cmp < 0 || !multimengde) k++;
+            nye.add(verdi);
+            forrige = verdi;
+        }
+        int lagtInn = nye.size();
+        if (lagtInn == 0) return 0;
+
+        // Fletting koster O(n + k), én og én koster O(k log n)
+        if (antall > 0 && (long) k * (32 - Integer.numberOfLeadingZeros(antall)) < antall) {
+            for (T verdi : nye) leggInn(verdi);
+            return lagtInn;
+        }
+
+        Node<T>[] alle = nodeTabell(antallNoder() + k);
+        int j = 0, m = 0;
+        Node<T> p = førsteInorden(rot);
+        while (p != null || j < lagtInn) {
+            if (j == lagtInn || (p != null && comp.compare(p.verdi, nye.get(j)) <= 0)) {
+                if (multimengde) { // verdien finnes fra før, tell opp noden som er der
+                    while (j < lagtInn && comp.compare(p.verdi, nye.get(j)) == 0) {
+                        p.kopier++;
+                        j++;
                     }
                 }
-                nyRot.forelder = node.forelder;
-                node = nyRot;
-            }
-            // Høyre venstre tilfelle
-            else if(balanseFaktor < -1 && balanseFaktor(node.høyre) > 0) {
-                node.høyre = rightRotate(node.høyre);
-                Node<T> nyRot = leftRotate(node);
-                if(node == rot) {
-                    rot = nyRot;
-                } else {
-                    if(node.forelder.venstre == node) {
-                        node.forelder.venstre = nyRot;
-                    } else {
-                        node.forelder.høyre = nyRot;
+                Node<T> neste = nesteInorden(p); // må hentes før p kobles om
+                alle[m++] = p;
+                p = neste;
+            } else {
+                Node<T> ny = nyNode(nye.get(j++), null);
+                if (multimengde) { // like verdier etter hverandre i kilden blir én node
+                    while (j < lagtInn && comp.compare(ny.verdi, nye.get(j)) == 0) {
+                        ny.kopier++;
+                        j++;
                     }
                 }
-                nyRot.forelder = node.forelder;
-                node = nyRot;
+                alle[m++] = ny;
             }
-            node = node.forelder;
         }
+        rot = byggBalansert(alle, 0, m - 1, null);
+        antall += lagtInn;
+        endringer++;
+        if (sjekkInvarianter) sjekkInvariant();
+        return lagtInn;
     }
-    private Node rightRotate(Node y) {
-        Node x = y.venstre;
-        Node T2 = y.høyre;
-        // rotere
-        x.høyre = y;
-        y.venstre = T2;
-        // Oppdater høyder
-        y.hoyde = Math.max(hoyde(y.venstre),hoyde(y.høyre)) + 1;
-        x.hoyde = Math.max(hoyde(x.venstre),hoyde(x.høyre)) + 1;
-        return x;// returner den nye roten for å opprettholde referanse
-    }
-    private Node leftRotate(Node y) {
-        Node x = y.høyre;
-        Node T2 = x.venstre;
-        // rotasjon
-        x.venstre = y;
-        y.høyre = T2;
-        // Oppdaterer høyder
-        x.hoyde = Math.max(hoyde(x.venstre),hoyde(x.høyre)) + 1;
-        y.hoyde = Math.max(hoyde(y.venstre),hoyde(y.høyre)) + 1;
-        // returner den nye roten
-        return x;
-    }
-    private int hoyde(Node node) {
-        return (node == null) ? 0 : node.hoyde;
+
+    // Antall noder i treet (mindre enn antall i multimengde-modus)
+    private int antallNoder() {
+        if (!multimengde) return antall;
+        int n = 0;
+        for (Node<T> p = førsteInorden(rot); p != null; p = nesteInorden(p)) n++;
+        return n;
     }
-    private int balanseFaktor(Node node) {
-        return (node == null) ? 0 : hoyde(node.venstre) - hoyde(node.høyre);
+
+    @SuppressWarnings("unchecked") // tabellen slipper aldri ut av klassen
+    private static <T> Node<T>[] nodeTabell(int n) {
+        return (Node<T>[]) new Node<?>[n];
     }
 
+    // Bygger et perfekt balansert tre av noder[fra..til] (sortert) med midterste node som rot
+    private Node<T> byggBalansert(Node<T>[] noder, int fra, int til, Node<T> forelder) {
+        if (fra > til) return null;
+        int midt = (fra + til) >>> 1;
+        Node<T> p = noder[midt];
+        p.forelder = forelder;
+        p.venstre = byggBalansert(noder, fra, midt - 1, p);
+        p.høyre = byggBalansert(noder, midt + 1, til, p);
+        p.hoyde = 1 + Math.max(hoyde(p.venstre), hoyde(p.høyre));
+        p.størrelse = størrelse(p.venstre) + størrelse(p.høyre) + p.kopier;
+        return p;
+    }
 
     // balanserign er ferdig
     public int antall(T verdi) {
-        int teller = 0; // Initialiserer en teller for å holde oversikt over antall forekomster
-        Node<T> akkuratNode = rot; // Starter fra rotnoden i treet
+        if (verdi == null) return 0; // null kan ikke ligge i treet
 
-        while (akkuratNode != null) { // Så lenge det finnes noder i treet
-            // Sjekker om både verdi og nodens verdi er null
-            if (verdi == null && akkuratNode.verdi == null) {
-                teller++; // Øker telleren hvis begge er null
-                akkuratNode = akkuratNode.venstre;
-                // Går til venstre barn antar at nullverdier er minst
+        if (multimengde) { // alle kopiene ligger i samme node
+            Node<T> p = finnNode(verdi);
+            return p == null ? 0 : p.kopier;
+        }
+        // Like verdier kan ligge på begge sider etter rotasjoner, men de er alltid etter hverandre i inorden
+        return antallMindre(verdi, true) - antallMindre(verdi, false);
+    }
+
+    // Rangen til verdien: hvor mange verdier i treet som er strengt mindre, O(log n)
+    public int rang(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        return antallMindre(verdi, false);
+    }
+
+    // Den k-te minste verdien, der k = 0 gir den minste. Kopier telles hver for seg, O(log n)
+    public T velg(int k) {
+        if (k < 0 || k >= antall) throw new IndexOutOfBoundsException("k = " + k + ", antall = " + antall);
+        Node<T> p = rot;
+        while (true) {
+            int v = størrelse(p.venstre);
+            if (k < v) p = p.venstre;
+            else if (k < v + p.kopier) return p.verdi;
+            else {
+                k -= v + p.kopier;
+                p = p.høyre;
             }
-            // Hvis verdi ikke er null
-            else if (verdi != null) {
-                // Sammenligner verdien med nodens verdi
-                int comparedValue = comp.compare(verdi, akkuratNode.verdi);
-                if (comparedValue < 0) // Hvis verdien er mindre
-                    akkuratNode = akkuratNode.venstre; // Gå til venstre barn
-                else if (comparedValue > 0) // Hvis verdien er større
-                    akkuratNode = akkuratNode.høyre; // Gå til høyre barn
-                else { // Hvis verdiene er like
-                    teller++; // Øker telleren for funnet verdi
-                    akkuratNode = akkuratNode.høyre; // Gå til høyre barn for å se etter flere duplikater
-                }
+        }
+    }
+
+    // Antall verdier x med fra <= x <= til, O(log n)
+    public int antallMellom(T fra, T til) {
+        Objects.requireNonNull(fra, "Ikke tillat med null verdier");
+        Objects.requireNonNull(til, "Ikke tillat med null verdier");
+        if (comp.compare(fra, til) > 0) return 0;
+        return antallMindre(til, true) - antallMindre(fra, false);
+    }
+
+    // Teller verdiene som er mindre enn (eller lik, hvis medLik) verdi med én nedstigning
+    private int antallMindre(T verdi, boolean medLik) {
+        int teller = 0;
+        Node<T> p = rot;
+        while (p != null) {
+            int cmp = comp.compare(verdi, p.verdi);
+            if (cmp > 0 || (medLik && cmp == 0)) {
+                teller += størrelse(p.venstre) + p.kopier; // hele venstre subtre og p selv er mindre
+                p = p.høyre;
             } else {
-                // Hvis verdien er null, men nodens verdi ikke er null
-                akkuratNode = akkuratNode.venstre; // Gå til venstre barn (kan justeres basert på hvordan nullverdier håndteres)
+                p = p.venstre;
             }
         }
-        return teller; // Returnerer totalt antall forekomster av verdien
+        return teller;
+    }
+
+    // Lesing uten lås for OppdeltSøkeBinærTre. En skriver kan endre treet underveis, så leseren kan
+    // se halvferdige rotasjoner (også midlertidige sykler). Løkkene gir derfor opp etter MAKS_STEG,
+    // som er mer enn høyden til ethvert AVL-tre med int-antall noder. Svaret er bare gyldig hvis
+    // kalleren etterpå har bekreftet at ingen skriver var inne
+    static final int MAKS_STEG = 128;
+
+    boolean inneholderOptimistisk(T verdi) {
+        Node<T> p = rot;
+        for (int steg = 0; p != null && steg < MAKS_STEG; steg++) {
+            int cmp = comp.compare(verdi, p.verdi);
+            if (cmp < 0) p = p.venstre;
+            else if (cmp > 0) p = p.høyre;
+            else return true;
+        }
+        return false;
     }
 
     //prøver å finne den noden som er langt til venstre som mulig
@@ -272,12 +497,14 @@ class SøkeBinærTre<T> implements Beholder<T> {
     public boolean fjern(T verdi) {
         if(verdi == null) return false;
 
-        Node<T> akkuratNode = rot;
-        Node<T> forelder = null;
+        Node<T> akkuratNode = fingersøk ? klatre(verdi) : rot;
+        Node<T> forelder = akkuratNode == null ? null : akkuratNode.forelder;
 
         int comparedValue = 0;
+        int dybde = 0;
 
         while(akkuratNode != null) {
+            dybde++;
             comparedValue = comp.compare(verdi, akkuratNode.verdi);
             if(comparedValue < 0) {
                 forelder = akkuratNode;
@@ -288,8 +515,33 @@ class SøkeBinærTre<T> implements Beholder<T> {
             } else
                 break; // noden er funnet
         }
-        if(akkuratNode == null) return false;
+        if (metrikker != null) metrikker.søk(TreMetrikker.FJERN, dybde);
+        if(akkuratNode == null) {
+            if (fingersøk) settFinger(forelder);
+            return false;
+        }
 
+        if (akkuratNode.kopier > 1) { // flere kopier igjen, noden blir stående
+            akkuratNode.kopier--;
+            for (Node<T> q = akkuratNode; q != null; q = q.forelder) q.størrelse--;
+            antall--;
+            endringer++;
+            if (fingersøk) settFinger(akkuratNode);
+            if (sjekkInvarianter) sjekkInvariant();
+            return true;
+        }
+        // med to barn blir noden stående med etterfølgerens verdi, ellers kobles den ut
+        boolean toBarn = akkuratNode.venstre != null && akkuratNode.høyre != null;
+        fjernNode(akkuratNode, forelder);
+        antall--;
+        endringer++;
+        if (fingersøk) settFinger(toBarn ? akkuratNode : forelder);
+        if (sjekkInvarianter) sjekkInvariant();
+        return true;
+    }
+
+    // Kobler ut akkuratNode (som har forelder som forelder) og balanserer. Endrer ikke antall
+    private void fjernNode(Node<T> akkuratNode, Node<T> forelder) {
         // denne blir kun kjørt når akkuratNode har 2 barn
         if(akkuratNode.venstre != null && akkuratNode.høyre != null) {
             Node<T> inNode = akkuratNode.høyre; // må finne inorden node for å erstatte
@@ -299,6 +551,7 @@ class SøkeBinærTre<T> implements Beholder<T> {
                 inNode = inNode.venstre;
             }
             akkuratNode.verdi = inNode.verdi; //erstatter noden som skal fjernes med en inorden node
+            akkuratNode.kopier = inNode.kopier;
             akkuratNode = inNode;
             forelder = inordenForelder; // forelder er en node før akkuratnode
         }
@@ -315,9 +568,8 @@ class SøkeBinærTre<T> implements Beholder<T> {
         if(barn != null) { // sjekker om noden vi fjerner er barn, hvis det er det oppdater den forelder til å være akkuratNode sin forelder
             barn.forelder = forelder;
         }
-        antall--;
-        endringer++;
-        return true;
+        // Retracing: høydene kan bare ha endret seg fra forelderen til den fysisk fjernede noden og opp til roten
+        balanserForeldre(forelder);
     }
 
     //metode får å finne den minste noden i et tre (går alltid til venstre)
@@ -327,100 +579,282 @@ class SøkeBinærTre<T> implements Beholder<T> {
         }
         return node;
     }
+    // Fjerner alle forekomster av verdien, O(log n) uansett hvor mange det er
     public int fjernAlle(T verdi) {
         if (verdi == null) return 0; // Ingen noder kan fjernes hvis verdien er null
-        int fjernetAntall = 0; // Teller for antall noder som er fjernet
-        while (true) { // Gjenta så lenge vi finner og fjerner noder
-            boolean fjernet = fjern(verdi); // Prøv å fjerne noden
-            if (!fjernet) break; // Hvis ingen node ble fjernet, avslutt løkken
-            fjernetAntall++; // Øk teller for hver vellykket fjerning
-            antall--;
-            endringer++;
-        }
-        return fjernetAntall; // Returner antall fjernede noder
+        if (multimengde) return fjernAlleKopier(verdi);
+        return fjernOmråde(verdi, verdi);
+    }
+
+    // I multimengde-modus ligger alle kopiene i én node, så de fjernes med ett søk i O(log n)
+    private int fjernAlleKopier(T verdi) {
+        Node<T> p = finnNode(verdi);
+        if (p == null) return 0;
+        int fjernetAntall = p.kopier;
+        fjernNode(p, p.forelder);
+        antall -= fjernetAntall;
+        endringer++;
+        if (sjekkInvarianter) sjekkInvariant();
+        return fjernetAntall;
     }
 
     public int fjernAlleNodermedVerdi(T verdi) {
-        if (verdi == null) return 0; // Ingen noder kan fjernes hvis verdien er null
+        return fjernAlle(verdi);
+    }
 
-        int fjernetAntall = 0; // Teller for antall noder som er fjernet
-        Stack<Node> stack = new Stack<>();
-        stack.push(rot); // Start med rot-noden
+    // Fjerner alle verdier x med fra <= x <= til og returnerer hvor mange som ble fjernet.
+    // Treet splittes foran fra og etter til, og de to ytre delene skjøtes sammen igjen,
+    // så kostnaden er O(log n) uansett hvor mange verdier som forsvinner
+    public int fjernOmråde(T fra, T til) {
+        int fjernetAntall = antallMellom(fra, til); // sjekker også for null
+        if (fjernetAntall == 0) return 0;
 
-        while (!stack.isEmpty()) {
-            Node<T> aktuellNode = stack.pop(); // Hent den øverste noden fra stacken
+        Node<T> p = rot;
+        rot = null; // treet er frakoblet mens det splittes
+        Splitt s = new Splitt();
+        splitt(p, fra, false, s); // venstre: < fra
+        Node<T> venstre = s.venstre;
+        splitt(s.høyre, til, true, s); // venstre: fra..til (kastes), høyre: > til
 
-            if (aktuellNode == null) continue; // Hvis noden er null, gå til neste
+        rot = skjøt(venstre, s.høyre);
+        antall -= fjernetAntall;
+        endringer++;
+        if (sjekkInvarianter) sjekkInvariant();
+        return fjernetAntall;
+    }
 
-            // Sjekk om noden har den verdien vi vil fjerne
-            if (comp.compare(aktuellNode.verdi, verdi) == 0) {
-                // Fjern noden
-                fjern(aktuellNode.verdi); // Bruk den eksisterende fjern-metoden
-                fjernetAntall++; // Øk antall fjernede noder
-                endringer++;
-                antall--;
-            }
+    // Fjerner alle verdier som oppfyller betingelsen. Betingelsen må testes på hver verdi, så dette
+    // er O(n), men treet bygges opp igjen balansert i én omgang i stedet for n enkeltvise fjern.
+    // I multimengde-modus testes hver forskjellige verdi én gang og alle kopiene fjernes sammen
+    public int fjernHvis(Predicate<? super T> betingelse) {
+        Objects.requireNonNull(betingelse, "Betingelsen kan ikke være null");
+        ArrayList<Node<T>> beholdt = new ArrayList<>();
+        int fjernetAntall = 0;
+        for (Node<T> p = førsteInorden(rot); p != null; p = nesteInorden(p)) {
+            if (betingelse.test(p.verdi)) fjernetAntall += p.kopier;
+            else beholdt.add(p);
+        }
+        if (fjernetAntall == 0) return 0;
+
+        Node<T>[] noder = beholdt.toArray(nodeTabell(beholdt.size()));
+        rot = byggBalansert(noder, 0, noder.length - 1, null);
+        antall -= fjernetAntall;
+        endringer++;
+        if (sjekkInvarianter) sjekkInvariant();
+        return fjernetAntall;
+    }
+
+    // Resultatet av splitt. Hvert kall overskriver feltene, så de må leses rett etterpå
+    private class Splitt {
+        private Node<T> venstre, høyre;
+    }
 
-            // Legg til venstre og høyre barn til stacken
-            if (aktuellNode.høyre != null) {
-                stack.push(aktuellNode.høyre);
+    // Deler det frakoblede subtreet p i verdiene < verdi (<= hvis medLik) og resten, O(log n).
+    // Rører bare nodene i p, så uavhengige deltrær kan splittes i parallell
+    private void splitt(Node<T> p, T verdi, boolean medLik, Splitt ut) {
+        if (p == null) {
+            ut.venstre = ut.høyre = null;
+            return;
+        }
+        Node<T> v = løsne(p.venstre), h = løsne(p.høyre);
+        int cmp = comp.compare(p.verdi, verdi);
+        if (cmp < 0 || (medLik && cmp == 0)) { // p og hele venstre subtre havner til venstre
+            splitt(h, verdi, medLik, ut);
+            ut.venstre = skjøt(v, p, ut.venstre);
+        } else { // p og hele høyre subtre havner til høyre
+            splitt(v, verdi, medLik, ut);
+            ut.høyre = skjøt(ut.høyre, p, h);
+        }
+    }
+
+    private Node<T> løsne(Node<T> p) {
+        if (p != null) p.forelder = null;
+        return p;
+    }
+
+    // Skjøter sammen to frakoblede AVL-trær der alle verdier i v <= m <= alle verdier i h.
+    // m henges inn på det høyeste treets kant der høydene møtes, og retracing derfra
+    // gjenoppretter balansen. Kostnad O(|hoyde(v) - hoyde(h)| + 1)
+    private Node<T> skjøt(Node<T> v, Node<T> m, Node<T> h) {
+        m.forelder = null;
+        if (hoyde(v) > hoyde(h) + 1) { // gå ned langs høyre kant av v
+            Node<T> f = null, c = v;
+            while (hoyde(c) > hoyde(h) + 1) {
+                f = c;
+                c = c.høyre;
             }
-            if (aktuellNode.venstre != null) {
-                stack.push(aktuellNode.venstre);
+            koble(m, c, h);
+            f.høyre = m;
+            m.forelder = f;
+            return balanserForeldre(m);
+        }
+        if (hoyde(h) > hoyde(v) + 1) { // gå ned langs venstre kant av h
+            Node<T> f = null, c = h;
+            while (hoyde(c) > hoyde(v) + 1) {
+                f = c;
+                c = c.venstre;
             }
+            koble(m, v, c);
+            f.venstre = m;
+            m.forelder = f;
+            return balanserForeldre(m);
         }
+        koble(m, v, h);
+        return m;
+    }
 
-        return fjernetAntall; // Returner antall fjernede noder
+    // Skjøter sammen to frakoblede trær uten en midtnode: den minste noden i h brukes som midtnode
+    private Node<T> skjøt(Node<T> v, Node<T> h) {
+        if (v == null) return h;
+        if (h == null) return v;
+        Node<T> m = førsteInorden(h);
+        Node<T> f = m.forelder, barn = m.høyre; // m har ikke venstre barn, så den kobles rett ut
+        if (f == null) {
+            h = løsne(barn);
+        } else {
+            f.venstre = barn;
+            if (barn != null) barn.forelder = f;
+            h = balanserForeldre(f);
+        }
+        return skjøt(v, m, h);
     }
 
-    public String toStringPostorden() {
-        if(tom()) return "[]";
-        StringJoiner s = new StringJoiner(",","[","]");
-        Node<T> p = førstePostorden(rot);
-        while (p != null) {
-            s.add(p.verdi.toString());
-            p = nestePostOrden(p);
+    // Mengdeoperasjoner med splitt/skjøt. De regnes på verdier: en verdi er med i resultatet
+    // etter om den finnes i dette treet og/eller i annen, og beholdes da med alle kopiene fra
+    // dette treet (fra annen bare når unionen henter en verdi som mangler her).
+    // Operasjonene tømmer annen, derav navnene: nodene flyttes over i stedet for å kopieres,
+    // resultatet havner i dette treet og annen står igjen tomt. Trærne må ha samme modus og like
+    // comparatorer (equals), ellers IllegalArgumentException.
+    // Kostnad O(m log(n/m + 1)) der m er størrelsen på det minste treet.
+    private static final int UNION = 0, SNITT = 1, DIFFERANSE = 2;
+    private static final int PARALLELL_TERSKEL = 1 << 13; // mindre deltrær enn dette tas sekvensielt
+
+    public void unionOgTøm(SøkeBinærTre<T> annen) {
+        mengdeoperasjon(annen, UNION, false);
+    }
+
+    public void snittOgTøm(SøkeBinærTre<T> annen) {
+        mengdeoperasjon(annen, SNITT, false);
+    }
+
+    // Fjerner alle verdier som også finnes i annen
+    public void differanseOgTøm(SøkeBinærTre<T> annen) {
+        mengdeoperasjon(annen, DIFFERANSE, false);
+    }
+
+    // Som over, men venstre og høyre halvdel regnes ut i parallell i fork-join-poolen
+    public void unionOgTømParallell(SøkeBinærTre<T> annen) {
+        mengdeoperasjon(annen, UNION, true);
+    }
+
+    public void snittOgTømParallell(SøkeBinærTre<T> annen) {
+        mengdeoperasjon(annen, SNITT, true);
+    }
+
+    public void differanseOgTømParallell(SøkeBinærTre<T> annen) {
+        mengdeoperasjon(annen, DIFFERANSE, true);
+    }
+
+    private void mengdeoperasjon(SøkeBinærTre<T> annen, int operasjon, boolean parallell) {
+        Objects.requireNonNull(annen, "Treet kan ikke være null");
+        if (annen.multimengde != multimengde) throw new IllegalArgumentException("Trærne må ha samme modus");
+        if (!Objects.equals(annen.comp, comp)) throw new IllegalArgumentException("Trærne må ha samme comparator");
+        if (annen == this) { // A ∪ A = A ∩ A = A, A \ A = tom
+            if (operasjon == DIFFERANSE) nullstill();
+            return;
         }
-        return s.toString();
+        Node<T> a = rot, b = annen.rot;
+        rot = null; // begge trærne er frakoblet mens de splittes og skjøtes
+        annen.rot = null;
+        annen.antall = 0;
+        annen.endringer++;
+
+        rot = parallell ? new Mengdeoppgave(a, b, operasjon).invoke() : mengdeoperasjon(a, b, operasjon, false);
+        antall = størrelse(rot);
+        endringer++;
+        if (sjekkInvarianter) sjekkInvariant();
     }
 
-    // implementerer en inorden to string
-    private Node<T> førsteInorden(Node<T> p) {
-        if (p == null) return null;
-        while (p.venstre != null) {
-            p = p.venstre; // Gå til det venstre barnet til vi når bladet
+    // a er fra dette treet og b fra annen. b splittes på verdien k i roten til a i delene < k, = k
+    // og > k, og venstre og høyre del regnes ut rekursivt før de skjøtes sammen med a-noden
+    private Node<T> mengdeoperasjon(Node<T> a, Node<T> b, int operasjon, boolean parallell) {
+        if (a == null) return operasjon == UNION ? b : null;
+        if (b == null) return operasjon == SNITT ? null : a;
+
+        T k = a.verdi;
+        Splitt s = new Splitt();
+        Node<T> av = løsne(a.venstre), ah = løsne(a.høyre);
+        Node<T> aLikV = null, aLikH = null; // andre noder i a med verdien k (bare utenfor multimengde-modus)
+        if (!multimengde) {
+            if (av != null && comp.compare(sisteInorden(av).verdi, k) == 0) {
+                splitt(av, k, false, s);
+                av = s.venstre;
+                aLikV = s.høyre;
+            }
+            if (ah != null && comp.compare(førsteInorden(ah).verdi, k) == 0) {
+                splitt(ah, k, true, s);
+                aLikH = s.venstre;
+                ah = s.høyre;
+            }
         }
-        return p;
+        splitt(b, k, false, s);
+        Node<T> bv = s.venstre;
+        splitt(s.høyre, k, true, s);
+        boolean iB = s.venstre != null; // noder i b med verdien k forkastes, a sine brukes
+        Node<T> bh = s.høyre;
+
+        Node<T> v, h;
+        if (parallell && størrelse(av) + størrelse(bv) + størrelse(ah) + størrelse(bh) > PARALLELL_TERSKEL) {
+            Mengdeoppgave venstreDel = new Mengdeoppgave(av, bv, operasjon);
+            venstreDel.fork();
+            h = mengdeoperasjon(ah, bh, operasjon, true);
+            v = venstreDel.join();
+        } else {
+            v = mengdeoperasjon(av, bv, operasjon, parallell);
+            h = mengdeoperasjon(ah, bh, operasjon, parallell);
+        }
+
+        boolean behold = operasjon == UNION || (operasjon == SNITT) == iB;
+        if (!behold) return skjøt(v, h);
+        if (aLikV == null && aLikH == null) return skjøt(v, a, h);
+        return skjøt(skjøt(v, skjøt(aLikV, a, aLikH)), h);
     }
 
-    private Node<T> nesteInorden(Node<T> p) {
-        if (p == null) return null;
-        // Hvis det finnes et høyre barn, finn det venstre mest i høyre subtre
-        if (p.høyre != null) {
-            return førsteInorden(p.høyre);
+    @SuppressWarnings("serial") // oppgaven lever bare i fork-join-poolen og serialiseres aldri
+    private class Mengdeoppgave extends RecursiveTask<Node<T>> {
+        private final Node<T> a, b;
+        private final int operasjon;
+
+        private Mengdeoppgave(Node<T> a, Node<T> b, int operasjon) {
+            this.a = a;
+            this.b = b;
+            this.operasjon = operasjon;
         }
-        // Hvis ikke, gå opp til forelderen til vi er høyre barn
-        Node<T> forelder = p.forelder;
-        while (forelder != null && p == forelder.høyre) {
-            p = forelder;
-            forelder = forelder.forelder;
+
+        @Override
+        protected Node<T> compute() {
+            return mengdeoperasjon(a, b, operasjon, true);
         }
-        return forelder;
     }
+
+    // Setter v og h som barn av m og oppdaterer høyde og størrelse
+    private void koble(Node<T> m, Node<T> v, Node<T> h) {
+        m.venstre = v;
+        m.høyre = h;
+        if (v != null) v.forelder = m;
+        if (h != null) h.forelder = m;
+        m.oppdater();
+    }
+
+    public String toStringPostorden() {
+        return tilStreng(Rekkefølge.POSTORDEN);
+    }
+
     // inorden toString
 
     @Override
     public String toString() { //tostring inorden
-        if (tom()) return "[]";
-        StringJoiner s = new StringJoiner(",", "[", "]");
-
-        Node<T> p = førsteInorden(rot); // Start med den første i inorden
-        while (p != null) {
-            s.add(p.verdi.toString());
-            p = nesteInorden(p); // Gå til neste node i inorden
-        }
-
-        return s.toString();
+        return tilStreng(Rekkefølge.INORDEN);
     }
 
 
@@ -454,149 +888,432 @@ class SøkeBinærTre<T> implements Beholder<T> {
         return null; // Hvis vi ikke finner flere noder
     }
     public String toStringPreOrden() {
-        if (tom()) return "[]";
-        StringJoiner s = new StringJoiner(",", "[", "]");
+        return tilStreng(Rekkefølge.PREORDEN);
+    }
 
-        Node<T> p = førstePreorden(rot); // Start med første node i preorden (roten)
-        while (p != null) {
-            s.add(p.verdi.toString());
-            p = nestePreorden(p); // Gå til neste node i preorden
+
+    // O(1): hele treet slippes på én gang. endringer++ er generasjonsskiftet som gjør iteratorer,
+    // spliteratorer, fingeren og hurtigbufferen fra forrige generasjon ugyldige, så ingen node
+    // trenger å besøkes. Med gjenbruk på legges det gamle treet i fri i stedet for å bli søppel
+    @Override
+    public void nullstill() {
+        if (rot == null) return; // Hvis treet allerede er tomt, gjør ingenting
+        if (gjenbruk) {
+            rot.forelder = fri; // trærne i fri lenkes via forelder til roten
+            fri = rot;
         }
+        rot = null;
+        antall = 0;
+        finger = null; // ellers holder fingeren hele det gamle treet i live
+        endringer++;
+    }
 
-        return s.toString();
+    // Gjenbruk av noder på tvers av nullstill: leggInn tar noder fra trær som er nullstilt i stedet
+    // for å allokere, så et tre som bygges og nullstilles om og om igjen slutter å lage søppel.
+    // fri holder på like mange noder som det største treet, og på de gamle verdiene til nodene
+    // brukes igjen; av slipper dem
+    public void settGjenbruk(boolean på) {
+        gjenbruk = på;
+        if (!på) fri = null;
+    }
+
+    // Ny node, fra fri hvis det finnes noe der. Treet øverst i fri rettes ut med høyrerotasjoner
+    // til roten mangler venstre barn, og roten tas; hver node roteres høyst én gang på vei ut,
+    // så det er O(1) amortisert per node uten noen gjennomgang ved nullstill
+    private Node<T> nyNode(T verdi, Node<T> forelder) {
+        Node<T> p = fri;
+        if (p == null) {
+            if (metrikker != null) metrikker.noder(1);
+            return new Node<>(verdi, forelder);
+        }
+        while (p.venstre != null) {
+            Node<T> v = p.venstre;
+            p.venstre = v.høyre;
+            v.høyre = p;
+            v.forelder = p.forelder; // lenken til neste tre i fri følger roten
+            p = v;
+        }
+        if (p.høyre != null) {
+            p.høyre.forelder = p.forelder;
+            fri = p.høyre;
+        } else {
+            fri = p.forelder;
+        }
+        p.verdi = verdi;
+        p.venstre = null;
+        p.høyre = null;
+        p.forelder = forelder;
+        p.hoyde = 1;
+        p.kopier = 1;
+        p.størrelse = 1;
+        return p;
+    }
+    //inorder
+    // @Override
+    // Samme som toStringPreOrden; var rekursiv og kunne sprenge stacken på dype trær
+    public String toString2() {
+        return tilStreng(Rekkefølge.PREORDEN);
     }
 
+    private String tilStreng(Rekkefølge rekkefølge) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            skriv(sb, rekkefølge, Long.MAX_VALUE, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // kan ikke skje med StringBuilder
+        }
+        return sb.toString();
+    }
 
-    private class Stack<T> { // Legg til generisk typeparameter T
-        private StackNode<T> top; // Peker til den øverste noden i stacken
+    public enum Rekkefølge { INORDEN, PREORDEN, POSTORDEN, NIVÅORDEN }
 
-        private class StackNode<T> { // Legg til generisk typeparameter T
-            T data; // Dataen i noden, som er av den generiske typen T
-            StackNode<T> next; // Peker til neste node i stacken
+    public long skriv(Appendable ut, Rekkefølge rekkefølge) throws IOException {
+        return skriv(ut, rekkefølge, Long.MAX_VALUE, null);
+    }
 
-            StackNode(T data) {
-                this.data = data; // Setter datafeltet til den gitte noden
-                this.next = null; // Neste node er null ved opprettelse
+    // Skriver verdiene som [a,b,c] i valgt rekkefølge rett til ut, gjennom en fast buffer, i stedet
+    // for å bygge hele strengen i minnet. Gangen er iterativ (forelder-pekere), også nivåorden,
+    // så dype eller skjeve trær sprenger ikke stacken. Etter grense verdier skrives ",..." og
+    // resten hoppes over. formaterer == null gir Tegnskriver.Formaterer.STANDARD, som skriver
+    // Integer/Long uten å lage en String per verdi. Returnerer antall verdier som ble skrevet
+    public long skriv(Appendable ut, Rekkefølge rekkefølge, long grense, Tegnskriver.Formaterer<? super T> formaterer)
+            throws IOException {
+        Objects.requireNonNull(ut, "Målet kan ikke være null");
+        Objects.requireNonNull(rekkefølge, "Rekkefølge kan ikke være null");
+        if (grense < 0) throw new IllegalArgumentException("grense: " + grense);
+        Tegnskriver.Formaterer<? super T> f = formaterer != null ? formaterer : Tegnskriver.Formaterer.STANDARD;
+        Tegnskriver tegn = ut instanceof Tegnskriver t ? t : new Tegnskriver(ut);
+        int forventetEndringer = endringer;
+        NodeGang gang = new NodeGang(rekkefølge);
+        long skrevet = 0;
+        tegn.append('[');
+        gå:
+        for (Node<T> p = gang.neste(); p != null; p = gang.neste()) {
+            for (int i = 0; i < p.kopier; i++) {
+                if (skrevet == grense) {
+                    tegn.append(skrevet == 0 ? "..." : ",...");
+                    break gå;
+                }
+                if (skrevet > 0) tegn.append(',');
+                f.formater(p.verdi, tegn);
+                skrevet++;
             }
         }
+        tegn.append(']');
+        tegn.tøm();
+        if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        return skrevet;
+    }
 
-        public void push(T data) { // Endre parameteren til den generiske typen T
-            StackNode<T> nyNode = new StackNode<>(data); // Opprett en ny StackNode
-            nyNode.next = top; // Den nye nodens neste node pekes til den nåværende toppen
-            top = nyNode; // Oppdater toppen til å være den nye noden
-        }
+    // Som over, men kodet som UTF-8 til en kanal
+    public long skriv(WritableByteChannel kanal, Rekkefølge rekkefølge, long grense,
+                      Tegnskriver.Formaterer<? super T> formaterer) throws IOException {
+        Writer w = Channels.newWriter(kanal, StandardCharsets.UTF_8); // lukkes ikke, da lukkes kanalen
+        long skrevet = skriv(w, rekkefølge, grense, formaterer);
+        w.flush();
+        return skrevet;
+    }
 
-        public T pop() { // Endre returtypen til den generiske typen T
-            if (top == null) return null; // Hvis stacken er tom, returner null
+    // Gir nodene én og én i valgt rekkefølge med O(1) ekstra minne. Nivåorden går treet fra roten
+    // én gang per nivå og snur ved nivået (og i subtrær som er for lave til å nå det); i et
+    // balansert tre er det O(n) til sammen, siden antall noder dobles per nivå
+    private class NodeGang {
+        private final Rekkefølge rekkefølge;
+        private Node<T> p, forrige; // nivåorden: nåværende node og noden vi kom fra
+        private int nivå, dybde;
+        private boolean startet;
 
-            T result = top.data; // Lagre dataen fra den øverste noden
-            top = top.next; // Oppdater toppen til å peke på neste node (fjerner den øverste)
-            return result; // Returner dataen som ble fjernet
+        private NodeGang(Rekkefølge rekkefølge) {
+            this.rekkefølge = rekkefølge;
         }
 
-        public boolean isEmpty() {
-            return top == null; // Returner true hvis toppen er null (stacken er tom)
+        private Node<T> neste() {
+            if (!startet) {
+                startet = true;
+                switch (rekkefølge) {
+                    case INORDEN: return p = førsteInorden(rot);
+                    case PREORDEN: return p = førstePreorden(rot);
+                    case POSTORDEN: return p = førstePostorden(rot);
+                    default: p = rot; // nivåorden starter på roten, nivå 0
+                }
+            } else {
+                switch (rekkefølge) {
+                    case INORDEN: return p = nesteInorden(p);
+                    case PREORDEN: return p = nestePreorden(p);
+                    case POSTORDEN: return p = nestePostOrden(p);
+                    default: opp();
+                }
+            }
+            return nesteNivåorden();
         }
-    }
 
+        private void opp() {
+            forrige = p;
+            p = p.forelder;
+            dybde--;
+        }
 
-    @Override
-    public void nullstill() {
-        if (rot == null) return; // Hvis treet allerede er tomt, gjør ingenting
+        private void ned(Node<T> barn) {
+            forrige = p;
+            p = barn;
+            dybde++;
+        }
 
-        Stack<Node> stack = new Stack(); // Opprett en ny stack for å hjelpe oss å traversere treet
-        stack.push(rot); // Start med rot-noden
-        while (!stack.isEmpty()) { // Så lenge stacken ikke er tom
-            Node aktuellNode = stack.pop(); // Ta den øverste noden fra stacken
-            // Legg til venstre og høyre barn til stacken for videre behandling
-            if (aktuellNode.venstre != null) {
-                stack.push(aktuellNode.venstre);
-            }
-            if (aktuellNode.høyre != null) {
-                stack.push(aktuellNode.høyre);
+        private Node<T> nesteNivåorden() {
+            while (rot != null && nivå < rot.hoyde) {
+                while (p != null) {
+                    if (forrige == p.forelder) { // kom ovenfra
+                        if (dybde == nivå) return p; // neste kall fortsetter med opp()
+                        if (dybde + p.hoyde - 1 < nivå) opp(); // subtreet når ikke ned til nivået
+                        else if (p.venstre != null) ned(p.venstre);
+                        else if (p.høyre != null) ned(p.høyre);
+                        else opp();
+                    } else if (forrige == p.venstre && p.høyre != null) {
+                        ned(p.høyre);
+                    } else {
+                        opp();
+                    }
+                }
+                nivå++; // ferdig med nivået, start på roten igjen
+                p = rot;
+                forrige = null;
+                dybde = 0;
             }
-            // Nullstill noden ved å fjerne referansene
-            aktuellNode.venstre = null; // Nullstill venstre barn
-            aktuellNode.høyre = null; // Nullstill høyre barn
-            aktuellNode.forelder = null; // Nullstill forelder
+            return null;
         }
-        rot = null; // Sett roten til null for å indikere at treet er tomt
-        antall = 0; // Nullstill antall noder i treet
-        endringer++; // Øk endringer for å indikere at treet har blitt endret
     }
-    //inorder
-    // @Override
-    public String toString2() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        toStringPreOrder(rot, sb);
-        if (sb.length() > 1) { // Hvis vi har lagt til verdier
-            sb.setLength(sb.length() - 1); // Fjerne den siste kommaen
-        }
-        sb.append("]");
-        return sb.toString();
+
+    // Navigering, O(log n). Returnerer null hvis ingen verdi passer
+
+    public T første() {
+        return tom() ? null : førsteInorden(rot).verdi;
     }
 
-    private void toStringInOrder(Node<T> n, StringBuilder sb) {
-        if (n == null) return;
-        toStringInOrder(n.venstre, sb);
-        sb.append(n.verdi.toString()).append(","); // Legg til verdien og komma
-        toStringInOrder(n.høyre, sb);
+    public T siste() {
+        return tom() ? null : sisteInorden(rot).verdi;
     }
-    private void toStringPreOrder(Node<T> n, StringBuilder sb) {
-        if (n == null) return;
-        sb.append(n.verdi.toString()).append(","); // Legg til verdien først
-        toStringPreOrder(n.venstre, sb); // Gå til venstre subtre
-        toStringPreOrder(n.høyre, sb); // Gå til høyre subtre
+
+    // Største verdi <= verdi
+    public T floor(T verdi) {
+        return verdi(bakerstIkkeOver(verdi, true));
     }
-    private void toStringPostOrder(Node<T> n, StringBuilder sb) {
-        if (n == null) return;
-        toStringPostOrder(n.venstre, sb); // Gå til venstre subtre
-        toStringPostOrder(n.høyre, sb); // Gå til høyre subtre
-        sb.append(n.verdi.toString()).append(","); // Legg til verdien sist
+
+    // Minste verdi >= verdi
+    public T ceiling(T verdi) {
+        return verdi(førstIkkeUnder(verdi, true));
     }
 
-    public Iterator<T> iterator() {
-        return new InorderIterator();
-    }
-    private class InorderIterator implements Iterator<T> {
-        // Stack for å holde noder under traversering
-        private Stack<Node<T>> stack = new Stack<>();
-        // Aktuell node som starter på roten av treet
-        private Node<T> akkuratNode = rot;
-        // Konstruktør som initierer iteratoren og starter med å trykke venstre noder på stacken
-        public InorderIterator() {
-            pushLeft(akkuratNode);
-        }
-        // Metode for å trykke alle venstre noder på stacken fra den gitte noden
-        private void pushLeft(Node<T> node) {
-            // Gå til den venstre noden så lenge den ikke er null
-            while (node != null) {
-                stack.push(node); // Legg til noden på stacken
-                node = node.venstre; // Gå til venstre barn
+    // Største verdi < verdi
+    public T lower(T verdi) {
+        return verdi(bakerstIkkeOver(verdi, false));
+    }
+
+    // Minste verdi > verdi
+    public T higher(T verdi) {
+        return verdi(førstIkkeUnder(verdi, false));
+    }
+
+    private T verdi(Node<T> p) {
+        return p == null ? null : p.verdi;
+    }
+
+    // Verdiene mellom fra og til som en lat visning: ingenting kopieres, og hver iterator starter
+    // med et O(log n) søk etter første node og går videre med nesteInorden. Visningen følger
+    // endringer i treet gjort mellom kallene på iterator()
+    public Iterable<T> subSet(T fra, boolean fraInklusiv, T til, boolean tilInklusiv) {
+        Objects.requireNonNull(fra, "Ikke tillat med null verdier");
+        Objects.requireNonNull(til, "Ikke tillat med null verdier");
+        if (comp.compare(fra, til) > 0) throw new IllegalArgumentException("fra > til: " + fra + " > " + til);
+        return () -> {
+            Node<T> start = førstIkkeUnder(fra, fraInklusiv);
+            Node<T> stopp = førstIkkeUnder(til, !tilInklusiv); // første node etter området
+            if (start != null) {
+                int cmp = comp.compare(start.verdi, til);
+                if (cmp > 0 || (cmp == 0 && !tilInklusiv)) start = null; // tomt område
             }
+            return new OmrådeIterator(start, stopp, false);
+        };
+    }
+
+    // Alle verdier før til
+    public Iterable<T> headSet(T til, boolean inklusiv) {
+        Objects.requireNonNull(til, "Ikke tillat med null verdier");
+        return () -> {
+            Node<T> start = førsteInorden(rot);
+            Node<T> stopp = førstIkkeUnder(til, !inklusiv);
+            return new OmrådeIterator(start == stopp ? null : start, stopp, false);
+        };
+    }
+
+    // Alle verdier fra og med (eller etter) fra
+    public Iterable<T> tailSet(T fra, boolean inklusiv) {
+        Objects.requireNonNull(fra, "Ikke tillat med null verdier");
+        return () -> new OmrådeIterator(førstIkkeUnder(fra, inklusiv), null, false);
+    }
+
+    // Går gjennom treet fra største til minste verdi
+    public Iterator<T> synkendeIterator() {
+        return new OmrådeIterator(sisteInorden(rot), null, true);
+    }
+
+    // Går fra start og fram til (ikke med) stopp via forelder-pekerne, uten stack og uten
+    // allokering per steg. Kopier i multimengde-modus gis ut én og én. Feiler raskt hvis treet
+    // endres utenom iteratoren, og remove() fjerner siste verdi med vanlig rebalansering
+    private class OmrådeIterator implements Iterator<T> {
+        private Node<T> neste;
+        private final Node<T> stopp;
+        private final boolean synkende;
+        private int gjenstår; // kopier igjen av neste
+        private Node<T> sist; // noden next() sist ga ut en verdi fra, null etter remove()
+        private int forventetEndringer = endringer;
+
+        private OmrådeIterator(Node<T> start, Node<T> stopp, boolean synkende) {
+            this.neste = start;
+            this.stopp = stopp;
+            this.synkende = synkende;
+            this.gjenstår = start == null ? 0 : start.kopier;
         }
         @Override
         public boolean hasNext() {
-            return !stack.isEmpty(); // Returner true hvis stacken ikke er tom
+            return neste != null;
         }
-        // Overstyrt metode for å hente den neste verdien i in-order traverseringen
+        @Override
         public T next() {
-            // Hvis det ikke er flere elementer, kast en NoSuchElementException
-            if (!hasNext()) {
-                throw new NoSuchElementException();
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            if (neste == null) throw new NoSuchElementException();
+            sist = neste;
+            if (--gjenstår == 0) {
+                neste = synkende ? forrigeInorden(neste) : nesteInorden(neste);
+                if (neste == stopp) neste = null;
+                if (neste != null) gjenstår = neste.kopier;
             }
-            Node<T> node = stack.pop(); // Ta den øverste noden fra stacken
-            T verdi = node.verdi; // Lagre verdien til den noder som ble hentet
-            // Hvis noden har et høyre barn, trykk venstre noder fra den høyre noden
-            if (node.høyre != null) {
-                pushLeft(node.høyre);
+            return sist.verdi;
+        }
+        @Override
+        public void remove() {
+            if (sist == null) throw new IllegalStateException("next() er ikke kalt, eller verdien er fjernet");
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            if (sist.kopier > 1) {
+                sist.kopier--;
+                for (Node<T> q = sist; q != null; q = q.forelder) q.størrelse--;
+            } else {
+                // Med to barn flytter fjernNode etterfølgeren inn i sist og kobler ut
+                // etterfølgerens node. Stigende var etterfølgeren neste, som nå bor i sist
+                boolean toBarn = sist.venstre != null && sist.høyre != null;
+                fjernNode(sist, sist.forelder);
+                if (toBarn && !synkende && neste != null) neste = sist;
             }
-            return verdi; // Returner verdien
+            sist = null;
+            antall--;
+            forventetEndringer = ++endringer;
+            if (sjekkInvarianter) sjekkInvariant();
         }
     }
 
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new TreSpliterator(0, antall);
+    }
+
+    // Dekker verdiene med rang i [fra, til). trySplit halverer rangintervallet i O(1), og den nye
+    // halvdelen finner startnoden sin med én nedstigning på subtre-størrelsene, så begge deler har
+    // nøyaktig størrelse (SIZED og SUBSIZED). Derfra går traverseringen videre med forelder-pekerne.
+    // DISTINCT rapporteres ikke: like verdier kan forekomme både som egne noder og som kopier
+    private class TreSpliterator implements Spliterator<T> {
+        private int fra;
+        private final int til;
+        private Node<T> neste; // noden med rang fra, null til den trengs
+        private int gjenstår; // kopier igjen av neste
+        private final int forventetEndringer = endringer;
+
+        private TreSpliterator(int fra, int til) {
+            this.fra = fra;
+            this.til = til;
+        }
+
+        private void finnStart() {
+            int k = fra; // samme nedstigning som velg, men vi trenger noden og hvilken kopi
+            Node<T> p = rot;
+            while (k < størrelse(p.venstre) || k >= størrelse(p.venstre) + p.kopier) {
+                if (k < størrelse(p.venstre)) p = p.venstre;
+                else {
+                    k -= størrelse(p.venstre) + p.kopier;
+                    p = p.høyre;
+                }
+            }
+            neste = p;
+            gjenstår = p.kopier - (k - størrelse(p.venstre));
+        }
+
+        private T hentNeste() {
+            T verdi = neste.verdi;
+            if (--gjenstår == 0) {
+                neste = nesteInorden(neste);
+                if (neste != null) gjenstår = neste.kopier;
+            }
+            fra++;
+            return verdi;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> handling) {
+            Objects.requireNonNull(handling);
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+            if (fra >= til) return false;
+            if (neste == null) finnStart();
+            handling.accept(hentNeste());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> handling) {
+            Objects.requireNonNull(handling);
+            if (fra >= til) return;
+            if (neste == null) finnStart();
+            while (fra < til) handling.accept(hentNeste());
+            if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int midt = (fra + til) >>> 1;
+            if (midt <= fra) return null;
+            // første halvdel tar over posisjonen vår, vi fortsetter fra midten
+            TreSpliterator første = new TreSpliterator(fra, midt);
+            første.neste = neste;
+            første.gjenstår = gjenstår;
+            fra = midt;
+            neste = null;
+            return første;
+        }
+
+        @Override
+        public long estimateSize() {
+            return til - fra;
+        }
 
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comp;
+        }
+    }
+
+    public Iterator<T> iterator() {
+        return new OmrådeIterator(førsteInorden(rot), null, false);
+    }
 }
 
 
@@ -0,0 +1,69 @@
+package org.example;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Gjør om nøkler til bytes og tilbake for Øyeblikksbilde. id lagres i filhodet slik at en fil
+// ikke kan leses med feil kodek; egne kodeker beholder 0 eller velger en id fra 16 og oppover.
+// bredde() > 0 betyr at alle verdier tar like mange bytes, og da kan leseren gå raskere.
+// skriv kan kaste BufferOverflowException; skriveren tømmer da bufferen og prøver igjen.
+// les må aldri stole på lengder i dataene: en verdi som ikke får plass i resten av inn gir
+// BufferUnderflowException eller IndexOutOfBoundsException, som leseren gjør om til IOException.
+// INT og LONG gir bokser når de brukes med SøkeBinærTre, som lagrer Integer/Long uansett. De har
+// også primitive utgaver av skriv og les, som Øyeblikksbilde bruker for IntAvlTre og LongAvlTre
+interface Nøkkelkodek<T> {
+    void skriv(T verdi, ByteBuffer ut); // skriver verdi fra ut.position()
+    T les(ByteBuffer inn);              // leser én verdi fra inn.position()
+
+    default byte id() {
+        return 0;
+    }
+    default int bredde() {
+        return 0;
+    }
+
+    interface IntKodek extends Nøkkelkodek<Integer> {
+        void skrivInt(int verdi, ByteBuffer ut);
+        int lesInt(ByteBuffer inn);
+    }
+
+    interface LongKodek extends Nøkkelkodek<Long> {
+        void skrivLong(long verdi, ByteBuffer ut);
+        long lesLong(ByteBuffer inn);
+    }
+
+    IntKodek INT = new IntKodek() {
+        public void skriv(Integer verdi, ByteBuffer ut) { ut.putInt(verdi); }
+        public Integer les(ByteBuffer inn) { return inn.getInt(); }
+        public void skrivInt(int verdi, ByteBuffer ut) { ut.putInt(verdi); }
+        public int lesInt(ByteBuffer inn) { return inn.getInt(); }
+        public byte id() { return 1; }
+        public int bredde() { return Integer.BYTES; }
+    };
+
+    LongKodek LONG = new LongKodek() {
+        public void skriv(Long verdi, ByteBuffer ut) { ut.putLong(verdi); }
+        public Long les(ByteBuffer inn) { return inn.getLong(); }
+        public void skrivLong(long verdi, ByteBuffer ut) { ut.putLong(verdi); }
+        public long lesLong(ByteBuffer inn) { return inn.getLong(); }
+        public byte id() { return 2; }
+        public int bredde() { return Long.BYTES; }
+    };
+
+    // UTF-8 med lengden (int) foran
+    Nøkkelkodek<String> STRENG = new Nøkkelkodek<>() {
+        public void skriv(String verdi, ByteBuffer ut) {
+            byte[] b = verdi.getBytes(StandardCharsets.UTF_8);
+            ut.putInt(b.length).put(b);
+        }
+        public String les(ByteBuffer inn) {
+            int lengde = inn.getInt();
+            if (lengde < 0 || lengde > inn.remaining()) {
+                throw new IndexOutOfBoundsException("Strenglengde " + lengde + ", bare " + inn.remaining() + " bytes igjen");
+            }
+            byte[] b = new byte[lengde];
+            inn.get(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+        public byte id() { return 3; }
+    };
+}
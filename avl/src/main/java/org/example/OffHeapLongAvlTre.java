@@ -0,0 +1,292 @@
+package org.example;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// AVL-tre for long-nøkler der nodene ligger utenfor Java-heapen, i direkte ByteBuffer-blokker.
+// Hver node er 24 bytes: nøkkel (8), venstre, høyre, forelder og høyde (4 hver), adressert med
+// int-indeks der 0 er "null". Heapen ser bare noen få blokk-objekter, så GC merker ingen noder.
+// Blokkene allokeres etter behov opp til maksNoder, fjernede noder gjenbrukes via en friliste,
+// og close() slipper alle blokkene. Blokkene er 2^20 noder, unntatt den siste, som ikke er større
+// enn maksNoder krever, så et lite tre reserverer bare maksNoder * 24 bytes. Rotasjonene er de samme som i SøkeBinærTre.
+// Etter close() kaster alle metoder som leser eller endrer treet IllegalStateException, også
+// iteratorer som ble laget før. Direkte ByteBuffer kan ikke frigis eksplisitt uten interne API-er
+// (og Arena i java.lang.foreign er ikke endelig i Java 20), så minnet går tilbake til systemet
+// først når GC samler opp blokk-objektene; close() sørger for at treet ikke holder på dem.
+class OffHeapLongAvlTre implements LongBeholder, AutoCloseable {
+    private static final int NIL = 0;
+    private static final int NODE = 24; // bytes per node
+    private static final int NØKKEL = 0, VENSTRE = 8, HØYRE = 12, FORELDER = 16, HOYDE = 20;
+    private static final int BLOKK_BITS = 20; // opptil 2^20 noder (24 MiB) per blokk
+    private static final int BLOKK_MASKE = (1 << BLOKK_BITS) - 1;
+
+    private ByteBuffer[] blokker = new ByteBuffer[0];
+    private final int maksNoder;
+    private int rot = NIL;
+    private int brukt = 1; // neste plass som aldri har vært brukt (plass 0 er NIL)
+    private int friliste = NIL;
+    private int antall;
+    private int endringer;
+    private boolean lukket;
+
+    // maksNoder setter en øvre grense for hvor mye minne treet kan ta (maksNoder * 24 bytes)
+    public OffHeapLongAvlTre(int maksNoder) {
+        if (maksNoder < 1 || maksNoder == Integer.MAX_VALUE) throw new IllegalArgumentException("maksNoder: " + maksNoder);
+        this.maksNoder = maksNoder;
+    }
+
+    // Hjelpemetoder for å lese og skrive feltene til node p
+    private ByteBuffer blokk(int p) {
+        return blokker[p >>> BLOKK_BITS];
+    }
+    private static int adr(int p, int felt) {
+        return (p & BLOKK_MASKE) * NODE + felt;
+    }
+    private long nøkkel(int p) { return blokk(p).getLong(adr(p, NØKKEL)); }
+    private int venstre(int p) { return blokk(p).getInt(adr(p, VENSTRE)); }
+    private int høyre(int p) { return blokk(p).getInt(adr(p, HØYRE)); }
+    private int forelder(int p) { return blokk(p).getInt(adr(p, FORELDER)); }
+    private int hoyde(int p) { return p == NIL ? 0 : blokk(p).getInt(adr(p, HOYDE)); }
+    private void settNøkkel(int p, long v) { blokk(p).putLong(adr(p, NØKKEL), v); }
+    private void settVenstre(int p, int v) { blokk(p).putInt(adr(p, VENSTRE), v); }
+    private void settHøyre(int p, int v) { blokk(p).putInt(adr(p, HØYRE), v); }
+    private void settForelder(int p, int v) { blokk(p).putInt(adr(p, FORELDER), v); }
+    private void settHoyde(int p, int v) { blokk(p).putInt(adr(p, HOYDE), v); }
+
+    private void sjekkÅpen() {
+        if (lukket) throw new IllegalStateException("Treet er lukket");
+    }
+
+    public boolean inneholder(long verdi) {
+        sjekkÅpen();
+        int p = rot;
+        while (p != NIL) {
+            long k = nøkkel(p);
+            if (verdi < k) p = venstre(p);
+            else if (verdi > k) p = høyre(p);
+            else return true;
+        }
+        return false;
+    }
+
+    public int antall() {
+        sjekkÅpen();
+        return antall;
+    }
+    public boolean tom() {
+        sjekkÅpen();
+        return antall == 0;
+    }
+    public int hoyde() {
+        sjekkÅpen();
+        return hoyde(rot);
+    }
+    // Antall bytes som er reservert utenfor heapen, 0 etter close()
+    public long reservertMinne() {
+        long sum = 0;
+        for (ByteBuffer b : blokker) sum += b.capacity();
+        return sum;
+    }
+
+    public boolean leggInn(long verdi) {
+        sjekkÅpen();
+        int f = NIL;
+        int p = rot;
+        while (p != NIL) { // like verdier går til høyre
+            f = p;
+            p = verdi < nøkkel(p) ? venstre(p) : høyre(p);
+        }
+        int ny = nyPlass();
+        settNøkkel(ny, verdi);
+        settVenstre(ny, NIL);
+        settHøyre(ny, NIL);
+        settForelder(ny, f);
+        settHoyde(ny, 1);
+        if (f == NIL) rot = ny;
+        else if (verdi < nøkkel(f)) settVenstre(f, ny);
+        else settHøyre(f, ny);
+        antall++;
+        endringer++;
+        balanserForeldre(f);
+        return true;
+    }
+
+    // Henter en plass fra frilisten, ellers neste ubrukte plass. Ny blokk allokeres ved behov
+    private int nyPlass() {
+        if (friliste != NIL) {
+            int p = friliste;
+            friliste = venstre(p);
+            return p;
+        }
+        if (brukt > maksNoder) throw new IllegalStateException("Treet er fullt: maks " + maksNoder + " noder");
+        int b = brukt >>> BLOKK_BITS;
+        if (b == blokker.length) {
+            blokker = Arrays.copyOf(blokker, b + 1);
+            // plass 0 (NIL) ligger i første blokk, så treet trenger plassene 0..maksNoder
+            int noder = (int) Math.min(BLOKK_MASKE + 1, maksNoder + 1L - ((long) b << BLOKK_BITS));
+            blokker[b] = ByteBuffer.allocateDirect(noder * NODE).order(ByteOrder.nativeOrder());
+        }
+        return brukt++;
+    }
+
+    public boolean fjern(long verdi) {
+        sjekkÅpen();
+        int p = rot;
+        while (p != NIL) {
+            long k = nøkkel(p);
+            if (verdi < k) p = venstre(p);
+            else if (verdi > k) p = høyre(p);
+            else break;
+        }
+        if (p == NIL) return false;
+
+        if (venstre(p) != NIL && høyre(p) != NIL) {
+            // Flytt nøkkelen til inorden-etterfølgeren hit og fjern etterfølgerens plass i stedet
+            int etterfølger = høyre(p);
+            while (venstre(etterfølger) != NIL) etterfølger = venstre(etterfølger);
+            settNøkkel(p, nøkkel(etterfølger));
+            p = etterfølger;
+        }
+        int f = forelder(p);
+        erstattBarn(p, venstre(p) != NIL ? venstre(p) : høyre(p));
+        settVenstre(p, friliste);
+        friliste = p;
+        antall--;
+        endringer++;
+        balanserForeldre(f); // retracing fra forelderen til den fjernede plassen
+        return true;
+    }
+
+    // Tømmer treet, men beholder blokkene slik at de kan fylles igjen
+    public void nullstill() {
+        sjekkÅpen();
+        rot = NIL;
+        brukt = 1;
+        friliste = NIL;
+        antall = 0;
+        endringer++;
+    }
+
+    // Slipper alle blokkene, men frigir ikke minnet deterministisk: det går tilbake til systemet
+    // først når GC samler opp blokk-objektene (se over), så prosessens RSS faller ikke i close().
+    // Kan kalles flere ganger
+    @Override
+    public void close() {
+        blokker = new ByteBuffer[0];
+        rot = NIL;
+        brukt = 1;
+        friliste = NIL;
+        antall = 0;
+        endringer++;
+        lukket = true;
+    }
+
+    // Går gjennom hele treet og kaster IllegalStateException hvis forelder-felt, høyder,
+    // balanse, rekkefølge eller antall er feil. Koster O(n)
+    public void sjekkInvariant() {
+        sjekkÅpen();
+        if (rot != NIL && forelder(rot) != NIL) throw new IllegalStateException("Roten har forelder");
+        int noder = 0;
+        for (int p = førsteInorden(rot), forrige = NIL; p != NIL; forrige = p, p = nesteInorden(p)) {
+            noder++;
+            if (venstre(p) != NIL && forelder(venstre(p)) != p) throw new IllegalStateException("Feil forelder under " + p);
+            if (høyre(p) != NIL && forelder(høyre(p)) != p) throw new IllegalStateException("Feil forelder under " + p);
+            if (hoyde(p) != 1 + Math.max(hoyde(venstre(p)), hoyde(høyre(p)))) throw new IllegalStateException("Feil høyde i " + p);
+            if (Math.abs(balanseFaktor(p)) > 1) throw new IllegalStateException("Ubalansert node " + p);
+            if (forrige != NIL && nøkkel(forrige) > nøkkel(p)) throw new IllegalStateException("Ikke sortert ved " + p);
+        }
+        if (noder != antall) throw new IllegalStateException("antall er " + antall + ", men treet har " + noder + " noder");
+    }
+
+    private void balanserForeldre(int node) {
+        while (node != NIL) {
+            settHoyde(node, 1 + Math.max(hoyde(venstre(node)), hoyde(høyre(node))));
+            int balanseFaktor = balanseFaktor(node);
+            if (balanseFaktor > 1) { // venstre tungt
+                if (balanseFaktor(venstre(node)) < 0) leftRotate(venstre(node)); // venstre høyre tilfelle
+                node = rightRotate(node);
+            } else if (balanseFaktor < -1) { // høyre tungt
+                if (balanseFaktor(høyre(node)) > 0) rightRotate(høyre(node)); // høyre venstre tilfelle
+                node = leftRotate(node);
+            }
+            node = forelder(node);
+        }
+    }
+    private int rightRotate(int y) {
+        int x = venstre(y);
+        int T2 = høyre(x);
+        settHøyre(x, y);
+        settVenstre(y, T2);
+        if (T2 != NIL) settForelder(T2, y);
+        erstattBarn(y, x);
+        settForelder(y, x);
+        settHoyde(y, Math.max(hoyde(venstre(y)), hoyde(høyre(y))) + 1);
+        settHoyde(x, Math.max(hoyde(venstre(x)), hoyde(høyre(x))) + 1);
+        return x;
+    }
+    private int leftRotate(int y) {
+        int x = høyre(y);
+        int T2 = venstre(x);
+        settVenstre(x, y);
+        settHøyre(y, T2);
+        if (T2 != NIL) settForelder(T2, y);
+        erstattBarn(y, x);
+        settForelder(y, x);
+        settHoyde(y, Math.max(hoyde(venstre(y)), hoyde(høyre(y))) + 1);
+        settHoyde(x, Math.max(hoyde(venstre(x)), hoyde(høyre(x))) + 1);
+        return x;
+    }
+    // Setter ny inn på gammel sin plass under gammel sin forelder (eller som rot)
+    private void erstattBarn(int gammel, int ny) {
+        int f = forelder(gammel);
+        if (f == NIL) rot = ny;
+        else if (venstre(f) == gammel) settVenstre(f, ny);
+        else settHøyre(f, ny);
+        if (ny != NIL) settForelder(ny, f);
+    }
+    private int balanseFaktor(int node) {
+        return hoyde(venstre(node)) - hoyde(høyre(node));
+    }
+
+    private int førsteInorden(int p) {
+        if (p == NIL) return NIL;
+        while (venstre(p) != NIL) p = venstre(p);
+        return p;
+    }
+    private int nesteInorden(int p) {
+        if (høyre(p) != NIL) return førsteInorden(høyre(p));
+        int f = forelder(p);
+        while (f != NIL && p == høyre(f)) {
+            p = f;
+            f = forelder(f);
+        }
+        return f;
+    }
+
+    // Inorden via forelder-feltene, uten allokering per steg. Feiler raskt ved endringer, og med
+    // IllegalStateException etter close(): plassene kan ha blitt gjenbrukt eller blokkene sluppet
+    public PrimitiveIterator.OfLong iterator() {
+        sjekkÅpen();
+        return new PrimitiveIterator.OfLong() {
+            private int neste = førsteInorden(rot);
+            private final int forventetEndringer = endringer;
+            @Override
+            public boolean hasNext() {
+                sjekkÅpen();
+                return neste != NIL;
+            }
+            @Override
+            public long nextLong() {
+                sjekkÅpen();
+                if (endringer != forventetEndringer) throw new ConcurrentModificationException();
+                if (neste == NIL) throw new NoSuchElementException();
+                long verdi = nøkkel(neste);
+                neste = nesteInorden(neste);
+                return verdi;
+            }
+        };
+    }
+}
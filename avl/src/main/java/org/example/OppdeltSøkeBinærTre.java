@@ -0,0 +1,477 @@
+package org.example;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+// Trådsikker Beholder som deler nøkkelrommet i områder, ett uavhengig AVL-tre (skår) per område,
+// hvert med sin egen StampedLock. Skrivere på forskjellige skår går derfor helt i parallell.
+// Skår i har verdiene v med splittere[i-1] <= v < splittere[i], så en nøkkel rutes med binærsøk
+// i splitterne, O(log N). Vokser et skår over skårGrense, deles det på medianen; omfordel(n)
+// deler alt på nytt i n like store skår. Oppdelingen (splittere + skår) er uforanderlig og byttes
+// ut i sin helhet, så rutingen tar ingen lås. Et skår som er byttet ut merkes utgått under sin
+// skrivelås, og den som da kommer inn på det ruter på nytt.
+// Buntene leggInnAlle/fjernAlle/inneholderAlle grupperer verdiene per skår og kjører gruppene
+// i parallell på en ExecutorService, f.eks. en ForkJoinPool eller virtuelle tråder.
+class OppdeltSøkeBinærTre<T> implements Beholder<T> {
+    private static final int STANDARD_SKÅRGRENSE = 1 << 16;
+    private static final int MIN_PARALLELL_BUNT = 1024; // mindre bunter kjøres i kallende tråd
+
+    private static final class Skår<T> {
+        private final SøkeBinærTre<T> tre;
+        private final StampedLock lås = new StampedLock();
+        private volatile boolean utgått; // erstattet av en splitt, omfordeling eller nullstill
+
+        private Skår(SøkeBinærTre<T> tre) {
+            this.tre = tre;
+        }
+    }
+
+    private static final class Oppdeling<T> {
+        private final T[] splittere; // strengt stigende, én færre enn skår
+        private final Skår<T>[] skår;
+
+        private Oppdeling(T[] splittere, Skår<T>[] skår) {
+            this.splittere = splittere;
+            this.skår = skår;
+        }
+    }
+
+    private static final int LEGG_INN = 0, FJERN = 1, INNEHOLDER = 2;
+
+    private final Comparator<? super T> comp;
+    private final boolean multimengde;
+    private final int skårGrense;
+    private final ExecutorService utfører;
+    private final ReentrantLock omfordelingsLås = new ReentrantLock(); // én splitt/omfordeling om gangen
+    private volatile Oppdeling<T> oppdeling;
+
+    public OppdeltSøkeBinærTre(Comparator<? super T> c) {
+        this(c, false);
+    }
+
+    public OppdeltSøkeBinærTre(Comparator<? super T> c, boolean multimengde) {
+        this(c, multimengde, List.of(), STANDARD_SKÅRGRENSE, ForkJoinPool.commonPool());
+    }
+
+    // splittere gir startoppdelingen (kan være tom) og må være strengt stigende. Skår som vokser
+    // over skårGrense verdier deles i to. Buntene kjøres på utfører
+    public OppdeltSøkeBinærTre(Comparator<? super T> c, boolean multimengde, List<? extends T> splittere,
+                               int skårGrense, ExecutorService utfører) {
+        this.comp = Objects.requireNonNull(c, "Comparator kan ikke være null");
+        Objects.requireNonNull(splittere, "Splitterne kan ikke være null");
+        if (skårGrense < 2) throw new IllegalArgumentException("skårGrense må være minst 2: " + skårGrense);
+        this.multimengde = multimengde;
+        this.skårGrense = skårGrense;
+        this.utfører = Objects.requireNonNull(utfører, "Utføreren kan ikke være null");
+        for (int i = 0; i < splittere.size(); i++) {
+            Objects.requireNonNull(splittere.get(i), "Ikke tillat med null verdier");
+            if (i > 0 && c.compare(splittere.get(i - 1), splittere.get(i)) >= 0) {
+                throw new IllegalArgumentException("Splitterne er ikke strengt stigende: "
+                        + splittere.get(i - 1) + ", " + splittere.get(i));
+            }
+        }
+        @SuppressWarnings("unchecked")
+        T[] s = (T[]) splittere.toArray();
+        this.oppdeling = new Oppdeling<>(s, tommeSkår(s.length + 1));
+    }
+
+    public int antallSkår() {
+        return oppdeling.skår.length;
+    }
+
+    public List<T> splittere() {
+        return List.of(oppdeling.splittere);
+    }
+
+    // Indeksen til skåret som har verdi: antall splittere <= verdi
+    private int skårFor(Oppdeling<T> o, T verdi) {
+        T[] s = o.splittere;
+        int lo = 0, hi = s.length;
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (comp.compare(s[m], verdi) <= 0) lo = m + 1;
+            else hi = m;
+        }
+        return lo;
+    }
+
+    private Skår<T> skår(T verdi) {
+        Oppdeling<T> o = oppdeling;
+        return o.skår[skårFor(o, verdi)];
+    }
+
+    public boolean inneholder(T verdi) {
+        if (verdi == null) return false;
+        while (true) {
+            Skår<T> s = skår(verdi);
+            long stempel = s.lås.tryOptimisticRead();
+            if (stempel != 0 && !s.utgått) {
+                try {
+                    boolean svar = s.tre.inneholderOptimistisk(verdi);
+                    if (s.lås.validate(stempel)) return svar;
+                } catch (RuntimeException e) {
+                    if (s.lås.validate(stempel)) throw e;
+                }
+            }
+            stempel = s.lås.readLock();
+            try {
+                if (!s.utgått) return s.tre.inneholder(verdi);
+            } finally {
+                s.lås.unlockRead(stempel);
+            }
+        }
+    }
+
+    public boolean leggInn(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        while (true) {
+            Skår<T> s = skår(verdi);
+            boolean lagtInn;
+            int n;
+            long stempel = s.lås.writeLock();
+            try {
+                if (s.utgått) continue;
+                lagtInn = s.tre.leggInn(verdi);
+                n = s.tre.antall();
+            } finally {
+                s.lås.unlockWrite(stempel);
+            }
+            if (n > skårGrense) splitt(s);
+            return lagtInn;
+        }
+    }
+
+    public boolean fjern(T verdi) {
+        if (verdi == null) return false;
+        while (true) {
+            Skår<T> s = skår(verdi);
+            long stempel = s.lås.writeLock();
+            try {
+                if (!s.utgått) return s.tre.fjern(verdi);
+            } finally {
+                s.lås.unlockWrite(stempel);
+            }
+        }
+    }
+
+    public int antall() {
+        while (true) {
+            Oppdeling<T> o = oppdeling;
+            long sum = 0;
+            for (Skår<T> s : o.skår) sum += antall(s);
+            if (o == oppdeling) return (int) Math.min(sum, Integer.MAX_VALUE);
+        }
+    }
+
+    private int antall(Skår<T> s) {
+        long stempel = s.lås.tryOptimisticRead();
+        int n = s.tre.antall();
+        if (s.lås.validate(stempel)) return n;
+        stempel = s.lås.readLock();
+        try {
+            return s.tre.antall();
+        } finally {
+            s.lås.unlockRead(stempel);
+        }
+    }
+
+    public boolean tom() {
+        return antall() == 0;
+    }
+
+    // Legger inn alle verdiene; gruppene sorteres og bygges inn med leggInnAlleSortert.
+    // Returnerer antall som ble lagt inn
+    public int leggInnAlle(Collection<? extends T> verdier) {
+        for (T verdi : verdier) Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        return bunt(verdier, LEGG_INN);
+    }
+
+    // Fjerner én forekomst per verdi i samlingen. Returnerer antall som ble fjernet
+    public int fjernAlle(Collection<? extends T> verdier) {
+        return bunt(verdier, FJERN);
+    }
+
+    public boolean inneholderAlle(Collection<? extends T> verdier) {
+        return bunt(verdier, INNEHOLDER) == verdier.size();
+    }
+
+    private int bunt(Collection<? extends T> verdier, int operasjon) {
+        Objects.requireNonNull(verdier, "Samlingen kan ikke være null");
+        Oppdeling<T> o = oppdeling;
+        ArrayList<T>[] grupper = listeTabell(o.skår.length);
+        for (T verdi : verdier) {
+            if (verdi == null) continue; // finnes aldri, verken for fjern eller inneholder
+            int i = skårFor(o, verdi);
+            if (grupper[i] == null) grupper[i] = new ArrayList<>();
+            grupper[i].add(verdi);
+        }
+        int sum = 0;
+        if (verdier.size() < MIN_PARALLELL_BUNT) {
+            for (int i = 0; i < grupper.length; i++) if (grupper[i] != null) sum += kjør(o.skår[i], grupper[i], operasjon);
+            return sum;
+        }
+        ArrayList<Callable<Integer>> oppgaver = new ArrayList<>();
+        for (int i = 0; i < grupper.length; i++) {
+            if (grupper[i] == null) continue;
+            Skår<T> s = o.skår[i];
+            ArrayList<T> gruppe = grupper[i];
+            oppgaver.add(() -> kjør(s, gruppe, operasjon));
+        }
+        try {
+            for (Future<Integer> f : utfører.invokeAll(oppgaver)) sum += f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Avbrutt under bunt", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            if (e.getCause() instanceof Error f) throw f;
+            throw new IllegalStateException(e.getCause());
+        }
+        return sum;
+    }
+
+    // Kjører én gruppe under én låsing av skåret. Er skåret byttet ut siden grupperingen,
+    // rutes verdiene i gruppen én og én i stedet
+    private int kjør(Skår<T> s, ArrayList<T> gruppe, int operasjon) {
+        int svar = 0, n = 0;
+        boolean utgått;
+        if (operasjon == INNEHOLDER) {
+            long stempel = s.lås.readLock();
+            try {
+                utgått = s.utgått;
+                if (!utgått) for (T verdi : gruppe) if (s.tre.inneholder(verdi)) svar++;
+            } finally {
+                s.lås.unlockRead(stempel);
+            }
+        } else {
+            if (operasjon == LEGG_INN) gruppe.sort(comp); // utenfor låsen
+            long stempel = s.lås.writeLock();
+            try {
+                utgått = s.utgått;
+                if (!utgått) {
+                    if (operasjon == LEGG_INN) svar = s.tre.leggInnAlleSortert(gruppe);
+                    else for (T verdi : gruppe) if (s.tre.fjern(verdi)) svar++;
+                    n = s.tre.antall();
+                }
+            } finally {
+                s.lås.unlockWrite(stempel);
+            }
+        }
+        if (utgått) {
+            for (T verdi : gruppe) {
+                boolean ok = switch (operasjon) {
+                    case LEGG_INN -> leggInn(verdi);
+                    case FJERN -> fjern(verdi);
+                    default -> inneholder(verdi);
+                };
+                if (ok) svar++;
+            }
+        } else if (n > skårGrense) {
+            splitt(s);
+        }
+        return svar;
+    }
+
+    // Deler s på medianen og deler videre til ingen av delene er over skårGrense. Skåret er
+    // skrivelåst mens delene bygges, O(n) for n verdier i skåret
+    private void splitt(Skår<T> s) {
+        Skår<T> v, h;
+        omfordelingsLås.lock();
+        try {
+            long stempel = s.lås.writeLock();
+            try {
+                SøkeBinærTre<T> tre = s.tre;
+                if (s.utgått || tre.antall() <= skårGrense) return;
+                T midt = tre.velg(tre.antall() / 2);
+                if (comp.compare(midt, tre.første()) == 0) {
+                    midt = tre.higher(midt); // alle kopiene av den minste verdien havner til venstre
+                    if (midt == null) return; // bare én verdi, kan ikke deles
+                }
+                v = new Skår<>(new SøkeBinærTre<>(comp, multimengde, tre.headSet(midt, false)));
+                h = new Skår<>(new SøkeBinærTre<>(comp, multimengde, tre.tailSet(midt, true)));
+
+                Oppdeling<T> o = oppdeling;
+                int i = skårFor(o, midt);
+                T[] splittere = Arrays.copyOf(o.splittere, o.splittere.length + 1);
+                System.arraycopy(o.splittere, i, splittere, i + 1, o.splittere.length - i);
+                splittere[i] = midt;
+                Skår<T>[] skår = Arrays.copyOf(o.skår, o.skår.length + 1);
+                System.arraycopy(o.skår, i + 1, skår, i + 2, o.skår.length - i - 1);
+                skår[i] = v;
+                skår[i + 1] = h;
+                s.utgått = true;
+                oppdeling = new Oppdeling<>(splittere, skår);
+            } finally {
+                s.lås.unlockWrite(stempel);
+            }
+        } finally {
+            omfordelingsLås.unlock();
+        }
+        if (antall(v) > skårGrense) splitt(v);
+        if (antall(h) > skårGrense) splitt(h);
+    }
+
+    // Deler alle verdiene på nytt i (inntil) antallSkår like store skår. Alle skår er
+    // skrivelåst mens det pågår, og verdiene samles midlertidig i én liste, O(n) tid og minne
+    public void omfordel(int antallSkår) {
+        if (antallSkår < 1) throw new IllegalArgumentException("Må ha minst ett skår: " + antallSkår);
+        omfordelingsLås.lock();
+        try {
+            Oppdeling<T> o = oppdeling;
+            long[] stempler = låsAlle(o);
+            try {
+                ArrayList<T> alle = new ArrayList<>();
+                for (Skår<T> s : o.skår) for (T verdi : s.tre) alle.add(verdi);
+
+                ArrayList<T> splittere = new ArrayList<>();
+                ArrayList<Skår<T>> skår = new ArrayList<>();
+                int fra = 0;
+                for (int k = 1; k < antallSkår; k++) {
+                    int til = (int) ((long) alle.size() * k / antallSkår);
+                    if (til <= fra) continue;
+                    while (til > fra && comp.compare(alle.get(til - 1), alle.get(til)) == 0) til--; // like verdier samles
+                    if (til == fra) continue;
+                    splittere.add(alle.get(til));
+                    skår.add(new Skår<>(new SøkeBinærTre<>(comp, multimengde, alle.subList(fra, til))));
+                    fra = til;
+                }
+                skår.add(new Skår<>(new SøkeBinærTre<>(comp, multimengde, alle.subList(fra, alle.size()))));
+
+                for (Skår<T> s : o.skår) s.utgått = true;
+                @SuppressWarnings("unchecked")
+                T[] s = (T[]) splittere.toArray();
+                Skår<T>[] nye = skår.toArray(skårTabell(skår.size()));
+                oppdeling = new Oppdeling<>(s, nye);
+            } finally {
+                låsOppAlle(o, stempler);
+            }
+        } finally {
+            omfordelingsLås.unlock();
+        }
+    }
+
+    // Beholder splitterne, men bytter alle skår med tomme
+    public void nullstill() {
+        omfordelingsLås.lock();
+        try {
+            Oppdeling<T> o = oppdeling;
+            long[] stempler = låsAlle(o);
+            try {
+                for (Skår<T> s : o.skår) s.utgått = true;
+                oppdeling = new Oppdeling<>(o.splittere, tommeSkår(o.skår.length));
+            } finally {
+                låsOppAlle(o, stempler);
+            }
+        } finally {
+            omfordelingsLås.unlock();
+        }
+    }
+
+    private long[] låsAlle(Oppdeling<T> o) {
+        long[] stempler = new long[o.skår.length];
+        for (int i = 0; i < stempler.length; i++) stempler[i] = o.skår[i].lås.writeLock(); // alltid i stigende rekkefølge
+        return stempler;
+    }
+
+    private void låsOppAlle(Oppdeling<T> o, long[] stempler) {
+        for (int i = 0; i < stempler.length; i++) o.skår[i].lås.unlockWrite(stempler[i]);
+    }
+
+    // Generiske tabeller kan bare lages med jokertegn; kastet er trygt fordi tabellene
+    // aldri slipper ut av klassen
+    @SuppressWarnings("unchecked")
+    private static <T> Skår<T>[] skårTabell(int n) {
+        return (Skår<T>[]) new Skår<?>[n];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayList<T>[] listeTabell(int n) {
+        return (ArrayList<T>[]) new ArrayList<?>[n];
+    }
+
+    private Skår<T>[] tommeSkår(int n) {
+        Skår<T>[] skår = skårTabell(n);
+        for (int i = 0; i < n; i++) skår[i] = new Skår<>(new SøkeBinærTre<>(comp, multimengde));
+        return skår;
+    }
+
+    // Kaster IllegalStateException hvis en invariant er brutt: splitterne er strengt stigende,
+    // det er ett skår mer enn splittere, ingen skår i oppdelingen er utgått, hvert skår er et
+    // gyldig tre, og alle verdiene i skår i ligger i [splittere[i-1], splittere[i]). Alle skår er
+    // skrivelåst mens det sjekkes
+    public void sjekkInvariant() {
+        omfordelingsLås.lock();
+        try {
+            Oppdeling<T> o = oppdeling;
+            long[] stempler = låsAlle(o);
+            try {
+                T[] sp = o.splittere;
+                if (o.skår.length != sp.length + 1)
+                    throw new IllegalStateException(o.skår.length + " skår, men " + sp.length + " splittere");
+                for (int i = 0; i < o.skår.length; i++) {
+                    if (i > 0 && i < sp.length && comp.compare(sp[i - 1], sp[i]) >= 0)
+                        throw new IllegalStateException("Splitterne er ikke strengt stigende: " + sp[i - 1] + ", " + sp[i]);
+                    Skår<T> s = o.skår[i];
+                    if (s.utgått) throw new IllegalStateException("Skår " + i + " er utgått, men fortsatt i oppdelingen");
+                    s.tre.sjekkInvariant();
+                    if (s.tre.tom()) continue;
+                    if (i > 0 && comp.compare(s.tre.første(), sp[i - 1]) < 0)
+                        throw new IllegalStateException(s.tre.første() + " ligger under skår " + i + " sitt område");
+                    if (i < sp.length && comp.compare(s.tre.siste(), sp[i]) >= 0)
+                        throw new IllegalStateException(s.tre.siste() + " ligger over skår " + i + " sitt område");
+                }
+            } finally {
+                låsOppAlle(o, stempler);
+            }
+        } finally {
+            omfordelingsLås.unlock();
+        }
+    }
+
+    // Skårene dekker stigende, adskilte områder, så global rekkefølge er skårene etter hverandre.
+    // Hvert skår kopieres under leselås når iteratoren kommer til det: iteratoren ser aldri halve
+    // endringer, men endringer etter at et skår er kopiert (eller etter en splitt) er ikke med
+    public Iterator<T> iterator() {
+        Oppdeling<T> o = oppdeling;
+        return new Iterator<T>() {
+            private int i;
+            private Iterator<T> gjeldende = Collections.emptyIterator();
+
+            public boolean hasNext() {
+                while (!gjeldende.hasNext()) {
+                    if (i == o.skår.length) return false;
+                    gjeldende = bilde(o.skår[i++]);
+                }
+                return true;
+            }
+
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return gjeldende.next();
+            }
+        };
+    }
+
+    private Iterator<T> bilde(Skår<T> s) {
+        long stempel = s.lås.readLock();
+        try {
+            ArrayList<T> bilde = new ArrayList<>(s.tre.antall());
+            for (T verdi : s.tre) bilde.add(verdi);
+            return bilde.iterator();
+        } finally {
+            s.lås.unlockRead(stempel);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        for (T verdi : this) s.add(verdi.toString());
+        return s.toString();
+    }
+}
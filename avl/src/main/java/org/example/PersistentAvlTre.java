@@ -0,0 +1,273 @@
+package org.example;
+import java.util.*;
+
+// Persistent (uforanderlig) AVL-tre. leggInn og fjern endrer ikke treet, men returnerer en ny
+// versjon som kopierer bare nodene på stien fra roten (O(log n)) og deler alle andre subtrær med
+// den gamle versjonen. Et øyeblikksbilde er derfor bare en referanse til en versjon, O(1), og kan
+// itereres fra mange tråder mens skrivere lager nye versjoner.
+// Nodene har ingen forelder-peker, siden en delt node kan ha mange foreldre i ulike versjoner.
+// For rask innlasting kan en Bygger endre sine egne nye noder direkte i stedet for å kopiere dem.
+final class PersistentAvlTre<T> implements Iterable<T> {
+    private static final class Node<T> {
+        private T verdi;
+        private Node<T> venstre, høyre;
+        private int hoyde;
+        private final Object eier; // byggeren som kan endre noden på stedet, ellers null
+
+        private Node(T verdi, Node<T> v, Node<T> h, Object eier) {
+            this.verdi = verdi;
+            this.venstre = v;
+            this.høyre = h;
+            this.eier = eier;
+            this.hoyde = 1 + Math.max(hoyde(v), hoyde(h));
+        }
+    }
+
+    private final Node<T> rot; // final: alt som kan nås fra roten er synlig for alle tråder
+    private final int antall;
+    private final Comparator<? super T> comp;
+
+    private PersistentAvlTre(Node<T> rot, int antall, Comparator<? super T> comp) {
+        this.rot = rot;
+        this.antall = antall;
+        this.comp = comp;
+    }
+
+    // Et tomt tre
+    public static <T> PersistentAvlTre<T> tomt(Comparator<? super T> c) {
+        return new PersistentAvlTre<>(null, 0, Objects.requireNonNull(c));
+    }
+
+    public boolean inneholder(T verdi) {
+        if (verdi == null) return false;
+        Node<T> p = rot;
+        while (p != null) {
+            int cmp = comp.compare(verdi, p.verdi);
+            if (cmp < 0) p = p.venstre;
+            else if (cmp > 0) p = p.høyre;
+            else return true;
+        }
+        return false;
+    }
+
+    public int antall() {
+        return antall;
+    }
+    public boolean tom() {
+        return antall == 0;
+    }
+    public int hoyde() {
+        return hoyde(rot);
+    }
+
+    // Ny versjon med verdi lagt inn. Like verdier legges til høyre, som i SøkeBinærTre
+    public PersistentAvlTre<T> leggInn(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        return new PersistentAvlTre<>(leggInn(rot, verdi, comp, null), antall + 1, comp);
+    }
+
+    // Ny versjon uten én forekomst av verdi, eller denne versjonen hvis verdien ikke finnes
+    public PersistentAvlTre<T> fjern(T verdi) {
+        if (!inneholder(verdi)) return this;
+        return new PersistentAvlTre<>(fjern(rot, verdi, comp, null), antall - 1, comp);
+    }
+
+    // En bygger som starter fra denne versjonen. Denne versjonen påvirkes ikke
+    public Bygger<T> bygger() {
+        return new Bygger<>(this);
+    }
+
+    // Foranderlig ("transient") utgave for masseinnlasting: noder byggeren selv har laget endres
+    // på stedet, så n innsettinger allokerer omtrent n noder i stedet for n·log n.
+    // bygg() gir en vanlig persistent versjon; etterpå kopierer byggeren igjen før den endrer noe
+    public static final class Bygger<T> {
+        private Node<T> rot;
+        private int antall;
+        private final Comparator<? super T> comp;
+        private Object eier = new Object();
+
+        private Bygger(PersistentAvlTre<T> fra) {
+            this.rot = fra.rot;
+            this.antall = fra.antall;
+            this.comp = fra.comp;
+        }
+
+        public Bygger<T> leggInn(T verdi) {
+            Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+            rot = PersistentAvlTre.leggInn(rot, verdi, comp, eier);
+            antall++;
+            return this;
+        }
+
+        public Bygger<T> fjern(T verdi) {
+            if (PersistentAvlTre.finnes(rot, verdi, comp)) {
+                rot = PersistentAvlTre.fjern(rot, verdi, comp, eier);
+                antall--;
+            }
+            return this;
+        }
+
+        public int antall() {
+            return antall;
+        }
+
+        public PersistentAvlTre<T> bygg() {
+            eier = new Object(); // nodene i versjonen som gis ut, skal aldri endres igjen
+            return new PersistentAvlTre<>(rot, antall, comp);
+        }
+    }
+
+    private static <T> boolean finnes(Node<T> p, T verdi, Comparator<? super T> comp) {
+        if (verdi == null) return false;
+        while (p != null) {
+            int cmp = comp.compare(verdi, p.verdi);
+            if (cmp < 0) p = p.venstre;
+            else if (cmp > 0) p = p.høyre;
+            else return true;
+        }
+        return false;
+    }
+
+    // Noden selv hvis eier kan endre den, ellers en kopi som eier kan endre
+    private static <T> Node<T> endre(Node<T> p, Object eier) {
+        if (eier != null && p.eier == eier) return p;
+        return new Node<>(p.verdi, p.venstre, p.høyre, eier);
+    }
+
+    private static <T> Node<T> leggInn(Node<T> p, T verdi, Comparator<? super T> comp, Object eier) {
+        if (p == null) return new Node<>(verdi, null, null, eier);
+        Node<T> q = endre(p, eier);
+        if (comp.compare(verdi, p.verdi) < 0) q.venstre = leggInn(p.venstre, verdi, comp, eier);
+        else q.høyre = leggInn(p.høyre, verdi, comp, eier);
+        return balanser(q, eier);
+    }
+
+    // Forutsetter at verdien finnes i subtreet p
+    private static <T> Node<T> fjern(Node<T> p, T verdi, Comparator<? super T> comp, Object eier) {
+        int cmp = comp.compare(verdi, p.verdi);
+        if (cmp == 0) {
+            if (p.venstre == null) return p.høyre;
+            if (p.høyre == null) return p.venstre;
+            // to barn: erstatt verdien med den minste i høyre subtre og fjern den der
+            Node<T> q = endre(p, eier);
+            Node<T> min = p.høyre;
+            while (min.venstre != null) min = min.venstre;
+            q.verdi = min.verdi;
+            q.høyre = fjernMinste(p.høyre, eier);
+            return balanser(q, eier);
+        }
+        Node<T> q = endre(p, eier);
+        if (cmp < 0) q.venstre = fjern(p.venstre, verdi, comp, eier);
+        else q.høyre = fjern(p.høyre, verdi, comp, eier);
+        return balanser(q, eier);
+    }
+
+    private static <T> Node<T> fjernMinste(Node<T> p, Object eier) {
+        if (p.venstre == null) return p.høyre;
+        Node<T> q = endre(p, eier);
+        q.venstre = fjernMinste(p.venstre, eier);
+        return balanser(q, eier);
+    }
+
+    // q kan endres av eier. Oppdaterer høyden og roterer hvis q er ubalansert; barn som
+    // roteres kopieres først hvis de er delt med andre versjoner
+    private static <T> Node<T> balanser(Node<T> q, Object eier) {
+        q.hoyde = 1 + Math.max(hoyde(q.venstre), hoyde(q.høyre));
+        int balanseFaktor = balanseFaktor(q);
+        if (balanseFaktor > 1) { // venstre tungt
+            if (balanseFaktor(q.venstre) < 0) { // venstre høyre tilfelle
+                q.venstre = leftRotate(endre(q.venstre, eier), eier);
+            }
+            return rightRotate(q, eier);
+        }
+        if (balanseFaktor < -1) { // høyre tungt
+            if (balanseFaktor(q.høyre) > 0) { // høyre venstre tilfelle
+                q.høyre = rightRotate(endre(q.høyre, eier), eier);
+            }
+            return leftRotate(q, eier);
+        }
+        return q;
+    }
+
+    private static <T> Node<T> rightRotate(Node<T> y, Object eier) {
+        Node<T> x = endre(y.venstre, eier);
+        y.venstre = x.høyre;
+        x.høyre = y;
+        y.hoyde = 1 + Math.max(hoyde(y.venstre), hoyde(y.høyre));
+        x.hoyde = 1 + Math.max(hoyde(x.venstre), hoyde(x.høyre));
+        return x;
+    }
+
+    private static <T> Node<T> leftRotate(Node<T> y, Object eier) {
+        Node<T> x = endre(y.høyre, eier);
+        y.høyre = x.venstre;
+        x.venstre = y;
+        y.hoyde = 1 + Math.max(hoyde(y.venstre), hoyde(y.høyre));
+        x.hoyde = 1 + Math.max(hoyde(x.venstre), hoyde(x.høyre));
+        return x;
+    }
+
+    private static int hoyde(Node<?> p) {
+        return p == null ? 0 : p.hoyde;
+    }
+    private static int balanseFaktor(Node<?> p) {
+        return hoyde(p.venstre) - hoyde(p.høyre);
+    }
+
+    // Kaster IllegalStateException hvis en invariant er brutt: lagrede høyder, balansefaktor i
+    // [-1, 1], sortert inorden og antall. Delte subtrær sjekkes på nytt for hver versjon
+    public void sjekkInvariant() {
+        int noder = 0;
+        T forrige = null;
+        for (T verdi : this) {
+            if (forrige != null && comp.compare(forrige, verdi) > 0)
+                throw new IllegalStateException("Ikke sortert: " + forrige + " før " + verdi);
+            forrige = verdi;
+            noder++;
+        }
+        if (noder != antall) throw new IllegalStateException("antall er " + antall + ", men treet har " + noder + " noder");
+        sjekkHoyde(rot);
+    }
+
+    private static int sjekkHoyde(Node<?> p) {
+        if (p == null) return 0;
+        int v = sjekkHoyde(p.venstre), h = sjekkHoyde(p.høyre);
+        if (p.hoyde != 1 + Math.max(v, h)) throw new IllegalStateException("Feil høyde i " + p.verdi);
+        if (Math.abs(v - h) > 1) throw new IllegalStateException("Ubalansert node " + p.verdi);
+        return p.hoyde;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        for (T verdi : this) s.add(verdi.toString());
+        return s.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] nodeTabell(int n) {
+        return (Node<T>[]) new Node<?>[n];
+    }
+
+    // Inorden med en tabell som stack; høyden er kjent, så tabellen blir aldri for liten
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Node<T>[] stack = nodeTabell(hoyde(rot) + 1);
+            private int topp = 0;
+            {
+                for (Node<T> p = rot; p != null; p = p.venstre) stack[topp++] = p;
+            }
+            @Override
+            public boolean hasNext() {
+                return topp > 0;
+            }
+            @Override
+            public T next() {
+                if (topp == 0) throw new NoSuchElementException();
+                Node<T> p = stack[--topp];
+                for (Node<T> q = p.høyre; q != null; q = q.venstre) stack[topp++] = q;
+                return p.verdi;
+            }
+        };
+    }
+}
@@ -0,0 +1,556 @@
+package org.example;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+// Trådsikker Beholder som et AVL-tre med én lås per node, etter Bronson, Casper, Chafi og Olukotun,
+// "A Practical Concurrent Binary Search Tree" (PPoPP 2010). Skrivere låser bare nodene de endrer,
+// forelder før barn, så skrivinger i ulike deler av treet går samtidig. Hver node har et
+// versjonsnummer som øker når en rotasjon flytter noden ned (og nøkkelområdet under den krymper).
+// Søk tar ingen lås: de går hånd over hånd, leser barnet og sjekker så at forelderens versjon er
+// uendret; har den endret seg, går søket ett nivå opp og prøver igjen derfra.
+// Like verdier telles i én node i begge modusene, og en fjernet verdi med to barn blir liggende
+// som rutingnode (kopier == 0) til den har høyst ett barn og kan kobles ut. Balansen er avslappet:
+// den som skaper ubalanse, retter den opp etterpå med egne rotasjoner, så under samtidige
+// skrivinger kan AVL-kravet være brutt en kort stund, men når ingen skriver er inne, holder det.
+// iterator, nullstill, toString og sjekkInvariant trenger et tre uten halve endringer. Skrivere
+// tar derfor leselåsen i én av flere StampedLock-striper (valgt etter tråd-id, så de ikke deler
+// cache-linje), og disse operasjonene tar skrivelåsen i alle stripene.
+class SamtidigSøkeBinærTre<T> implements Beholder<T> {
+    private static final int PRØV_IGJEN = -1; // versjonen endret seg under et søk; start høyere opp
+    private static final long ENDRES = 1;     // versjonsbit: en rotasjon flytter noden ned nå
+    private static final long FJERNET = 2;    // versjonen til en node som er koblet ut av treet
+    private static final long VERSJONSSTEG = 4;
+    private static final int SPINN = 100;     // runder med onSpinWait før et søk venter på låsen
+
+    private static final class Node<T> {
+        private final T verdi;
+        private volatile int kopier; // 0 betyr rutingnode: verdien er fjernet, men noden står igjen
+        private volatile int hoyde = 1;
+        private volatile long versjon;
+        private volatile Node<T> forelder, venstre, høyre;
+
+        private Node(T verdi, Node<T> forelder) {
+            this.verdi = verdi;
+            this.forelder = forelder;
+        }
+    }
+
+    private final Comparator<? super T> comp;
+    private final Node<T> holder = new Node<>(null, null); // roten er holder.høyre; versjonen er alltid 0
+    private final LongAdder antall = new LongAdder();
+    private final StampedLock[] striper;
+
+    public SamtidigSøkeBinærTre(Comparator<? super T> c) {
+        this(c, false);
+    }
+
+    // multimengde tas med for å ha samme konstruktører som SøkeBinærTre; svarene er de samme i
+    // begge modusene, siden like verdier uansett telles i én node her
+    public SamtidigSøkeBinærTre(Comparator<? super T> c, boolean multimengde) {
+        this.comp = Objects.requireNonNull(c, "Comparator kan ikke være null");
+        int n = 1;
+        while (n < 2 * Runtime.getRuntime().availableProcessors() && n < 64) n <<= 1;
+        striper = new StampedLock[n];
+        for (int i = 0; i < n; i++) striper[i] = new StampedLock();
+    }
+
+    private static int hoyde(Node<?> p) {
+        return p == null ? 0 : p.hoyde;
+    }
+
+    private static <T> Node<T> barn(Node<T> p, int retning) {
+        return retning < 0 ? p.venstre : p.høyre;
+    }
+
+    // Den som setter ENDRES holder låsen til noden, så etter litt spinning venter vi på den
+    private static void ventPåEndring(Node<?> p) {
+        for (int i = 0; i < SPINN; i++) {
+            if ((p.versjon & ENDRES) == 0) return;
+            Thread.onSpinWait();
+        }
+        synchronized (p) {
+            // tom: låsen er ledig først når endringen er ferdig
+        }
+    }
+
+    private StampedLock stripe() {
+        return striper[(int) Thread.currentThread().threadId() & (striper.length - 1)];
+    }
+
+    private long[] låsAlle() {
+        long[] stempler = new long[striper.length];
+        for (int i = 0; i < striper.length; i++) stempler[i] = striper[i].writeLock();
+        return stempler;
+    }
+
+    private void låsOppAlle(long[] stempler) {
+        for (int i = 0; i < striper.length; i++) striper[i].unlockWrite(stempler[i]);
+    }
+
+    public boolean inneholder(T verdi) {
+        return antall(verdi) > 0;
+    }
+
+    public int antall(T verdi) {
+        if (verdi == null) return 0;
+        while (true) {
+            int svar = finn(verdi, holder, 1, 0L);
+            if (svar != PRØV_IGJEN) return svar;
+        }
+    }
+
+    // Søket i deltreet under barn(p, retning), der p hadde versjon pV da vi kom ned i den
+    private int finn(T verdi, Node<T> p, int retning, long pV) {
+        while (true) {
+            Node<T> b = barn(p, retning);
+            if (p.versjon != pV) return PRØV_IGJEN;
+            if (b == null) return 0;
+            int cmp = comp.compare(verdi, b.verdi);
+            if (cmp == 0) return b.kopier;
+            long bV = b.versjon;
+            if ((bV & ENDRES) != 0) {
+                ventPåEndring(b);
+            } else if (bV != FJERNET && b == barn(p, retning)) {
+                if (p.versjon != pV) return PRØV_IGJEN;
+                int svar = finn(verdi, b, cmp, bV);
+                if (svar != PRØV_IGJEN) return svar;
+            }
+        }
+    }
+
+    // Antall verdier. Telleren er en LongAdder, så tallet er eksakt bare når ingen skriver er inne
+    public int antall() {
+        return (int) antall.sum();
+    }
+
+    public boolean tom() {
+        return antall() == 0;
+    }
+
+    public boolean leggInn(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        StampedLock s = stripe();
+        long stempel = s.readLock();
+        try {
+            while (leggInn(verdi, holder, 1, 0L) == PRØV_IGJEN) ;
+            antall.increment();
+        } finally {
+            s.unlockRead(stempel);
+        }
+        return true;
+    }
+
+    private int leggInn(T verdi, Node<T> p, int retning, long pV) {
+        while (true) {
+            Node<T> b = barn(p, retning);
+            if (p.versjon != pV) return PRØV_IGJEN;
+            if (b == null) {
+                Node<T> skadet;
+                synchronized (p) {
+                    if (p.versjon != pV) return PRØV_IGJEN;
+                    if (barn(p, retning) != null) continue; // en annen skriver kom først
+                    Node<T> ny = new Node<>(verdi, p);
+                    ny.kopier = 1;
+                    if (retning < 0) p.venstre = ny;
+                    else p.høyre = ny;
+                    skadet = fiksHøyde(p);
+                }
+                fiksHøydeOgBalanser(skadet);
+                return 1;
+            }
+            int cmp = comp.compare(verdi, b.verdi);
+            if (cmp == 0) { // finnes fra før, også som rutingnode: tell opp
+                synchronized (b) {
+                    if (b.versjon == FJERNET) return PRØV_IGJEN;
+                    b.kopier++;
+                }
+                return 1;
+            }
+            long bV = b.versjon;
+            if ((bV & ENDRES) != 0) {
+                ventPåEndring(b);
+            } else if (bV != FJERNET && b == barn(p, retning)) {
+                if (p.versjon != pV) return PRØV_IGJEN;
+                int svar = leggInn(verdi, b, cmp, bV);
+                if (svar != PRØV_IGJEN) return svar;
+            }
+        }
+    }
+
+    public boolean fjern(T verdi) {
+        return fjernKopier(verdi, false) > 0;
+    }
+
+    public int fjernAlle(T verdi) {
+        return fjernKopier(verdi, true);
+    }
+
+    private int fjernKopier(T verdi, boolean alle) {
+        if (verdi == null) return 0;
+        StampedLock s = stripe();
+        long stempel = s.readLock();
+        try {
+            int fjernet;
+            while ((fjernet = fjern(verdi, holder, 1, 0L, alle)) == PRØV_IGJEN) ;
+            if (fjernet > 0) antall.add(-fjernet);
+            return fjernet;
+        } finally {
+            s.unlockRead(stempel);
+        }
+    }
+
+    private int fjern(T verdi, Node<T> p, int retning, long pV, boolean alle) {
+        while (true) {
+            Node<T> b = barn(p, retning);
+            if (p.versjon != pV) return PRØV_IGJEN;
+            if (b == null) return 0;
+            int cmp = comp.compare(verdi, b.verdi);
+            if (cmp == 0) return fjernFra(p, b, alle);
+            long bV = b.versjon;
+            if ((bV & ENDRES) != 0) {
+                ventPåEndring(b);
+            } else if (bV != FJERNET && b == barn(p, retning)) {
+                if (p.versjon != pV) return PRØV_IGJEN;
+                int svar = fjern(verdi, b, cmp, bV, alle);
+                if (svar != PRØV_IGJEN) return svar;
+            }
+        }
+    }
+
+    // Fjerner én eller alle kopier i n, som er barn av f. Med to barn blir n liggende som
+    // rutingnode og bare n låses; ellers låses f og n, og n kobles ut når siste kopi går
+    private int fjernFra(Node<T> f, Node<T> n, boolean alle) {
+        if (n.kopier == 0) return 0;
+        if (n.venstre != null && n.høyre != null) {
+            synchronized (n) {
+                if (n.versjon == FJERNET || n.venstre == null || n.høyre == null) return PRØV_IGJEN;
+                int fjernet = alle ? n.kopier : Math.min(1, n.kopier);
+                n.kopier -= fjernet;
+                return fjernet;
+            }
+        }
+        int fjernet;
+        Node<T> skadet;
+        synchronized (f) {
+            if (f.versjon == FJERNET || n.forelder != f) return PRØV_IGJEN;
+            synchronized (n) {
+                int kopier = n.kopier; // 0 også hvis en annen skriver koblet ut n i mellomtiden
+                if (kopier == 0) return 0;
+                fjernet = alle ? kopier : 1;
+                if (fjernet < kopier) {
+                    n.kopier = kopier - fjernet;
+                    return fjernet;
+                }
+                if (!kobleUt(f, n)) return PRØV_IGJEN; // n har fått to barn
+            }
+            skadet = fiksHøyde(f);
+        }
+        fiksHøydeOgBalanser(skadet);
+        return fjernet;
+    }
+
+    // f og n er låst. Setter det eneste barnet til n (eller null) inn i stedet for n
+    private boolean kobleUt(Node<T> f, Node<T> n) {
+        Node<T> fv = f.venstre, fh = f.høyre;
+        if (fv != n && fh != n) return false;
+        Node<T> v = n.venstre, h = n.høyre;
+        if (v != null && h != null) return false;
+        Node<T> erstatning = v != null ? v : h;
+        if (fv == n) f.venstre = erstatning;
+        else f.høyre = erstatning;
+        if (erstatning != null) erstatning.forelder = f;
+        n.versjon = FJERNET;
+        n.kopier = 0;
+        return true;
+    }
+
+    // Hva noden trenger: en ny høyde (>= 1), ingenting, utkobling eller balansering
+    private static final int INGENTING = -1, KOBLE_UT = -2, BALANSER = -3;
+
+    private static int tilstand(Node<?> n) {
+        Node<?> v = n.venstre, h = n.høyre;
+        if ((v == null || h == null) && n.kopier == 0) return KOBLE_UT;
+        int hv = hoyde(v), hh = hoyde(h);
+        if (Math.abs(hv - hh) > 1) return BALANSER;
+        int ny = 1 + Math.max(hv, hh);
+        return ny != n.hoyde ? ny : INGENTING;
+    }
+
+    // n er låst. Oppdaterer høyden og gir neste node som må sjekkes, eller null
+    private static <T> Node<T> fiksHøyde(Node<T> n) {
+        int t = tilstand(n);
+        if (t == KOBLE_UT || t == BALANSER) return n;
+        if (t == INGENTING) return null;
+        n.hoyde = t;
+        return n.forelder;
+    }
+
+    // Går oppover fra n og retter høyder, kobler ut rutingnoder og roterer til ingenting er igjen
+    private void fiksHøydeOgBalanser(Node<T> n) {
+        while (n != null && n.forelder != null) { // holder har ingen forelder
+            int t = tilstand(n);
+            if (t == INGENTING || n.versjon == FJERNET) return;
+            if (t != KOBLE_UT && t != BALANSER) {
+                synchronized (n) {
+                    n = fiksHøyde(n);
+                }
+            } else {
+                Node<T> f = n.forelder;
+                synchronized (f) {
+                    if (f.versjon != FJERNET && n.forelder == f) {
+                        synchronized (n) {
+                            n = balanser(f, n);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // f og n er låst. Gir neste node som må sjekkes; n selv betyr at noe endret seg og må sjekkes på nytt
+    private Node<T> balanser(Node<T> f, Node<T> n) {
+        Node<T> v = n.venstre, h = n.høyre;
+        if ((v == null || h == null) && n.kopier == 0) {
+            return kobleUt(f, n) ? fiksHøyde(f) : n;
+        }
+        int hv = hoyde(v), hh = hoyde(h);
+        if (hv - hh > 1) return balanserMotHøyre(f, n, v, hh);
+        if (hv - hh < -1) return balanserMotVenstre(f, n, h, hv);
+        int ny = 1 + Math.max(hv, hh);
+        if (ny == n.hoyde) return null;
+        n.hoyde = ny;
+        return fiksHøyde(f);
+    }
+
+    // Venstre side (v) er for høy. Enkel høyrerotasjon hvis v.venstre er minst like høy som
+    // v.høyre, ellers dobbel; er v.høyre selv skjev (bare mulig midt i andres endringer),
+    // roteres v til venstre først
+    private Node<T> balanserMotHøyre(Node<T> f, Node<T> n, Node<T> v, int hh) {
+        synchronized (v) {
+            if (v.hoyde - hh <= 1) return n;
+            Node<T> vh = v.høyre;
+            int hvv = hoyde(v.venstre);
+            if (hvv >= hoyde(vh)) return roterHøyre(f, n, v);
+            synchronized (vh) {
+                if (hvv >= vh.hoyde) return roterHøyre(f, n, v);
+                int b = hvv - hoyde(vh.venstre);
+                if (b >= -1 && b <= 1) return roterHøyreOverVenstre(f, n, v, vh);
+            }
+            return balanserMotVenstre(n, v, vh, hvv);
+        }
+    }
+
+    private Node<T> balanserMotVenstre(Node<T> f, Node<T> n, Node<T> h, int hv) {
+        synchronized (h) {
+            if (h.hoyde - hv <= 1) return n;
+            Node<T> hvn = h.venstre;
+            int hhh = hoyde(h.høyre);
+            if (hhh >= hoyde(hvn)) return roterVenstre(f, n, h);
+            synchronized (hvn) {
+                if (hhh >= hvn.hoyde) return roterVenstre(f, n, h);
+                int b = hhh - hoyde(hvn.høyre);
+                if (b >= -1 && b <= 1) return roterVenstreOverHøyre(f, n, h, hvn);
+            }
+            return balanserMotHøyre(n, h, hvn, hhh);
+        }
+    }
+
+    // Bare noder som flyttes ned, får ENDRES: nøkkelområdet under dem krymper, mens området under
+    // noden som flyttes opp bare vokser, og det tåler søkene som allerede er på vei ned i den
+    private static void startEndring(Node<?> p) {
+        p.versjon |= ENDRES;
+    }
+
+    private static void sluttEndring(Node<?> p, long før) {
+        p.versjon = før + VERSJONSSTEG;
+    }
+
+    private static void settHøyde(Node<?> p) {
+        p.hoyde = 1 + Math.max(hoyde(p.venstre), hoyde(p.høyre));
+    }
+
+    // f, n og v er låst; v blir ny rot i deltreet
+    private Node<T> roterHøyre(Node<T> f, Node<T> n, Node<T> v) {
+        long nV = n.versjon;
+        startEndring(n);
+        Node<T> vh = v.høyre;
+        n.venstre = vh;
+        if (vh != null) vh.forelder = n;
+        v.høyre = n;
+        n.forelder = v;
+        erstatt(f, n, v);
+        settHøyde(n);
+        settHøyde(v);
+        sluttEndring(n, nV);
+        return etterRotasjon(f, v, n, null);
+    }
+
+    private Node<T> roterVenstre(Node<T> f, Node<T> n, Node<T> h) {
+        long nV = n.versjon;
+        startEndring(n);
+        Node<T> hvn = h.venstre;
+        n.høyre = hvn;
+        if (hvn != null) hvn.forelder = n;
+        h.venstre = n;
+        n.forelder = h;
+        erstatt(f, n, h);
+        settHøyde(n);
+        settHøyde(h);
+        sluttEndring(n, nV);
+        return etterRotasjon(f, h, n, null);
+    }
+
+    // f, n, v og vh er låst; vh blir ny rot i deltreet med v og n som barn
+    private Node<T> roterHøyreOverVenstre(Node<T> f, Node<T> n, Node<T> v, Node<T> vh) {
+        long nV = n.versjon, vV = v.versjon;
+        Node<T> vhv = vh.venstre, vhh = vh.høyre;
+        startEndring(n);
+        startEndring(v);
+        n.venstre = vhh;
+        if (vhh != null) vhh.forelder = n;
+        v.høyre = vhv;
+        if (vhv != null) vhv.forelder = v;
+        vh.venstre = v;
+        v.forelder = vh;
+        vh.høyre = n;
+        n.forelder = vh;
+        erstatt(f, n, vh);
+        settHøyde(n);
+        settHøyde(v);
+        settHøyde(vh);
+        sluttEndring(v, vV);
+        sluttEndring(n, nV);
+        return etterRotasjon(f, vh, n, v);
+    }
+
+    private Node<T> roterVenstreOverHøyre(Node<T> f, Node<T> n, Node<T> h, Node<T> hvn) {
+        long nV = n.versjon, hV = h.versjon;
+        Node<T> hvv = hvn.venstre, hvh = hvn.høyre;
+        startEndring(n);
+        startEndring(h);
+        n.høyre = hvv;
+        if (hvv != null) hvv.forelder = n;
+        h.venstre = hvh;
+        if (hvh != null) hvh.forelder = h;
+        hvn.høyre = h;
+        h.forelder = hvn;
+        hvn.venstre = n;
+        n.forelder = hvn;
+        erstatt(f, n, hvn);
+        settHøyde(n);
+        settHøyde(h);
+        settHøyde(hvn);
+        sluttEndring(h, hV);
+        sluttEndring(n, nV);
+        return etterRotasjon(f, hvn, n, h);
+    }
+
+    private static <T> void erstatt(Node<T> f, Node<T> gammel, Node<T> ny) {
+        if (f.venstre == gammel) f.venstre = ny;
+        else f.høyre = ny;
+        ny.forelder = f;
+    }
+
+    // f og alle nodene i rotasjonen er låst; r er ny rot i deltreet, og a og b (null ved enkel
+    // rotasjon) ble flyttet ned under r. En rutingnode som mistet et barn i rotasjonen, kobles ut
+    // med en gang mens låsene er tatt; ellers ville f sitt høydefelt aldri blitt rettet hvis
+    // arbeidet fortsatte nede i treet. Gir neste node som må sjekkes, som balanser
+    private Node<T> etterRotasjon(Node<T> f, Node<T> r, Node<T> a, Node<T> b) {
+        if (kobleUtRuting(r, a) | (b != null && kobleUtRuting(r, b))) settHøyde(r);
+        // ubalanse under r kan bare komme av høyder som andre skrivere endrer samtidig; de går
+        // selv oppover og retter det, men vi tar det vi ser
+        if (ubalansert(a)) return a;
+        if (b != null && ubalansert(b)) return b;
+        int t = tilstand(r);
+        if (t == KOBLE_UT || t == BALANSER) return r;
+        return fiksHøyde(f);
+    }
+
+    // r og m er låst, og m er barn av r
+    private boolean kobleUtRuting(Node<T> r, Node<T> m) {
+        return m.kopier == 0 && (m.venstre == null || m.høyre == null) && kobleUt(r, m);
+    }
+
+    private static boolean ubalansert(Node<?> m) {
+        return m.versjon != FJERNET && Math.abs(hoyde(m.venstre) - hoyde(m.høyre)) > 1;
+    }
+
+    public void nullstill() {
+        long[] stempler = låsAlle();
+        try {
+            holder.høyre = null; // søk som allerede er i det gamle treet, gjør seg ferdige der
+            antall.reset();
+        } finally {
+            låsOppAlle(stempler);
+        }
+    }
+
+    // Sjekker rekkefølge, forelder-pekere, høyder, AVL-balanse og antall med alle skrivere ute;
+    // kaster IllegalStateException hvis noe er feil
+    public void sjekkInvariant() {
+        long[] stempler = låsAlle();
+        try {
+            Node<T> rot = holder.høyre;
+            if (rot != null && rot.forelder != holder) throw new IllegalStateException("Roten har feil forelder");
+            long[] verdier = new long[1];
+            sjekk(rot, null, null, verdier);
+            if (verdier[0] != antall.sum()) {
+                throw new IllegalStateException("antall er " + antall.sum() + ", men treet har " + verdier[0] + " verdier");
+            }
+        } finally {
+            låsOppAlle(stempler);
+        }
+    }
+
+    // Alle verdier i p må ligge strengt mellom min og max (null: ingen grense)
+    private void sjekk(Node<T> p, T min, T max, long[] verdier) {
+        if (p == null) return;
+        if ((p.versjon & (ENDRES | FJERNET)) != 0) throw new IllegalStateException("Node under endring eller fjernet: " + p.verdi);
+        if ((min != null && comp.compare(min, p.verdi) >= 0) || (max != null && comp.compare(p.verdi, max) >= 0)) {
+            throw new IllegalStateException("Ikke sortert ved " + p.verdi);
+        }
+        if (p.venstre != null && p.venstre.forelder != p) throw new IllegalStateException("Feil forelder-peker under " + p.verdi);
+        if (p.høyre != null && p.høyre.forelder != p) throw new IllegalStateException("Feil forelder-peker under " + p.verdi);
+        if (p.hoyde != 1 + Math.max(hoyde(p.venstre), hoyde(p.høyre))) throw new IllegalStateException("Feil høyde i " + p.verdi);
+        if (Math.abs(hoyde(p.venstre) - hoyde(p.høyre)) > 1) throw new IllegalStateException("Ubalansert node " + p.verdi);
+        if (p.kopier < 0) throw new IllegalStateException("Negativt antall kopier i " + p.verdi);
+        verdier[0] += p.kopier;
+        sjekk(p.venstre, min, p.verdi, verdier);
+        sjekk(p.høyre, p.verdi, max, verdier);
+    }
+
+    // Iteratoren går over et øyeblikksbilde tatt med alle skrivere ute, så den ser aldri halve
+    // endringer og kaster aldri ConcurrentModificationException
+    public Iterator<T> iterator() {
+        ArrayList<T> bilde = new ArrayList<>();
+        long[] stempler = låsAlle();
+        try {
+            for (Node<T> p = først(holder.høyre); p != null; p = neste(p)) {
+                for (int i = 0; i < p.kopier; i++) bilde.add(p.verdi);
+            }
+        } finally {
+            låsOppAlle(stempler);
+        }
+        return Collections.unmodifiableList(bilde).iterator();
+    }
+
+    private static <T> Node<T> først(Node<T> p) {
+        if (p != null) while (p.venstre != null) p = p.venstre;
+        return p;
+    }
+
+    // Inorden via forelder-pekerne; holder har ingen forelder og stopper gangen
+    private Node<T> neste(Node<T> p) {
+        if (p.høyre != null) return først(p.høyre);
+        while (p.forelder != holder && p == p.forelder.høyre) p = p.forelder;
+        return p.forelder == holder ? null : p.forelder;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        for (T verdi : this) s.add(String.valueOf(verdi));
+        return s.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+// Appendable med en fast tegnbuffer foran målet, brukt av SøkeBinærTre.skriv. Bufferen tømmes
+// til målet når den er full, så minnebruken er begrenset uansett hvor mye som skrives.
+// skrivTall skriver sifrene rett inn i bufferen uten å lage en String per tall.
+final class Tegnskriver implements Appendable {
+    private static final int STANDARD_BUFFER = 8192;
+
+    // Skriver én verdi. Standard skriver heltall med skrivTall, CharSequence direkte og alt annet
+    // med toString()
+    @FunctionalInterface
+    interface Formaterer<T> {
+        void formater(T verdi, Tegnskriver ut) throws IOException;
+
+        Formaterer<Object> STANDARD = (verdi, ut) -> {
+            if (verdi instanceof Integer || verdi instanceof Long || verdi instanceof Short || verdi instanceof Byte) {
+                ut.skrivTall(((Number) verdi).longValue());
+            } else if (verdi instanceof CharSequence tekst) {
+                ut.append(tekst);
+            } else {
+                ut.append(verdi.toString());
+            }
+        };
+    }
+
+    private final Appendable mål;
+    private final char[] buf;
+    private int n;
+
+    Tegnskriver(Appendable mål) {
+        this(mål, STANDARD_BUFFER);
+    }
+
+    Tegnskriver(Appendable mål, int buffer) {
+        if (buffer < 32) throw new IllegalArgumentException("Bufferen må ha plass til minst 32 tegn: " + buffer);
+        this.mål = mål;
+        this.buf = new char[buffer];
+    }
+
+    @Override
+    public Tegnskriver append(char c) throws IOException {
+        if (n == buf.length) tøm();
+        buf[n++] = c;
+        return this;
+    }
+
+    @Override
+    public Tegnskriver append(CharSequence tekst) throws IOException {
+        return append(tekst, 0, tekst.length());
+    }
+
+    @Override
+    public Tegnskriver append(CharSequence tekst, int fra, int til) throws IOException {
+        while (fra < til) {
+            if (n == buf.length) tøm();
+            int k = Math.min(til - fra, buf.length - n);
+            if (tekst instanceof String s) s.getChars(fra, fra + k, buf, n);
+            else for (int i = 0; i < k; i++) buf[n + i] = tekst.charAt(fra + i);
+            n += k;
+            fra += k;
+        }
+        return this;
+    }
+
+    // Skriver v i titallsystemet rett inn i bufferen
+    public Tegnskriver skrivTall(long v) throws IOException {
+        if (buf.length - n < 20) tøm(); // plass til fortegn og 19 sifre
+        if (v == Long.MIN_VALUE) return append("-9223372036854775808");
+        if (v < 0) {
+            buf[n++] = '-';
+            v = -v;
+        }
+        int slutt = n + sifre(v);
+        int i = slutt;
+        while (v > Integer.MAX_VALUE) { // long-deling bare for de øverste sifrene
+            buf[--i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        for (int k = (int) v; ; ) {
+            int q = k / 10;
+            buf[--i] = (char) ('0' + (k - q * 10));
+            if (q == 0) break;
+            k = q;
+        }
+        n = slutt;
+        return this;
+    }
+
+    private static int sifre(long v) {
+        long grense = 10;
+        for (int d = 1; d < 19; d++, grense *= 10) if (v < grense) return d;
+        return 19;
+    }
+
+    // Sender det som ligger i bufferen videre til målet
+    public void tøm() throws IOException {
+        if (n == 0) return;
+        if (mål instanceof StringBuilder sb) sb.append(buf, 0, n);
+        else if (mål instanceof Writer w) w.write(buf, 0, n);
+        else mål.append(CharBuffer.wrap(buf, 0, n));
+        n = 0;
+    }
+}
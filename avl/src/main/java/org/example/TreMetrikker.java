@@ -0,0 +1,188 @@
+package org.example;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// Tellere for ett SøkeBinærTre, slått på med settMetrikker(true): rotasjoner per tilfelle i
+// balanserForeldre, sammenligninger og søkedybde per inneholder/leggInn/fjern, allokerte noder,
+// og høyden mot den teoretiske AVL-grensen. bilde() gir en fast kopi, og registrer() gjør
+// tellerne synlige over JMX. Tellerne er LongAdder, så lesere som går samtidig under leselåsen i
+// OppdeltSøkeBinærTre og arbeiderne i de parallelle mengdeoperasjonene ikke mister økninger.
+// bilde() summerer hver teller for seg og er ikke et atomisk øyeblikk mens treet endres.
+// Klassen er public fordi plattformens MBean-server bare godtar public standard-MBeans.
+public class TreMetrikker implements TreMetrikkerMBean {
+    static final int INNEHOLDER = 0, LEGG_INN = 1, FJERN = 2;
+    static final int VENSTRE_VENSTRE = 0, HØYRE_HØYRE = 1, VENSTRE_HØYRE = 2, HØYRE_VENSTRE = 3;
+    private static final int MAKS_DYBDE = 64; // dypere søk telles i siste bøtte
+
+    private final LongAdder[] kall = tellere(3);
+    private final LongAdder[] sammenligninger = tellere(3);
+    private final LongAdder[] rotasjoner = tellere(4);
+    private final LongAdder[] dybder = tellere(MAKS_DYBDE);
+    private final LongAdder noder = new LongAdder();
+    private final IntSupplier hoyde, antall;
+
+    TreMetrikker(IntSupplier hoyde, IntSupplier antall) {
+        this.hoyde = hoyde;
+        this.antall = antall;
+    }
+
+    void søk(int operasjon, int antallSammenligninger) {
+        kall[operasjon].increment();
+        sammenligninger[operasjon].add(antallSammenligninger);
+        dybder[Math.min(antallSammenligninger, MAKS_DYBDE - 1)].increment();
+    }
+
+    void rotasjon(int tilfelle) {
+        rotasjoner[tilfelle].increment();
+    }
+
+    void noder(int n) {
+        noder.add(n);
+    }
+
+    private static LongAdder[] tellere(int n) {
+        LongAdder[] t = new LongAdder[n];
+        for (int i = 0; i < n; i++) t[i] = new LongAdder();
+        return t;
+    }
+
+    private static long[] summer(LongAdder[] tellere) {
+        long[] s = new long[tellere.length];
+        for (int i = 0; i < s.length; i++) s[i] = tellere[i].sum();
+        return s;
+    }
+
+    // Største høyde et AVL-tre med n noder kan ha: 1.4405·log2(n + 2) − 0.3277
+    static double hoydeGrense(int n) {
+        return 1.4405 * (Math.log(n + 2) / Math.log(2)) - 0.3277;
+    }
+
+    public Bilde bilde() {
+        return new Bilde(this);
+    }
+
+    // Registrerer tellerne i plattformens MBean-server som org.example:type=SøkeBinærTre,name=navn
+    public ObjectName registrer(String navn) throws JMException {
+        ObjectName objektnavn = new ObjectName("org.example:type=SøkeBinærTre,name=" + ObjectName.quote(navn));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objektnavn);
+        return objektnavn;
+    }
+
+    // Fast kopi av tellerne på ett tidspunkt
+    static final class Bilde {
+        private final long[] kall, sammenligninger, rotasjoner, dybder;
+        private final long noder;
+        private final int hoyde, antall;
+
+        private Bilde(TreMetrikker m) {
+            kall = summer(m.kall);
+            sammenligninger = summer(m.sammenligninger);
+            rotasjoner = summer(m.rotasjoner);
+            dybder = summer(m.dybder);
+            noder = m.noder.sum();
+            hoyde = m.hoyde.getAsInt();
+            antall = m.antall.getAsInt();
+        }
+
+        public long kall(int operasjon) {
+            return kall[operasjon];
+        }
+        public long sammenligninger(int operasjon) {
+            return sammenligninger[operasjon];
+        }
+        public double snittSammenligninger(int operasjon) {
+            return kall[operasjon] == 0 ? 0 : (double) sammenligninger[operasjon] / kall[operasjon];
+        }
+        public long rotasjoner(int tilfelle) {
+            return rotasjoner[tilfelle];
+        }
+        public long[] dybdeHistogram() {
+            return dybder.clone();
+        }
+        public long allokerteNoder() {
+            return noder;
+        }
+        public int hoyde() {
+            return hoyde;
+        }
+        public double hoydeGrense() {
+            return TreMetrikker.hoydeGrense(antall);
+        }
+        public int antall() {
+            return antall;
+        }
+
+        @Override
+        public String toString() {
+            int siste = dybder.length - 1;
+            while (siste > 0 && dybder[siste] == 0) siste--;
+            return String.format("kall inneholder/leggInn/fjern=%d/%d/%d, snitt sammenligninger=%.2f/%.2f/%.2f, "
+                            + "rotasjoner VV/HH/VH/HV=%d/%d/%d/%d, noder=%d, høyde=%d (grense %.1f), antall=%d, dybder=%s",
+                    kall[INNEHOLDER], kall[LEGG_INN], kall[FJERN],
+                    snittSammenligninger(INNEHOLDER), snittSammenligninger(LEGG_INN), snittSammenligninger(FJERN),
+                    rotasjoner[VENSTRE_VENSTRE], rotasjoner[HØYRE_HØYRE], rotasjoner[VENSTRE_HØYRE], rotasjoner[HØYRE_VENSTRE],
+                    noder, hoyde, hoydeGrense(), antall, Arrays.toString(Arrays.copyOf(dybder, siste + 1)));
+        }
+    }
+
+    // MBean-attributtene leser tellerne direkte
+    public long getKallInneholder() {
+        return kall[INNEHOLDER].sum();
+    }
+    public long getKallLeggInn() {
+        return kall[LEGG_INN].sum();
+    }
+    public long getKallFjern() {
+        return kall[FJERN].sum();
+    }
+    public double getSnittSammenligningerInneholder() {
+        return bilde().snittSammenligninger(INNEHOLDER);
+    }
+    public double getSnittSammenligningerLeggInn() {
+        return bilde().snittSammenligninger(LEGG_INN);
+    }
+    public double getSnittSammenligningerFjern() {
+        return bilde().snittSammenligninger(FJERN);
+    }
+    public long getRotasjonerVenstreVenstre() {
+        return rotasjoner[VENSTRE_VENSTRE].sum();
+    }
+    public long getRotasjonerHøyreHøyre() {
+        return rotasjoner[HØYRE_HØYRE].sum();
+    }
+    public long getRotasjonerVenstreHøyre() {
+        return rotasjoner[VENSTRE_HØYRE].sum();
+    }
+    public long getRotasjonerHøyreVenstre() {
+        return rotasjoner[HØYRE_VENSTRE].sum();
+    }
+    public long[] getDybdeHistogram() {
+        return summer(dybder);
+    }
+    public long getAllokerteNoder() {
+        return noder.sum();
+    }
+    public int getHoyde() {
+        return hoyde.getAsInt();
+    }
+    public double getHoydeGrense() {
+        return hoydeGrense(antall.getAsInt());
+    }
+    public int getAntall() {
+        return antall.getAsInt();
+    }
+
+    public void nullstill() {
+        for (LongAdder t : kall) t.reset();
+        for (LongAdder t : sammenligninger) t.reset();
+        for (LongAdder t : rotasjoner) t.reset();
+        for (LongAdder t : dybder) t.reset();
+        noder.reset();
+    }
+}
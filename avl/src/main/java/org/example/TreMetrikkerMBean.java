@@ -0,0 +1,21 @@
+package org.example;
+
+// JMX-visningen av TreMetrikker. Må være public for at plattformens MBean-server skal godta den
+public interface TreMetrikkerMBean {
+    long getKallInneholder();
+    long getKallLeggInn();
+    long getKallFjern();
+    double getSnittSammenligningerInneholder();
+    double getSnittSammenligningerLeggInn();
+    double getSnittSammenligningerFjern();
+    long getRotasjonerVenstreVenstre();
+    long getRotasjonerHøyreHøyre();
+    long getRotasjonerVenstreHøyre();
+    long getRotasjonerHøyreVenstre();
+    long[] getDybdeHistogram(); // [d] = antall søk som gjorde d sammenligninger
+    long getAllokerteNoder();
+    int getHoyde();
+    double getHoydeGrense();
+    int getAntall();
+    void nullstill();
+}
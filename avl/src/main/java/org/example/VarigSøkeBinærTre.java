@@ -0,0 +1,442 @@
+package org.example;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// Beholder rundt et SøkeBinærTre der leggInn, fjern og nullstill overlever krasj. Hver endring
+// legges først til en write-ahead-logg (WAL) i mappen, og treet kan alltid gjenskapes fra siste
+// sjekkpunkt (et Øyeblikksbilde) pluss loggen etter det. Filene er bilde-<g>.bin og logg-<g>.wal
+// for generasjon g. Et sjekkpunkt skriver bilde-<g+1>.bin, starter logg-<g+1>.wal og sletter
+// generasjon g, så et krasj midt i et sjekkpunkt etterlater alltid én komplett generasjon.
+//
+// Hvor ofte loggen tvinges ned på disk (fsync) velges med Varighet:
+//   perOperasjon()   hver endring er varig når metoden returnerer. Tråder som venter samtidig
+//                    deler én fsync (group commit)
+//   perBunt(n)       fsync etter hver n-te endring og ved synk()/close(); opptil n-1 kan gå tapt
+//   intervall(ms)    en bakgrunnstråd tar fsync hvert ms millisekund
+// Postene i loggen er lengde (4), operasjon (1), verdi (kodeken) og CRC32C (4). Ved oppstart
+// spilles loggen av fram til første ufullstendige eller ødelagte post, og resten kuttes bort.
+class VarigSøkeBinærTre<T> implements Beholder<T>, AutoCloseable {
+    private static final byte LEGG_INN = 1, FJERN = 2, NULLSTILL = 3;
+    private static final int MAKS_POST = 1 << 16;
+    private static final int BUFFER = 1 << 20;
+
+    static final class Varighet {
+        private static final int PER_OPERASJON = 0, PER_BUNT = 1, INTERVALL = 2;
+        private final int modus;
+        private final long verdi;
+
+        private Varighet(int modus, long verdi) {
+            this.modus = modus;
+            this.verdi = verdi;
+        }
+        public static Varighet perOperasjon() {
+            return new Varighet(PER_OPERASJON, 1);
+        }
+        public static Varighet perBunt(int endringer) {
+            if (endringer < 1) throw new IllegalArgumentException("Bunten må ha minst én endring: " + endringer);
+            return new Varighet(PER_BUNT, endringer);
+        }
+        public static Varighet intervall(long millisekunder) {
+            if (millisekunder < 1) throw new IllegalArgumentException("Intervallet må være minst 1 ms: " + millisekunder);
+            return new Varighet(INTERVALL, millisekunder);
+        }
+    }
+
+    private final SøkeBinærTre<T> tre;
+    private final Path mappe;
+    private final Nøkkelkodek<T> kodek;
+    private final Varighet varighet;
+    private final long sjekkpunktBytes; // loggstørrelse som utløser et sjekkpunkt, 0 = bare manuelt
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private final Object synkLås = new Object(); // holdes under fsync, ikke under endringer
+    private final ScheduledExecutorService tidtaker;
+    private FileChannel logg;
+    private long generasjon;
+    private long loggBytes; // skrevet til loggen i denne generasjonen, medregnet bufferen
+    private long lsn;       // nummeret til siste endring lagt i loggen
+    private long varigLsn;  // alle endringer til og med denne er tvunget ned på disk (under synkLås)
+    private boolean lukket;
+
+    // Åpner eller oppretter et varig tre i mappe og gjenoppretter innholdet fra disk
+    public VarigSøkeBinærTre(Path mappe, Comparator<? super T> c, boolean multimengde, Nøkkelkodek<T> kodek,
+                             Varighet varighet, long sjekkpunktBytes) throws IOException {
+        this.mappe = Objects.requireNonNull(mappe, "Mappen kan ikke være null");
+        this.kodek = Objects.requireNonNull(kodek, "Kodeken kan ikke være null");
+        this.varighet = Objects.requireNonNull(varighet, "Varighet kan ikke være null");
+        if (sjekkpunktBytes < 0) throw new IllegalArgumentException("sjekkpunktBytes: " + sjekkpunktBytes);
+        this.sjekkpunktBytes = sjekkpunktBytes;
+        Files.createDirectories(mappe);
+        this.tre = gjenopprett(c, multimengde);
+        if (varighet.modus == Varighet.INTERVALL) {
+            tidtaker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "wal-synk " + mappe);
+                t.setDaemon(true);
+                return t;
+            });
+            tidtaker.scheduleWithFixedDelay(this::synkStille, varighet.verdi, varighet.verdi, TimeUnit.MILLISECONDS);
+        } else {
+            tidtaker = null;
+        }
+    }
+
+    private Path bilde(long g) {
+        return mappe.resolve("bilde-" + g + ".bin");
+    }
+    private Path loggfil(long g) {
+        return mappe.resolve("logg-" + g + ".wal");
+    }
+
+    // Finner nyeste generasjon, laster bildet og spiller av loggen
+    private SøkeBinærTre<T> gjenopprett(Comparator<? super T> c, boolean multimengde) throws IOException {
+        generasjon = 0;
+        try (var filer = Files.newDirectoryStream(mappe, "bilde-*.bin")) {
+            for (Path p : filer) {
+                String navn = p.getFileName().toString();
+                generasjon = Math.max(generasjon, Long.parseLong(navn.substring(6, navn.length() - 4)));
+            }
+        }
+        SøkeBinærTre<T> t;
+        if (Files.exists(bilde(generasjon))) {
+            t = Øyeblikksbilde.les(bilde(generasjon), c, kodek);
+            if (t.erMultimengde() != multimengde) throw new IOException("Bildet har feil multimengde-modus: " + bilde(generasjon));
+        } else {
+            t = new SøkeBinærTre<>(c, multimengde);
+        }
+        logg = FileChannel.open(loggfil(generasjon), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        loggBytes = spillAv(t);
+        logg.truncate(loggBytes); // kutter en halvskrevet post fra krasjet
+        logg.position(loggBytes);
+        logg.force(true);
+        slettEldreEnn(generasjon);
+        return t;
+    }
+
+    // Spiller av postene i loggen på t og returnerer hvor mange bytes som var gyldige
+    private long spillAv(SøkeBinærTre<T> t) throws IOException {
+        ByteBuffer inn = ByteBuffer.allocate(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        long gyldig = 0;
+        logg.position(0);
+        while (logg.read(inn) > 0 || inn.position() > 0) {
+            inn.flip();
+            while (inn.remaining() >= Integer.BYTES) {
+                int start = inn.position();
+                int lengde = inn.getInt(start);
+                if (lengde < 1 || lengde > MAKS_POST) return gyldig;
+                if (inn.remaining() < Integer.BYTES + lengde + Integer.BYTES) break; // resten i neste lesing
+                crc.reset();
+                crc.update(inn.slice(start + Integer.BYTES, lengde));
+                if ((int) crc.getValue() != inn.getInt(start + Integer.BYTES + lengde)) return gyldig;
+                inn.position(start + Integer.BYTES);
+                byte operasjon = inn.get();
+                switch (operasjon) {
+                    case LEGG_INN -> t.leggInn(kodek.les(inn));
+                    case FJERN -> t.fjern(kodek.les(inn));
+                    case NULLSTILL -> t.nullstill();
+                    default -> { return gyldig; }
+                }
+                inn.position(start + Integer.BYTES + lengde + Integer.BYTES);
+                gyldig += Integer.BYTES + lengde + Integer.BYTES;
+            }
+            inn.compact();
+            if (logg.position() >= logg.size() && inn.position() > 0) return gyldig; // ufullstendig post til slutt
+        }
+        return gyldig;
+    }
+
+    private void slettEldreEnn(long g) throws IOException {
+        try (var filer = Files.newDirectoryStream(mappe, "{bilde-*.bin,logg-*.wal,*.tmp}")) {
+            for (Path p : filer) {
+                String navn = p.getFileName().toString();
+                if (navn.endsWith(".tmp")) {
+                    Files.delete(p);
+                    continue;
+                }
+                int start = navn.indexOf('-') + 1;
+                if (Long.parseLong(navn.substring(start, navn.length() - 4)) < g) Files.delete(p);
+            }
+        }
+    }
+
+    // Koder én post i bufferen og returnerer hvor den starter. Kalles med monitoren holdt, før
+    // endringen gjøres på treet: posten teller ikke før bekreft, og feiler kodingen (for stor
+    // verdi, feil i kodeken) er bufferen rullet tilbake og treet urørt
+    private int kodPost(byte operasjon, T verdi) {
+        sjekkÅpen();
+        while (true) {
+            int start = buf.position();
+            try {
+                skrivPost(operasjon, verdi);
+                return start;
+            } catch (RuntimeException e) {
+                buf.position(start);
+                if (!(e instanceof BufferOverflowException)) throw e;
+                // får ikke plass i en tom buffer heller
+                if (start == 0) throw new IllegalArgumentException("Verdien tar over " + MAKS_POST + " bytes: " + verdi, e);
+            }
+            skrivBuffer(); // tømmer bufferen og prøver igjen fra starten
+        }
+    }
+
+    // Gjør posten fra kodPost gjeldende etter at endringen er gjort på treet
+    private long bekreft(int start) {
+        loggBytes += buf.position() - start;
+        return ++lsn;
+    }
+
+    private void skrivPost(byte operasjon, T verdi) {
+        int start = buf.position();
+        buf.putInt(0).put(operasjon);
+        if (verdi != null) kodek.skriv(verdi, buf);
+        int lengde = buf.position() - start - Integer.BYTES;
+        if (lengde > MAKS_POST) throw new IllegalArgumentException("Verdien tar over " + MAKS_POST + " bytes: " + verdi);
+        buf.putInt(start, lengde);
+        crc.reset();
+        crc.update(buf.slice(start + Integer.BYTES, lengde));
+        buf.putInt((int) crc.getValue());
+    }
+
+    // Skriver bufferen til loggfilen uten fsync. Kalles med monitoren holdt. Feiler skrivingen
+    // halvveis, flyttes det som ikke kom ut først i bufferen, så neste forsøk fortsetter der
+    // filen slapp i stedet for å skrive bytes om igjen eller hoppe over dem
+    private void skrivBuffer() {
+        buf.flip();
+        try {
+            while (buf.hasRemaining()) logg.write(buf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buf.compact();
+        }
+    }
+
+    // Gjør alle endringer til og med nummer mål varige. Den som kommer først tar fsync for alle
+    // som er lagt i loggen så langt; de som ventet på synkLås imens, er da ofte allerede dekket
+    private void gjørVarig(long mål) {
+        synchronized (synkLås) {
+            if (varigLsn >= mål) return;
+            long til;
+            FileChannel kanal;
+            synchronized (this) {
+                if (lukket) return;
+                skrivBuffer();
+                til = lsn;
+                kanal = logg;
+            }
+            try {
+                kanal.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            varigLsn = til;
+        }
+    }
+
+    private void etterEndring(long nummer) {
+        boolean full;
+        synchronized (this) {
+            full = sjekkpunktBytes > 0 && loggBytes >= sjekkpunktBytes;
+        }
+        if (full) {
+            sjekkpunkt();
+            return;
+        }
+        if (varighet.modus == Varighet.PER_OPERASJON) gjørVarig(nummer);
+        else if (varighet.modus == Varighet.PER_BUNT && nummer % varighet.verdi == 0) gjørVarig(nummer);
+    }
+
+    public boolean leggInn(T verdi) {
+        Objects.requireNonNull(verdi, "Ikke tillat med null verdier");
+        long nummer;
+        synchronized (this) {
+            int start = kodPost(LEGG_INN, verdi);
+            try {
+                tre.leggInn(verdi);
+            } catch (RuntimeException e) {
+                buf.position(start);
+                throw e;
+            }
+            nummer = bekreft(start);
+        }
+        etterEndring(nummer);
+        return true;
+    }
+
+    public boolean fjern(T verdi) {
+        if (verdi == null) return false;
+        long nummer;
+        synchronized (this) {
+            int start = kodPost(FJERN, verdi);
+            boolean fjernet;
+            try {
+                fjernet = tre.fjern(verdi);
+            } catch (RuntimeException e) {
+                buf.position(start);
+                throw e;
+            }
+            if (!fjernet) {
+                buf.position(start);
+                return false;
+            }
+            nummer = bekreft(start);
+        }
+        etterEndring(nummer);
+        return true;
+    }
+
+    public void nullstill() {
+        long nummer;
+        synchronized (this) {
+            int start = kodPost(NULLSTILL, null);
+            tre.nullstill();
+            nummer = bekreft(start);
+        }
+        etterEndring(nummer);
+    }
+
+    public synchronized boolean inneholder(T verdi) {
+        return tre.inneholder(verdi);
+    }
+    public synchronized int antall() {
+        return tre.antall();
+    }
+    public synchronized boolean tom() {
+        return tre.tom();
+    }
+
+    // Iteratoren må brukes av én tråd og uten andre endringer imens (den feiler raskt).
+    // remove() logges som fjern av verdien
+    public synchronized Iterator<T> iterator() {
+        Iterator<T> it = tre.iterator();
+        return new Iterator<T>() {
+            private T sist;
+            @Override
+            public boolean hasNext() {
+                synchronized (VarigSøkeBinærTre.this) {
+                    return it.hasNext();
+                }
+            }
+            @Override
+            public T next() {
+                synchronized (VarigSøkeBinærTre.this) {
+                    return sist = it.next();
+                }
+            }
+            @Override
+            public void remove() {
+                long nummer;
+                synchronized (VarigSøkeBinærTre.this) {
+                    int start = kodPost(FJERN, sist);
+                    try {
+                        it.remove();
+                    } catch (RuntimeException e) {
+                        buf.position(start);
+                        throw e;
+                    }
+                    nummer = bekreft(start);
+                }
+                etterEndring(nummer);
+            }
+        };
+    }
+
+    // Gjør alle endringer så langt varige
+    public void synk() {
+        long mål;
+        synchronized (this) {
+            sjekkÅpen();
+            mål = lsn;
+        }
+        gjørVarig(mål);
+    }
+
+    private void synkStille() {
+        try {
+            synk();
+        } catch (RuntimeException e) {
+            // tidtakeren skal ikke dø av én feilet fsync; neste endring eller synk() får feilen
+        }
+    }
+
+    // Skriver et nytt øyeblikksbilde og begynner på en tom logg. Endringer venter imens
+    public void sjekkpunkt() {
+        synchronized (synkLås) {
+            synchronized (this) {
+                sjekkÅpen();
+                try {
+                    skrivBuffer();
+                    logg.force(false);
+                    long neste = generasjon + 1;
+                    Øyeblikksbilde.skriv(tre, bilde(neste), kodek);
+                    FileChannel nyLogg = FileChannel.open(loggfil(neste), StandardOpenOption.CREATE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                    // bildet er alt flyttet på plass og mappen tvunget ned; den nye loggen må også
+                    // være varig før forrige generasjon slettes
+                    Øyeblikksbilde.synkMappe(mappe);
+                    logg.close();
+                    logg = nyLogg;
+                    generasjon = neste;
+                    loggBytes = 0;
+                    varigLsn = lsn;
+                    slettEldreEnn(neste);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    public synchronized long generasjon() {
+        return generasjon;
+    }
+
+    private void sjekkÅpen() {
+        if (lukket) throw new IllegalStateException("Treet er lukket");
+    }
+
+    // Gjør alt varig og lukker loggen. Treet kan ikke brukes etterpå. Tidtakeren avbrytes ikke:
+    // et avbrudd midt i write/force lukker FileChannel (ClosedByInterruptException), og da ville
+    // det som ligger i bufferen aldri nå loggen. Den får i stedet gjøre ferdig synken den er i
+    @Override
+    public void close() throws IOException {
+        if (tidtaker != null) {
+            tidtaker.shutdown();
+            boolean avbrutt = false;
+            while (true) {
+                try {
+                    if (tidtaker.awaitTermination(1, TimeUnit.SECONDS)) break;
+                } catch (InterruptedException e) {
+                    avbrutt = true; // lukk likevel ferdig, og gi avbruddet videre etterpå
+                }
+            }
+            if (avbrutt) Thread.currentThread().interrupt();
+        }
+        synchronized (synkLås) {
+            synchronized (this) {
+                if (lukket) return;
+                skrivBuffer();
+                logg.force(false);
+                logg.close();
+                lukket = true;
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return tre.toString();
+    }
+}
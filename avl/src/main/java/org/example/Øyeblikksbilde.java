@@ -0,0 +1,336 @@
+package org.example;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+// Lagrer et SøkeBinærTre som en kompakt binærfil og laster det inn igjen.
+// Filen er verdiene i inorden etter et hode på 24 bytes (little-endian):
+//   magi "AVLT" (4), versjon (2), kodek-id (1), flagg (1), antall verdier (8), antall poster (8)
+// Hver post er én verdi skrevet med kodeken; i multimengde-modus fulgt av antall kopier (int),
+// så like verdier tar plass én gang. Med INT og LONG er postene rene 4/8-byte tall uten
+// lengdefelt. Innlastingen minnemapper filen og gir verdistrømmen rett til den lineære byggingen
+// i SøkeBinærTre, så oppstarten koster O(n) i stedet for n leggInn. IntAvlTre og LongAvlTre
+// skrives og lastes med de primitive utgavene av INT og LONG, uten én boks per verdi; filene er
+// de samme, så et SøkeBinærTre<Integer> kan lastes som IntAvlTre og omvendt.
+final class Øyeblikksbilde {
+    private static final int MAGI = 0x544C5641; // "AVLT" lest som little-endian int
+    private static final short VERSJON = 1;
+    private static final int HODE = 24;
+    private static final byte MULTIMENGDE = 1;
+    private static final int MAKS_POST = 1 << 16; // største post i bytes, også minste vindu ved lesing
+    private static final int BUFFER = 1 << 20;
+    private static final long VINDU = 1 << 30; // største del av filen som mappes om gangen
+
+    private Øyeblikksbilde() {
+    }
+
+    // Skriver treet til fil. Skrives først til fil.tmp og flyttes på plass når alt er tvunget ned
+    // på disk, så fil inneholder alltid et helt øyeblikksbilde, det gamle eller det nye. Mappen
+    // tvinges også ned etter flyttingen, ellers kan selve omdøpingen gå tapt i et krasj. Feiler
+    // skrivingen, slettes fil.tmp før feilen kastes videre
+    public static <T> void skriv(SøkeBinærTre<T> tre, Path fil, Nøkkelkodek<? super T> kodek) throws IOException {
+        Objects.requireNonNull(tre, "Treet kan ikke være null");
+        Objects.requireNonNull(kodek, "Kodeken kan ikke være null");
+        skrivFil(fil, kodek, tre.erMultimengde(), tre.antall(), skriver -> {
+            tre.forHverVerdi(skriver);
+            if (skriver.feil != null) throw skriver.feil;
+        });
+    }
+
+    // Like verdier ligger i hver sin node i IntAvlTre og LongAvlTre, så de skrives som egne poster
+    public static void skriv(IntAvlTre tre, Path fil) throws IOException {
+        Objects.requireNonNull(tre, "Treet kan ikke være null");
+        skrivFil(fil, Nøkkelkodek.INT, false, tre.antall(), skriver -> {
+            for (PrimitiveIterator.OfInt it = tre.iterator(); it.hasNext(); ) skriver.skrivInt(it.nextInt());
+        });
+    }
+
+    public static void skriv(LongAvlTre tre, Path fil) throws IOException {
+        Objects.requireNonNull(tre, "Treet kan ikke være null");
+        skrivFil(fil, Nøkkelkodek.LONG, false, tre.antall(), skriver -> {
+            for (PrimitiveIterator.OfLong it = tre.iterator(); it.hasNext(); ) skriver.skrivLong(it.nextLong());
+        });
+    }
+
+    private interface Innhold<T> {
+        void skriv(Skriver<T> skriver) throws IOException;
+    }
+
+    private static <T> void skrivFil(Path fil, Nøkkelkodek<? super T> kodek, boolean multimengde, long antall,
+                                     Innhold<T> innhold) throws IOException {
+        Path tmp = fil.resolveSibling(fil.getFileName() + ".tmp");
+        try {
+            try (FileChannel kanal = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                Skriver<T> skriver = new Skriver<>(kanal, kodek, multimengde);
+                skriver.buf.position(HODE); // hodet skrives til slutt, når antall poster er kjent
+                innhold.skriv(skriver);
+                skriver.tøm();
+                ByteBuffer hode = ByteBuffer.allocate(HODE).order(ByteOrder.LITTLE_ENDIAN);
+                hode.putInt(MAGI).putShort(VERSJON).put(kodek.id()).put(multimengde ? MULTIMENGDE : 0)
+                        .putLong(antall).putLong(skriver.poster).flip();
+                while (hode.hasRemaining()) kanal.write(hode, hode.position());
+                kanal.force(true);
+            }
+            Files.move(tmp, fil, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException f) {
+                e.addSuppressed(f);
+            }
+            throw e;
+        }
+        synkMappe(fil.toAbsolutePath().getParent());
+    }
+
+    // fsync på mappen, så opprettede, flyttede og slettede filer i den er varige
+    static void synkMappe(Path mappe) throws IOException {
+        try (FileChannel kanal = FileChannel.open(mappe, StandardOpenOption.READ)) {
+            kanal.force(true);
+        }
+    }
+
+    // Samler postene i en buffer og skriver den til kanalen når den blir full
+    private static final class Skriver<T> implements ObjIntConsumer<T> {
+        private final FileChannel kanal;
+        private final Nøkkelkodek<? super T> kodek;
+        private final boolean multimengde;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private long poster;
+        private IOException feil; // forHverVerdi kan ikke kaste IOException, så den tas vare på her
+
+        private Skriver(FileChannel kanal, Nøkkelkodek<? super T> kodek, boolean multimengde) {
+            this.kanal = kanal;
+            this.kodek = kodek;
+            this.multimengde = multimengde;
+        }
+
+        @Override
+        public void accept(T verdi, int kopier) {
+            if (feil != null) return;
+            try {
+                int start = buf.position();
+                try {
+                    skrivPost(verdi, kopier);
+                } catch (BufferOverflowException e) {
+                    buf.position(start);
+                    tøm();
+                    start = 0;
+                    skrivPost(verdi, kopier);
+                }
+                if (buf.position() - start > MAKS_POST) {
+                    throw new IllegalArgumentException("Verdien tar over " + MAKS_POST + " bytes: " + verdi);
+                }
+                poster++;
+            } catch (IOException e) {
+                feil = e;
+            }
+        }
+
+        private void skrivPost(T verdi, int kopier) {
+            kodek.skriv(verdi, buf);
+            if (multimengde) buf.putInt(kopier);
+        }
+
+        // Primitive poster fra IntAvlTre og LongAvlTre; fast bredde, så de kan aldri bli for store
+        private void skrivInt(int verdi) throws IOException {
+            if (buf.remaining() < Integer.BYTES) tøm();
+            Nøkkelkodek.INT.skrivInt(verdi, buf);
+            poster++;
+        }
+
+        private void skrivLong(long verdi) throws IOException {
+            if (buf.remaining() < Long.BYTES) tøm();
+            Nøkkelkodek.LONG.skrivLong(verdi, buf);
+            poster++;
+        }
+
+        private void tøm() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) kanal.write(buf);
+            buf.clear();
+        }
+    }
+
+    // Laster et tre skrevet av skriv. c må være samme ordning som treet ble skrevet med;
+    // ellers kaster byggingen IllegalArgumentException fordi verdiene ikke er sortert
+    public static <T> SøkeBinærTre<T> les(Path fil, Comparator<? super T> c, Nøkkelkodek<T> kodek) throws IOException {
+        Objects.requireNonNull(c, "Comparator kan ikke være null");
+        Objects.requireNonNull(kodek, "Kodeken kan ikke være null");
+        try (FileChannel kanal = FileChannel.open(fil, StandardOpenOption.READ)) {
+            Leser<T> leser = åpne(kanal, fil, kodek);
+            long antall = leser.verdierIgjen;
+            SøkeBinærTre<T> tre = bygg(fil, () -> new SøkeBinærTre<>(c, leser.multimengde, () -> leser));
+            if (tre.antall() != antall) throw new IOException("Fant " + tre.antall() + " verdier, hodet sier " + antall);
+            return tre;
+        }
+    }
+
+    // Laster en fil skrevet med Nøkkelkodek.INT, av skriv(IntAvlTre, ...) eller fra et SøkeBinærTre<Integer>
+    public static IntAvlTre lesInt(Path fil) throws IOException {
+        try (FileChannel kanal = FileChannel.open(fil, StandardOpenOption.READ)) {
+            Leser<Integer> leser = åpne(kanal, fil, Nøkkelkodek.INT);
+            IntAvlTre tre = bygg(fil, () -> new IntAvlTre((int) leser.verdierIgjen, leser::nesteInt));
+            if (leser.hasNext()) throw new IOException("Flere poster enn hodet sier: " + fil);
+            return tre;
+        }
+    }
+
+    public static LongAvlTre lesLong(Path fil) throws IOException {
+        try (FileChannel kanal = FileChannel.open(fil, StandardOpenOption.READ)) {
+            Leser<Long> leser = åpne(kanal, fil, Nøkkelkodek.LONG);
+            LongAvlTre tre = bygg(fil, () -> new LongAvlTre((int) leser.verdierIgjen, leser::nesteLong));
+            if (leser.hasNext()) throw new IOException("Flere poster enn hodet sier: " + fil);
+            return tre;
+        }
+    }
+
+    // Leser og sjekker hodet og gir en leser som står ved første post
+    private static <T> Leser<T> åpne(FileChannel kanal, Path fil, Nøkkelkodek<T> kodek) throws IOException {
+        long filstørrelse = kanal.size();
+        if (filstørrelse < HODE) throw new IOException("Ikke et øyeblikksbilde: " + fil);
+        Leser<T> leser = new Leser<>(kanal, filstørrelse, kodek);
+        ByteBuffer hode = leser.buf;
+        if (hode.getInt() != MAGI) throw new IOException("Ikke et øyeblikksbilde: " + fil);
+        short versjon = hode.getShort();
+        if (versjon != VERSJON) throw new IOException("Ukjent versjon " + versjon + ": " + fil);
+        byte id = hode.get();
+        if (id != kodek.id()) throw new IOException("Filen er skrevet med kodek " + id + ", ikke " + kodek.id());
+        boolean multimengde = (hode.get() & MULTIMENGDE) != 0;
+        long antall = hode.getLong();
+        leser.posterIgjen = hode.getLong();
+        leser.verdierIgjen = antall;
+        leser.multimengde = multimengde;
+        if (antall < 0 || antall > Integer.MAX_VALUE || leser.posterIgjen < 0 || leser.posterIgjen > antall) {
+            throw new IOException("Ødelagt hode: " + fil);
+        }
+        // med fast bredde er filstørrelsen gitt av hodet, så en avkortet fil oppdages før byggingen
+        int bredde = kodek.bredde();
+        if (bredde > 0 && filstørrelse != HODE + leser.posterIgjen * (bredde + (multimengde ? Integer.BYTES : 0))) {
+            throw new IOException("Feil filstørrelse, filen er avkortet eller ødelagt: " + fil);
+        }
+        return leser;
+    }
+
+    // Kjører byggingen og gjør feil fra ødelagte data om til IOException
+    private static <B> B bygg(Path fil, Supplier<B> bygging) throws IOException {
+        try {
+            return bygging.get();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | NoSuchElementException e) {
+            throw new IOException("Ødelagt bilde, filen er avkortet eller har ugyldige lengder: " + fil, e);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Går gjennom postene i den mappede filen og gir hver verdi like mange ganger som den har kopier.
+    // Mapper filen i vinduer på opptil VINDU bytes og flytter vinduet når det er mindre enn en
+    // hel post igjen i det
+    private static final class Leser<T> implements Iterator<T> {
+        private final FileChannel kanal;
+        private final long filstørrelse;
+        private final Nøkkelkodek<T> kodek;
+        private MappedByteBuffer buf;
+        private long vindusStart;
+        private long posterIgjen;
+        private long verdierIgjen; // kopiene i en post kan ikke være flere enn hodet sier det er igjen
+        private boolean multimengde;
+        private T gjentatt;
+        private long gjentattTall; // gjentatt for nesteInt og nesteLong
+        private int kopierIgjen;
+
+        private Leser(FileChannel kanal, long filstørrelse, Nøkkelkodek<T> kodek) throws IOException {
+            this.kanal = kanal;
+            this.filstørrelse = filstørrelse;
+            this.kodek = kodek;
+            map(0);
+        }
+
+        private void map(long start) throws IOException {
+            vindusStart = start;
+            buf = kanal.map(FileChannel.MapMode.READ_ONLY, start, Math.min(VINDU, filstørrelse - start));
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return kopierIgjen > 0 || posterIgjen > 0;
+        }
+
+        @Override
+        public T next() {
+            if (kopierIgjen > 0) {
+                kopierIgjen--;
+                return gjentatt;
+            }
+            long posisjon = nyPost();
+            T verdi = kodek.les(buf);
+            if (postSlutt(posisjon)) gjentatt = verdi;
+            return verdi;
+        }
+
+        // Primitive utgaver av next for INT- og LONG-filer, så IntAvlTre og LongAvlTre lastes uten bokser
+        private int nesteInt() {
+            if (kopierIgjen > 0) {
+                kopierIgjen--;
+                return (int) gjentattTall;
+            }
+            long posisjon = nyPost();
+            int verdi = Nøkkelkodek.INT.lesInt(buf);
+            if (postSlutt(posisjon)) gjentattTall = verdi;
+            return verdi;
+        }
+
+        private long nesteLong() {
+            if (kopierIgjen > 0) {
+                kopierIgjen--;
+                return gjentattTall;
+            }
+            long posisjon = nyPost();
+            long verdi = Nøkkelkodek.LONG.lesLong(buf);
+            if (postSlutt(posisjon)) gjentattTall = verdi;
+            return verdi;
+        }
+
+        // Flytter vinduet hvis det er mindre enn en hel post igjen i det; gir postens posisjon i filen
+        private long nyPost() {
+            if (posterIgjen == 0) throw new NoSuchElementException();
+            long posisjon = vindusStart + buf.position();
+            if (buf.remaining() < MAKS_POST && vindusStart + buf.limit() < filstørrelse) {
+                try {
+                    map(posisjon);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return posisjon;
+        }
+
+        // Leser antall kopier etter verdien og teller ned. true hvis verdien skal gis ut flere ganger
+        private boolean postSlutt(long posisjon) {
+            int kopier = multimengde ? buf.getInt() : 1;
+            if (kopier < 1 || kopier > verdierIgjen) throw new IndexOutOfBoundsException("Ugyldig antall kopier ved " + posisjon);
+            kopierIgjen = kopier - 1;
+            verdierIgjen -= kopier;
+            posterIgjen--;
+            return kopierIgjen > 0;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayAvlTreTest {
+    private static List<Integer> liste(Iterable<Integer> tre) {
+        List<Integer> l = new ArrayList<>();
+        for (Integer v : tre) l.add(v);
+        return l;
+    }
+
+    private static List<Integer> liste(TreeMap<Integer, Integer> fasit) {
+        List<Integer> l = new ArrayList<>();
+        fasit.forEach((k, n) -> {
+            for (int i = 0; i < n; i++) l.add(k);
+        });
+        return l;
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMapFasit() {
+        Random r = new Random(5);
+        ArrayAvlTre<Integer> tre = new ArrayAvlTre<>(Comparator.naturalOrder(), 1); // tabellene må vokse
+        TreeMap<Integer, Integer> fasit = new TreeMap<>(); // verdi -> antall kopier
+        int antall = 0;
+        for (int steg = 0; steg < 50000; steg++) {
+            int område = steg % 10000 < 5000 ? 50 : 2000;
+            Integer k = r.nextInt(område);
+            switch (r.nextInt(6)) {
+                case 0, 1 -> {
+                    assertTrue(tre.leggInn(k));
+                    fasit.merge(k, 1, Integer::sum);
+                    antall++;
+                }
+                case 2, 3 -> {
+                    boolean fantes = fasit.containsKey(k);
+                    assertEquals(fantes, tre.fjern(k));
+                    if (fantes) {
+                        if (fasit.merge(k, -1, Integer::sum) == 0) fasit.remove(k);
+                        antall--;
+                    }
+                }
+                case 4 -> assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                default -> assertEquals(fasit.getOrDefault(k, 0), tre.antall(k));
+            }
+            tre.sjekkInvariant();
+            assertEquals(antall, tre.antall());
+            if (steg % 1000 == 0) assertEquals(liste(fasit), liste(tre));
+            if (steg % 17000 == 16999) { // nullstill beholder tabellene, som så fylles på nytt
+                tre.nullstill();
+                fasit.clear();
+                antall = 0;
+            }
+        }
+        assertEquals(liste(fasit), liste(tre));
+    }
+
+    @Test
+    void iteratorFeilerRaskt() {
+        ArrayAvlTre<Integer> tre = new ArrayAvlTre<>(Comparator.naturalOrder());
+        for (int i = 0; i < 10; i++) tre.leggInn(i);
+        Iterator<Integer> it = tre.iterator();
+        it.next();
+        tre.fjern(5);
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}
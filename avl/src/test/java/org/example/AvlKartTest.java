@@ -0,0 +1,139 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvlKartTest {
+    private static List<String> poster(Iterable<Map.Entry<Integer, Integer>> kart) {
+        List<String> liste = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : kart) liste.add(e.getKey() + "=" + e.getValue());
+        return liste;
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMap() {
+        Random r = new Random(5);
+        for (int runde = 0; runde < 60; runde++) {
+            AvlKart<Integer, Integer> k = new AvlKart<>(Comparator.naturalOrder());
+            TreeMap<Integer, Integer> t = new TreeMap<>();
+            int n = runde < 20 ? 10 : 2000;
+            for (int op = 0; op < n * 3; op++) {
+                Integer x = r.nextInt(n), v = r.nextInt(5) == 0 ? null : r.nextInt(100);
+                switch (r.nextInt(9)) {
+                    case 0 -> assertEquals(t.put(x, v), k.put(x, v));
+                    case 1 -> assertEquals(t.remove(x), k.remove(x));
+                    case 2 -> assertEquals(t.computeIfAbsent(x, z -> v), k.computeIfAbsent(x, z -> v));
+                    case 3 -> {
+                        if (v != null) {
+                            assertEquals(t.merge(x, v, (p, q) -> (p + q) % 7 == 0 ? null : p + q),
+                                    k.merge(x, v, (p, q) -> (p + q) % 7 == 0 ? null : p + q));
+                        }
+                    }
+                    case 4 -> assertEquals(t.compute(x, (z, p) -> p == null ? v : (p % 3 == 0 ? null : p + 1)),
+                            k.compute(x, (z, p) -> p == null ? v : (p % 3 == 0 ? null : p + 1)));
+                    case 5 -> assertEquals(t.computeIfPresent(x, (z, p) -> p % 2 == 0 ? null : p * 2),
+                            k.computeIfPresent(x, (z, p) -> p % 2 == 0 ? null : p * 2));
+                    case 6 -> assertEquals(t.putIfAbsent(x, v), k.putIfAbsent(x, v));
+                    default -> {
+                        assertEquals(t.get(x), k.get(x));
+                        assertEquals(t.containsKey(x), k.containsKey(x));
+                        assertEquals(t.floorKey(x), k.floorKey(x));
+                        assertEquals(t.lowerKey(x), k.lowerKey(x));
+                        assertEquals(t.ceilingKey(x), k.ceilingKey(x));
+                        assertEquals(t.higherKey(x), k.higherKey(x));
+                        assertEquals(t.floorEntry(x), k.floorEntry(x));
+                        assertEquals(t.ceilingEntry(x), k.ceilingEntry(x));
+                    }
+                }
+                if (op % 97 == 0) k.sjekkInvariant();
+                if (r.nextInt(n) == 0) { // fjerner annenhver post via iteratoren
+                    Iterator<Map.Entry<Integer, Integer>> it = k.iterator();
+                    int i = 0;
+                    while (it.hasNext()) {
+                        Map.Entry<Integer, Integer> e = it.next();
+                        if (i++ % 2 == 0) {
+                            t.remove(e.getKey());
+                            it.remove();
+                        }
+                    }
+                }
+            }
+            k.sjekkInvariant();
+            assertEquals(poster(t.entrySet()), poster(k));
+            assertEquals(t.size(), k.size());
+            assertEquals(t.firstEntry(), k.firstEntry());
+            assertEquals(t.lastEntry(), k.lastEntry());
+            assertTrue(k.hoyde() <= 1.45 * (Math.log(k.size() + 2) / Math.log(2)), "høyde " + k.hoyde());
+        }
+    }
+
+    @Test
+    void longKartSomTreeMap() {
+        Random r = new Random(9);
+        for (int runde = 0; runde < 30; runde++) {
+            LongKart<Integer> l = new LongKart<>(Comparator.naturalOrder());
+            TreeMap<Integer, Long> t = new TreeMap<>();
+            int n = runde < 10 ? 10 : 2000;
+            for (int op = 0; op < n * 3; op++) {
+                int x = r.nextInt(n);
+                long d = r.nextInt(10) - 3;
+                switch (r.nextInt(5)) {
+                    case 0 -> assertEquals(t.merge(x, d, Long::sum), l.addTo(x, d));
+                    case 1 -> assertEquals(t.merge(x, d, Math::max), l.merge(x, d, Math::max));
+                    case 2 -> assertEquals(ellerNull(t.remove(x)), l.remove(x));
+                    case 3 -> assertEquals(ellerNull(t.put(x, d)), l.put(x, d));
+                    default -> assertEquals(t.getOrDefault(x, 0L), l.get(x));
+                }
+            }
+            l.sjekkInvariant();
+            assertEquals(t.size(), l.size());
+            assertEquals(t.toString(), l.toString());
+        }
+    }
+
+    private static long ellerNull(Long verdi) {
+        return verdi == null ? 0 : verdi;
+    }
+
+    @Test
+    void settInnUtenMislyktSøkAvvises() {
+        AvlKart<Integer, Integer> k = new AvlKart<>(Comparator.naturalOrder());
+        k.put(1, 1);
+        assertNotNull(k.søk(1));
+        assertThrows(IllegalStateException.class, () -> k.settInn(new AvlNøkkeltre.Node<>(2)));
+        assertNull(k.søk(2));
+        k.clear();
+        assertThrows(IllegalStateException.class, () -> k.settInn(new AvlNøkkeltre.Node<>(2)));
+    }
+
+    @Test
+    void oppslagGirKopierSomIkkeEndresAvFjerning() {
+        AvlKart<Integer, String> k = new AvlKart<>(Comparator.naturalOrder());
+        for (int i = 1; i <= 7; i++) k.put(i, "v" + i);
+        Map.Entry<Integer, String> rot = k.floorEntry(4);
+        Map.Entry<Integer, String> første = k.firstEntry();
+        k.remove(4); // noden til 4 har to barn og får nøkkelen til etterfølgeren
+        k.remove(1);
+        assertEquals(Map.entry(4, "v4"), rot);
+        assertEquals(Map.entry(1, "v1"), første);
+        assertThrows(UnsupportedOperationException.class, () -> k.lastEntry().setValue("x"));
+        assertEquals("v7", k.get(7));
+    }
+
+    @Test
+    void endringIFunksjonenGirConcurrentModificationException() {
+        AvlKart<Integer, Integer> k = new AvlKart<>(Comparator.naturalOrder());
+        k.put(1, 1);
+        assertThrows(ConcurrentModificationException.class, () -> k.computeIfAbsent(2, z -> k.put(3, 3)));
+        assertThrows(ConcurrentModificationException.class, () -> k.merge(1, 1, (p, q) -> k.remove(1)));
+    }
+}
@@ -0,0 +1,128 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BPlussTreTest {
+    private static List<Integer> liste(Iterable<Integer> verdier) {
+        List<Integer> l = new ArrayList<>();
+        for (Integer v : verdier) l.add(v);
+        return l;
+    }
+
+    private static List<Integer> liste(Iterator<Integer> it) {
+        List<Integer> l = new ArrayList<>();
+        while (it.hasNext()) l.add(it.next());
+        return l;
+    }
+
+    // Fasiten er verdi -> antall kopier, siden like verdier er tillatt
+    private static List<Integer> liste(TreeMap<Integer, Integer> fasit) {
+        List<Integer> l = new ArrayList<>();
+        fasit.forEach((k, n) -> {
+            for (int i = 0; i < n; i++) l.add(k);
+        });
+        return l;
+    }
+
+    private static void fjernEn(TreeMap<Integer, Integer> fasit, Integer k) {
+        if (fasit.merge(k, -1, Integer::sum) == 0) fasit.remove(k);
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMapFasit() {
+        Random r = new Random(11);
+        for (int fanout : new int[]{4, 5, 8, 64}) {
+            BPlussTre<Integer> tre = new BPlussTre<>(Comparator.naturalOrder(), fanout);
+            TreeMap<Integer, Integer> fasit = new TreeMap<>();
+            int antall = 0;
+            for (int steg = 0; steg < 20000; steg++) {
+                int område = steg % 5000 < 2500 ? 40 : 3000; // lange rekker av like verdier over flere blader
+                Integer k = r.nextInt(område);
+                switch (r.nextInt(9)) {
+                    case 0, 1, 2 -> {
+                        assertTrue(tre.leggInn(k));
+                        fasit.merge(k, 1, Integer::sum);
+                        antall++;
+                    }
+                    case 3, 4 -> {
+                        boolean fantes = fasit.containsKey(k);
+                        assertEquals(fantes, tre.fjern(k));
+                        if (fantes) {
+                            fjernEn(fasit, k);
+                            antall--;
+                        }
+                    }
+                    case 5 -> {
+                        assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                        assertEquals(fasit.floorKey(k), tre.floor(k));
+                        assertEquals(fasit.ceilingKey(k), tre.ceiling(k));
+                        assertEquals(fasit.lowerKey(k), tre.lower(k));
+                        assertEquals(fasit.higherKey(k), tre.higher(k));
+                    }
+                    case 6 -> {
+                        Integer til = k + r.nextInt(område / 4 + 1);
+                        boolean fraInklusiv = r.nextBoolean(), tilInklusiv = r.nextBoolean();
+                        if (k.equals(til) && !(fraInklusiv && tilInklusiv)) break; // tomt, og TreeMap vil ikke ha det
+                        assertEquals(liste(new TreeMap<>(fasit.subMap(k, fraInklusiv, til, tilInklusiv))),
+                                liste(tre.subSet(k, fraInklusiv, til, tilInklusiv)));
+                        assertEquals(liste(new TreeMap<>(fasit.headMap(k, fraInklusiv))), liste(tre.headSet(k, fraInklusiv)));
+                        assertEquals(liste(new TreeMap<>(fasit.tailMap(til, tilInklusiv))), liste(tre.tailSet(til, tilInklusiv)));
+                    }
+                    case 7 -> { // fjerner verdier under k gjennom iteratoren, annenhver gang
+                        Iterator<Integer> it = tre.iterator();
+                        boolean fjern = false;
+                        while (it.hasNext()) {
+                            Integer v = it.next();
+                            if (v >= k) break;
+                            if (fjern) {
+                                it.remove();
+                                fjernEn(fasit, v);
+                                antall--;
+                            }
+                            fjern = !fjern;
+                        }
+                    }
+                    default -> { // og synkende over k
+                        Iterator<Integer> it = tre.synkendeIterator();
+                        boolean fjern = true;
+                        while (it.hasNext()) {
+                            Integer v = it.next();
+                            if (v <= k) break;
+                            if (fjern) {
+                                it.remove();
+                                fjernEn(fasit, v);
+                                antall--;
+                            }
+                            fjern = !fjern;
+                        }
+                    }
+                }
+                tre.sjekkInvariant();
+                assertEquals(antall, tre.antall());
+                if (steg % 500 == 0) {
+                    List<Integer> forventet = liste(fasit);
+                    assertEquals(forventet, liste(tre));
+                    Collections.reverse(forventet);
+                    assertEquals(forventet, liste(tre.synkendeIterator()));
+                    assertEquals(fasit.isEmpty() ? null : fasit.firstKey(), tre.første());
+                    assertEquals(fasit.isEmpty() ? null : fasit.lastKey(), tre.siste());
+                }
+                if (steg % 7000 == 6999) {
+                    tre.nullstill();
+                    fasit.clear();
+                    antall = 0;
+                }
+            }
+            assertEquals(liste(fasit), liste(tre));
+        }
+    }
+}
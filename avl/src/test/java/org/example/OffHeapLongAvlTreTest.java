@@ -0,0 +1,100 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLongAvlTreTest {
+    @Test
+    void tilfeldigeOperasjonerSomTreeMap() {
+        Random r = new Random(6);
+        try (OffHeapLongAvlTre tre = new OffHeapLongAvlTre(1 << 21)) {
+            TreeMap<Long, Integer> fasit = new TreeMap<>();
+            for (int runde = 0; runde < 3; runde++) {
+                for (int op = 0; op < 50_000; op++) {
+                    long v = r.nextInt(3000) - 1500;
+                    switch (r.nextInt(4)) {
+                        case 0, 1 -> {
+                            tre.leggInn(v);
+                            fasit.merge(v, 1, Integer::sum);
+                        }
+                        case 2 -> {
+                            assertEquals(fasit.containsKey(v), tre.fjern(v));
+                            fasit.computeIfPresent(v, (k, n) -> n == 1 ? null : n - 1);
+                        }
+                        default -> assertEquals(fasit.containsKey(v), tre.inneholder(v));
+                    }
+                    if (op % 5000 == 0) tre.sjekkInvariant();
+                }
+                tre.sjekkInvariant();
+                List<Long> forventet = new ArrayList<>(), faktisk = new ArrayList<>();
+                fasit.forEach((v, n) -> {
+                    for (int i = 0; i < n; i++) forventet.add(v);
+                });
+                tre.iterator().forEachRemaining((long v) -> faktisk.add(v));
+                assertEquals(forventet, faktisk);
+                assertEquals(forventet.size(), tre.antall());
+                if (runde == 1) { // fyller de samme blokkene igjen
+                    tre.nullstill();
+                    fasit.clear();
+                }
+            }
+        }
+    }
+
+    @Test
+    void lukketTreKasterIllegalStateException() {
+        OffHeapLongAvlTre tre = new OffHeapLongAvlTre(100);
+        for (long v = 0; v < 10; v++) tre.leggInn(v);
+        PrimitiveIterator.OfLong it = tre.iterator();
+        it.nextLong();
+        tre.close();
+        assertThrows(IllegalStateException.class, it::nextLong);
+        assertThrows(IllegalStateException.class, it::hasNext);
+        assertThrows(IllegalStateException.class, () -> tre.inneholder(1));
+        assertThrows(IllegalStateException.class, () -> tre.leggInn(1));
+        assertThrows(IllegalStateException.class, () -> tre.fjern(1));
+        assertThrows(IllegalStateException.class, tre::antall);
+        assertThrows(IllegalStateException.class, tre::iterator);
+        assertEquals(0, tre.reservertMinne());
+        tre.close();
+    }
+
+    @Test
+    void iteratorFeilerRaskt() {
+        try (OffHeapLongAvlTre tre = new OffHeapLongAvlTre(100)) {
+            tre.leggInn(1);
+            tre.leggInn(2);
+            PrimitiveIterator.OfLong it = tre.iterator();
+            it.nextLong();
+            tre.fjern(2);
+            assertThrows(ConcurrentModificationException.class, it::nextLong);
+        }
+    }
+
+    @Test
+    void sisteBlokkErIkkeStørreEnnMaksNoderKrever() {
+        try (OffHeapLongAvlTre lite = new OffHeapLongAvlTre(10)) {
+            assertEquals(0, lite.reservertMinne());
+            for (long v = 0; v < 10; v++) lite.leggInn(v);
+            assertEquals(11 * 24, lite.reservertMinne()); // plass 0 er NIL
+            assertThrows(IllegalStateException.class, () -> lite.leggInn(10));
+            lite.sjekkInvariant();
+        }
+        int maks = (1 << 20) + 5;
+        try (OffHeapLongAvlTre stort = new OffHeapLongAvlTre(maks)) {
+            for (long v = 0; v < maks; v++) stort.leggInn(v);
+            assertEquals((maks + 1L) * 24, stort.reservertMinne());
+            assertThrows(IllegalStateException.class, () -> stort.leggInn(-1));
+            assertTrue(stort.fjern(7));
+            stort.leggInn(-1); // plassen fra frilisten
+            assertEquals(maks, stort.antall());
+        }
+    }
+}
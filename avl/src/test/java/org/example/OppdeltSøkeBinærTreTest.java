@@ -0,0 +1,144 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OppdeltSøkeBinærTreTest {
+    private static List<Integer> liste(Iterable<Integer> tre) {
+        List<Integer> l = new ArrayList<>();
+        for (Integer v : tre) l.add(v);
+        return l;
+    }
+
+    // Fasiten er verdi -> antall kopier, siden like verdier er tillatt i begge modusene
+    private static List<Integer> liste(TreeMap<Integer, Integer> fasit) {
+        List<Integer> l = new ArrayList<>();
+        fasit.forEach((k, n) -> {
+            for (int i = 0; i < n; i++) l.add(k);
+        });
+        return l;
+    }
+
+    private static boolean fjernEn(TreeMap<Integer, Integer> fasit, Integer k) {
+        Integer n = fasit.get(k);
+        if (n == null) return false;
+        if (n == 1) fasit.remove(k);
+        else fasit.put(k, n - 1);
+        return true;
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMapFasit() {
+        Random r = new Random(17);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean multimengde : new boolean[]{false, true}) {
+                // liten skårGrense, så skårene deles ofte
+                OppdeltSøkeBinærTre<Integer> tre = new OppdeltSøkeBinærTre<>(Comparator.naturalOrder(), multimengde,
+                        List.of(500, 1500), 64, pool);
+                TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                for (int steg = 0; steg < 6000; steg++) {
+                    int område = steg % 2000 < 1000 ? 60 : 3000;
+                    Integer k = r.nextInt(område);
+                    switch (r.nextInt(12)) {
+                        case 0, 1, 2, 3 -> {
+                            assertTrue(tre.leggInn(k));
+                            fasit.merge(k, 1, Integer::sum);
+                        }
+                        case 4, 5, 6 -> assertEquals(fjernEn(fasit, k), tre.fjern(k));
+                        case 7, 8 -> assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                        case 9 -> { // bunter, store nok til å gå i parallell av og til
+                            List<Integer> bunt = new ArrayList<>();
+                            int n = r.nextInt(4) == 0 ? 1500 : 30;
+                            for (int i = 0; i < n; i++) bunt.add(r.nextInt(område));
+                            switch (r.nextInt(3)) {
+                                case 0 -> {
+                                    assertEquals(n, tre.leggInnAlle(bunt));
+                                    for (Integer v : bunt) fasit.merge(v, 1, Integer::sum);
+                                }
+                                case 1 -> {
+                                    int fjernet = 0;
+                                    for (Integer v : bunt) if (fjernEn(fasit, v)) fjernet++;
+                                    assertEquals(fjernet, tre.fjernAlle(bunt));
+                                }
+                                default -> assertEquals(fasit.keySet().containsAll(bunt), tre.inneholderAlle(bunt));
+                            }
+                        }
+                        case 10 -> {
+                            if (r.nextInt(20) == 0) tre.omfordel(1 + r.nextInt(8));
+                        }
+                        default -> {
+                            if (r.nextInt(100) == 0) {
+                                tre.nullstill();
+                                fasit.clear();
+                            }
+                        }
+                    }
+                    tre.sjekkInvariant();
+                    if (steg % 100 == 0) {
+                        assertEquals(liste(fasit), liste(tre));
+                        assertEquals(liste(fasit).size(), tre.antall());
+                    }
+                }
+                assertEquals(liste(fasit), liste(tre));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void samtidigeSkrivereMedHverSineNøkler() throws Exception {
+        // Tråd t bruker bare nøkler med k % tråder == t, så hver tråd kan føre sin egen fasit,
+        // mens skårene deles og omfordeles under dem
+        int tråder = 4;
+        OppdeltSøkeBinærTre<Integer> tre = new OppdeltSøkeBinærTre<>(Comparator.naturalOrder(), false,
+                List.<Integer>of(), 128, ForkJoinPool.commonPool());
+        ExecutorService pool = Executors.newFixedThreadPool(tråder + 1);
+        try {
+            List<Future<TreeMap<Integer, Integer>>> fasiter = new ArrayList<>();
+            for (int t = 0; t < tråder; t++) {
+                int tråd = t;
+                fasiter.add(pool.submit(() -> {
+                    Random r = new Random(tråd);
+                    TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                    for (int i = 0; i < 20000; i++) {
+                        Integer k = r.nextInt(2000) * tråder + tråd;
+                        switch (r.nextInt(3)) {
+                            case 0 -> {
+                                tre.leggInn(k);
+                                fasit.merge(k, 1, Integer::sum);
+                            }
+                            case 1 -> assertEquals(fjernEn(fasit, k), tre.fjern(k));
+                            default -> assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                        }
+                    }
+                    return fasit;
+                }));
+            }
+            Future<?> omfordeler = pool.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    tre.omfordel(1 + i % 6);
+                    tre.sjekkInvariant();
+                }
+            });
+            TreeMap<Integer, Integer> alle = new TreeMap<>();
+            for (Future<TreeMap<Integer, Integer>> f : fasiter) alle.putAll(f.get());
+            omfordeler.get();
+            tre.sjekkInvariant();
+            assertEquals(liste(alle), liste(tre));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
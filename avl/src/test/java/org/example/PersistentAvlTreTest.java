@@ -0,0 +1,84 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentAvlTreTest {
+    private static List<Integer> liste(Iterable<Integer> tre) {
+        List<Integer> l = new ArrayList<>();
+        for (Integer v : tre) l.add(v);
+        return l;
+    }
+
+    // Fasiten er verdi -> antall kopier, siden like verdier er tillatt
+    private static List<Integer> liste(TreeMap<Integer, Integer> fasit) {
+        List<Integer> l = new ArrayList<>();
+        fasit.forEach((k, n) -> {
+            for (int i = 0; i < n; i++) l.add(k);
+        });
+        return l;
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMapFasitOgGamleVersjonerUrørt() {
+        Random r = new Random(13);
+        PersistentAvlTre<Integer> tre = PersistentAvlTre.tomt(Comparator.naturalOrder());
+        TreeMap<Integer, Integer> fasit = new TreeMap<>();
+        List<PersistentAvlTre<Integer>> versjoner = new ArrayList<>();
+        List<List<Integer>> innhold = new ArrayList<>();
+        for (int steg = 0; steg < 20000; steg++) {
+            int område = steg % 5000 < 2500 ? 50 : 2000;
+            Integer k = r.nextInt(område);
+            switch (r.nextInt(5)) {
+                case 0, 1 -> {
+                    tre = tre.leggInn(k);
+                    fasit.merge(k, 1, Integer::sum);
+                }
+                case 2, 3 -> {
+                    PersistentAvlTre<Integer> ny = tre.fjern(k);
+                    if (fasit.containsKey(k)) {
+                        assertNotSame(tre, ny);
+                        if (fasit.merge(k, -1, Integer::sum) == 0) fasit.remove(k);
+                    } else {
+                        assertSame(tre, ny);
+                    }
+                    tre = ny;
+                }
+                default -> { // en runde med byggeren, som endrer sine egne noder på stedet
+                    PersistentAvlTre.Bygger<Integer> b = tre.bygger();
+                    for (int i = 0; i < 20; i++) {
+                        Integer v = r.nextInt(område);
+                        if (r.nextBoolean()) {
+                            b.leggInn(v);
+                            fasit.merge(v, 1, Integer::sum);
+                        } else {
+                            b.fjern(v);
+                            if (fasit.containsKey(v) && fasit.merge(v, -1, Integer::sum) == 0) fasit.remove(v);
+                        }
+                    }
+                    PersistentAvlTre<Integer> bygd = b.bygg();
+                    b.leggInn(k); // byggeren går videre etter bygg(), uten å røre versjonen den ga ut
+                    assertEquals(bygd.antall() + 1, b.antall());
+                    tre = bygd;
+                }
+            }
+            tre.sjekkInvariant();
+            assertEquals(fasit.containsKey(k), tre.inneholder(k));
+            if (steg % 250 == 0) {
+                assertEquals(liste(fasit), liste(tre));
+                versjoner.add(tre);
+                innhold.add(liste(fasit));
+            }
+        }
+        for (int i = 0; i < versjoner.size(); i++) { // ingen senere versjon har endret en tidligere
+            versjoner.get(i).sjekkInvariant();
+            assertEquals(innhold.get(i), liste(versjoner.get(i)));
+        }
+    }
+}
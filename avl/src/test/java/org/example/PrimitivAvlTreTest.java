@@ -0,0 +1,129 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitivAvlTreTest {
+    private static List<Long> fasitListe(TreeMap<Long, Integer> fasit) {
+        List<Long> l = new ArrayList<>();
+        fasit.forEach((v, n) -> {
+            for (int i = 0; i < n; i++) l.add(v);
+        });
+        return l;
+    }
+
+    @Test
+    void intAvlTreSomTreeMap() {
+        Random r = new Random(3);
+        IntAvlTre tre = new IntAvlTre();
+        TreeMap<Long, Integer> fasit = new TreeMap<>();
+        for (int op = 0; op < 60_000; op++) {
+            int v = r.nextInt(2000) - 1000;
+            switch (r.nextInt(4)) {
+                case 0, 1 -> {
+                    tre.leggInn(v);
+                    fasit.merge((long) v, 1, Integer::sum);
+                }
+                case 2 -> {
+                    assertEquals(fasit.containsKey((long) v), tre.fjern(v));
+                    fasit.computeIfPresent((long) v, (k, n) -> n == 1 ? null : n - 1);
+                }
+                default -> {
+                    assertEquals(fasit.containsKey((long) v), tre.inneholder(v));
+                    assertEquals(fasit.getOrDefault((long) v, 0), tre.antall(v));
+                }
+            }
+            if (op % 1000 == 0) tre.sjekkInvariant();
+        }
+        tre.sjekkInvariant();
+        List<Long> faktisk = new ArrayList<>();
+        for (PrimitiveIterator.OfInt it = tre.iterator(); it.hasNext(); ) faktisk.add((long) it.nextInt());
+        assertEquals(fasitListe(fasit), faktisk);
+        assertEquals(faktisk.size(), tre.antall());
+    }
+
+    @Test
+    void longAvlTreSomTreeMap() {
+        Random r = new Random(4);
+        LongAvlTre tre = new LongAvlTre();
+        TreeMap<Long, Integer> fasit = new TreeMap<>();
+        for (int op = 0; op < 60_000; op++) {
+            long v = (r.nextInt(2000) - 1000) * 10_000_000_000L;
+            switch (r.nextInt(4)) {
+                case 0, 1 -> {
+                    tre.leggInn(v);
+                    fasit.merge(v, 1, Integer::sum);
+                }
+                case 2 -> {
+                    assertEquals(fasit.containsKey(v), tre.fjern(v));
+                    fasit.computeIfPresent(v, (k, n) -> n == 1 ? null : n - 1);
+                }
+                default -> {
+                    assertEquals(fasit.containsKey(v), tre.inneholder(v));
+                    assertEquals(fasit.getOrDefault(v, 0), tre.antall(v));
+                }
+            }
+            if (op % 1000 == 0) tre.sjekkInvariant();
+        }
+        tre.sjekkInvariant();
+        List<Long> faktisk = new ArrayList<>();
+        tre.iterator().forEachRemaining((long v) -> faktisk.add(v));
+        assertEquals(fasitListe(fasit), faktisk);
+    }
+
+    @Test
+    void iteratorFeilerRasktOgFjernerSisteVerdi() {
+        IntAvlTre tre = new IntAvlTre();
+        for (int i = 0; i < 100; i++) tre.leggInn(i % 50);
+        PrimitiveIterator.OfInt it = tre.iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        int i = 0;
+        while (it.hasNext()) {
+            it.nextInt();
+            if (i++ % 3 == 0) it.remove();
+        }
+        tre.sjekkInvariant();
+        assertEquals(66, tre.antall());
+        PrimitiveIterator.OfInt it2 = tre.iterator();
+        it2.nextInt();
+        tre.leggInn(7);
+        assertThrows(ConcurrentModificationException.class, it2::nextInt);
+        assertThrows(ConcurrentModificationException.class, it2::remove);
+
+        LongAvlTre lang = new LongAvlTre();
+        lang.leggInn(1);
+        PrimitiveIterator.OfLong it3 = lang.iterator();
+        lang.fjern(1);
+        assertThrows(ConcurrentModificationException.class, it3::nextLong);
+    }
+
+    @Test
+    void sortertByggingGirBalansertTreOgAvviserUsortert() {
+        for (int n : new int[]{0, 1, 2, 3, 7, 8, 1000}) {
+            int[] i = {0};
+            IntAvlTre tre = new IntAvlTre(n, () -> i[0]++ / 2); // hver verdi to ganger
+            tre.sjekkInvariant();
+            assertEquals(n, tre.antall());
+            assertEquals(n == 0 ? 0 : 1 + (31 - Integer.numberOfLeadingZeros(n)), tre.hoyde());
+            if (n > 1) assertEquals(2, tre.antall(0));
+            tre.leggInn(-1);
+            tre.fjern(0);
+            tre.sjekkInvariant();
+
+            long[] l = {-n};
+            LongAvlTre lang = new LongAvlTre(n, () -> l[0]++ * 1_000_000_000L);
+            lang.sjekkInvariant();
+            assertEquals(n, lang.antall());
+        }
+        int[] synkende = {5};
+        assertThrows(IllegalArgumentException.class, () -> new IntAvlTre(3, () -> synkende[0]--));
+        assertThrows(IllegalArgumentException.class, () -> new LongAvlTre(-1, () -> 0));
+    }
+}
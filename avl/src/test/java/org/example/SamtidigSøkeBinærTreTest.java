@@ -0,0 +1,229 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamtidigSøkeBinærTreTest {
+    private static List<Integer> liste(Iterable<Integer> tre) {
+        List<Integer> l = new ArrayList<>();
+        for (Integer v : tre) l.add(v);
+        return l;
+    }
+
+    // Fasiten er verdi -> antall kopier, siden like verdier er tillatt i begge modusene
+    private static List<Integer> liste(TreeMap<Integer, Integer> fasit) {
+        List<Integer> l = new ArrayList<>();
+        fasit.forEach((k, n) -> {
+            for (int i = 0; i < n; i++) l.add(k);
+        });
+        return l;
+    }
+
+    private static boolean fjernEn(TreeMap<Integer, Integer> fasit, Integer k) {
+        Integer n = fasit.get(k);
+        if (n == null) return false;
+        if (n == 1) fasit.remove(k);
+        else fasit.put(k, n - 1);
+        return true;
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMapFasit() {
+        Random r = new Random(19);
+        for (boolean multimengde : new boolean[]{false, true}) {
+            SamtidigSøkeBinærTre<Integer> tre = new SamtidigSøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+            TreeMap<Integer, Integer> fasit = new TreeMap<>();
+            for (int steg = 0; steg < 10000; steg++) {
+                Integer k = r.nextInt(steg % 4000 < 2000 ? 50 : 2000);
+                switch (r.nextInt(6)) {
+                    case 0, 1 -> {
+                        assertTrue(tre.leggInn(k));
+                        fasit.merge(k, 1, Integer::sum);
+                    }
+                    case 2 -> assertEquals(fjernEn(fasit, k), tre.fjern(k));
+                    case 3 -> {
+                        Integer n = fasit.remove(k);
+                        assertEquals(n == null ? 0 : n, tre.fjernAlle(k));
+                    }
+                    case 4 -> assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                    default -> assertEquals(fasit.getOrDefault(k, 0), tre.antall(k));
+                }
+                tre.sjekkInvariant();
+                if (steg % 250 == 0) {
+                    List<Integer> forventet = liste(fasit);
+                    assertEquals(forventet, liste(tre));
+                    assertEquals(forventet.size(), tre.antall());
+                }
+            }
+        }
+    }
+
+    @Test
+    void optimistiskeLesereSerBareGyldigeSvar() throws Exception {
+        // Partallene legges inn først og røres aldri; skriverne legger inn og fjerner oddetall.
+        // Leserne skal alltid finne partallene og aldri noe utenfor området, midt i rotasjonene
+        int n = 20000;
+        SamtidigSøkeBinærTre<Integer> tre = new SamtidigSøkeBinærTre<>(Comparator.naturalOrder());
+        for (int k = 0; k < 2 * n; k += 2) tre.leggInn(k);
+        AtomicBoolean ferdig = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TreeMap<Integer, Integer>>> skrivere = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int tråd = t;
+                skrivere.add(pool.submit(() -> {
+                    Random r = new Random(tråd);
+                    TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                    for (int i = 0; i < 50000; i++) {
+                        Integer k = 2 * (r.nextInt(n / 2) * 2 + tråd) + 1; // hver skriver sine oddetall
+                        if (r.nextBoolean()) {
+                            tre.leggInn(k);
+                            fasit.merge(k, 1, Integer::sum);
+                        } else {
+                            assertEquals(fjernEn(fasit, k), tre.fjern(k));
+                        }
+                    }
+                    return fasit;
+                }));
+            }
+            List<Future<?>> lesere = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int tråd = t;
+                lesere.add(pool.submit(() -> {
+                    Random r = new Random(100 + tråd);
+                    while (!ferdig.get()) {
+                        int k = r.nextInt(n);
+                        assertTrue(tre.inneholder(2 * k));
+                        assertEquals(1, tre.antall(2 * k));
+                        assertFalse(tre.inneholder(-1 - k));
+                        assertFalse(tre.inneholder(2 * n + k));
+                    }
+                }));
+            }
+            TreeMap<Integer, Integer> fasit = new TreeMap<>();
+            for (Future<TreeMap<Integer, Integer>> f : skrivere) fasit.putAll(f.get());
+            ferdig.set(true);
+            for (Future<?> f : lesere) f.get();
+            for (int k = 0; k < 2 * n; k += 2) fasit.put(k, 1);
+            tre.sjekkInvariant();
+            assertEquals(liste(fasit), liste(tre));
+        } finally {
+            ferdig.set(true);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void samtidigeSkrivereMedFellesNøklerMisterIngenting() throws Exception {
+        // Skriverne deler nøklene, så hver tråd fører sin egen netto endring per nøkkel; summen av
+        // dem er fasiten. Få nøkler gir kamp om de samme nodene, mange gir rotasjoner overalt.
+        // Imens sjekker én tråd invariantene og tar øyeblikksbilder, som må vente på alle skrivere
+        for (int område : new int[]{64, 20000}) {
+            SamtidigSøkeBinærTre<Integer> tre = new SamtidigSøkeBinærTre<>(Comparator.naturalOrder());
+            for (int k = -1000; k < 0; k++) tre.leggInn(k); // røres aldri av skriverne
+            AtomicBoolean ferdig = new AtomicBoolean();
+            ExecutorService pool = Executors.newFixedThreadPool(6);
+            try {
+                List<Future<TreeMap<Integer, Integer>>> skrivere = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int tråd = t;
+                    skrivere.add(pool.submit(() -> {
+                        Random r = new Random(område + tråd);
+                        TreeMap<Integer, Integer> netto = new TreeMap<>();
+                        for (int i = 0; i < 40000; i++) {
+                            Integer k = r.nextInt(område);
+                            switch (r.nextInt(5)) {
+                                case 0, 1, 2 -> {
+                                    assertTrue(tre.leggInn(k));
+                                    netto.merge(k, 1, Integer::sum);
+                                }
+                                case 3 -> {
+                                    if (tre.fjern(k)) netto.merge(k, -1, Integer::sum);
+                                }
+                                default -> netto.merge(k, -tre.fjernAlle(k), Integer::sum);
+                            }
+                        }
+                        return netto;
+                    }));
+                }
+                Future<?> leser = pool.submit(() -> {
+                    Random r = new Random(område);
+                    while (!ferdig.get()) {
+                        int k = -1 - r.nextInt(1000);
+                        assertTrue(tre.inneholder(k));
+                        assertEquals(1, tre.antall(k));
+                        assertFalse(tre.inneholder(område + r.nextInt(1000)));
+                    }
+                });
+                Future<?> kontrollør = pool.submit(() -> {
+                    while (!ferdig.get()) {
+                        tre.sjekkInvariant();
+                        Integer forrige = null;
+                        for (Integer v : tre) {
+                            assertTrue(forrige == null || forrige <= v);
+                            forrige = v;
+                        }
+                        Thread.sleep(5);
+                    }
+                    return null;
+                });
+                TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                for (Future<TreeMap<Integer, Integer>> f : skrivere) {
+                    f.get().forEach((k, n) -> fasit.merge(k, n, Integer::sum));
+                }
+                ferdig.set(true);
+                leser.get();
+                kontrollør.get();
+                fasit.values().removeIf(n -> n == 0);
+                for (int k = -1000; k < 0; k++) fasit.put(k, 1);
+                tre.sjekkInvariant();
+                assertEquals(liste(fasit), liste(tre));
+                assertEquals(liste(fasit).size(), tre.antall());
+                for (int k = 0; k < Math.min(område, 200); k++) assertEquals(fasit.getOrDefault(k, 0), tre.antall(k));
+            } finally {
+                ferdig.set(true);
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void nullstillMensSkrivereJobberGirGyldigTre() throws Exception {
+        SamtidigSøkeBinærTre<Integer> tre = new SamtidigSøkeBinærTre<>(Comparator.naturalOrder(), true);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> skrivere = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                int tråd = t;
+                skrivere.add(pool.submit(() -> {
+                    Random r = new Random(tråd);
+                    for (int i = 0; i < 30000; i++) {
+                        Integer k = r.nextInt(5000);
+                        if (r.nextInt(3) == 0) tre.fjern(k);
+                        else tre.leggInn(k);
+                    }
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                tre.nullstill();
+                tre.sjekkInvariant();
+                Thread.sleep(2);
+            }
+            for (Future<?> f : skrivere) f.get();
+            tre.sjekkInvariant();
+            assertEquals(liste(tre).size(), tre.antall());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SøkeBinærTreTest {
+    private static List<Integer> liste(Iterable<Integer> tre) {
+        List<Integer> l = new ArrayList<>();
+        for (Integer v : tre) l.add(v);
+        return l;
+    }
+
+    // Fasiten er en TreeMap fra verdi til antall kopier; i begge modusene kan en verdi ligge flere ganger
+    private static List<Integer> liste(Map<Integer, Integer> fasit) {
+        List<Integer> l = new ArrayList<>();
+        fasit.forEach((k, n) -> {
+            for (int i = 0; i < n; i++) l.add(k);
+        });
+        return l;
+    }
+
+    private static void fjernEn(TreeMap<Integer, Integer> fasit, Integer k) {
+        if (fasit.merge(k, -1, Integer::sum) == 0) fasit.remove(k);
+    }
+
+    @Test
+    void tilfeldigeOperasjonerSomTreeMapFasit() {
+        Random r = new Random(7);
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int variant = 0; variant < 4; variant++) { // vanlig, fingersøk, hurtigbuffer, gjenbruk
+                SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                if (variant == 1) tre.settFingersøk(true);
+                if (variant == 2) tre.settHurtigbuffer(16);
+                if (variant == 3) tre.settGjenbruk(true);
+                TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                int antall = 0;
+                for (int steg = 0; steg < 20000; steg++) {
+                    int område = steg % 5000 < 2500 ? 100 : 1000; // veksler mellom mange og få like verdier
+                    Integer k = r.nextInt(område);
+                    switch (r.nextInt(10)) {
+                        case 0, 1, 2 -> {
+                            assertTrue(tre.leggInn(k));
+                            fasit.merge(k, 1, Integer::sum);
+                            antall++;
+                        }
+                        case 3, 4 -> {
+                            boolean fantes = fasit.containsKey(k);
+                            assertEquals(fantes, tre.fjern(k));
+                            if (fantes) {
+                                fjernEn(fasit, k);
+                                antall--;
+                            }
+                        }
+                        case 5 -> {
+                            Integer n = fasit.remove(k);
+                            assertEquals(n == null ? 0 : n, tre.fjernAlle(k));
+                            if (n != null) antall -= n;
+                        }
+                        case 6 -> {
+                            assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                            assertEquals(fasit.getOrDefault(k, 0), tre.antall(k));
+                        }
+                        case 7 -> {
+                            assertEquals(fasit.floorKey(k), tre.floor(k));
+                            assertEquals(fasit.ceilingKey(k), tre.ceiling(k));
+                            assertEquals(fasit.lowerKey(k), tre.lower(k));
+                            assertEquals(fasit.higherKey(k), tre.higher(k));
+                        }
+                        case 8 -> {
+                            int mindre = 0;
+                            for (int n : fasit.headMap(k).values()) mindre += n;
+                            assertEquals(mindre, tre.rang(k));
+                            if (antall > 0) {
+                                int i = r.nextInt(antall);
+                                assertEquals(liste(fasit).get(i), tre.velg(i));
+                            }
+                            Integer til = k + r.nextInt(område / 4 + 1);
+                            int mellom = 0;
+                            for (int n : fasit.subMap(k, true, til, true).values()) mellom += n;
+                            assertEquals(mellom, tre.antallMellom(k, til));
+                        }
+                        default -> { // fjerner annenhver av verdiene under k gjennom iteratoren
+                            Iterator<Integer> it = tre.iterator();
+                            boolean fjern = false;
+                            while (it.hasNext()) {
+                                Integer v = it.next();
+                                if (v >= k) break;
+                                if (fjern) {
+                                    it.remove();
+                                    fjernEn(fasit, v);
+                                    antall--;
+                                }
+                                fjern = !fjern;
+                            }
+                        }
+                    }
+                    tre.sjekkInvariant();
+                    assertEquals(antall, tre.antall());
+                    if (steg % 500 == 0) {
+                        assertEquals(liste(fasit), liste(tre));
+                        assertEquals(fasit.isEmpty() ? null : fasit.firstKey(), tre.første());
+                        assertEquals(fasit.isEmpty() ? null : fasit.lastKey(), tre.siste());
+                        assertEquals(liste(fasit), tre.stream().toList());
+                        assertEquals(liste(fasit), tre.parallelStream().toList());
+                        long sum = 0;
+                        for (Integer v : liste(fasit)) sum += v;
+                        assertEquals(sum, tre.parallelStream().mapToLong(Integer::longValue).sum());
+                    }
+                    if (steg % 7000 == 6999) { // nullstill underveis, så gjenbruk får noder å ta av
+                        tre.nullstill();
+                        fasit.clear();
+                        antall = 0;
+                    }
+                }
+                assertEquals(liste(fasit), liste(tre));
+            }
+    }
+
+    // Deler spliteratoren rekursivt og sjekker at delene har nøyaktig størrelse og til sammen
+    // gir verdiene i rekkefølge, også når noen verdier er tatt med tryAdvance før delingen
+    private static void delOgSamle(Spliterator<Integer> s, List<Integer> ut, Random r) {
+        long størrelse = s.estimateSize();
+        assertEquals(størrelse, s.getExactSizeIfKnown());
+        if (størrelse > 0 && r.nextInt(4) == 0) {
+            assertTrue(s.tryAdvance(ut::add));
+            assertEquals(størrelse - 1, s.estimateSize());
+            størrelse--;
+        }
+        Spliterator<Integer> første = r.nextInt(5) == 0 ? null : s.trySplit();
+        if (første == null) {
+            int før = ut.size();
+            s.forEachRemaining(ut::add);
+            assertEquals(størrelse, ut.size() - før);
+            assertFalse(s.tryAdvance(ut::add));
+            return;
+        }
+        assertEquals(størrelse / 2, første.estimateSize());
+        assertEquals(størrelse - størrelse / 2, s.estimateSize());
+        assertTrue(første.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+        delOgSamle(første, ut, r);
+        delOgSamle(s, ut, r);
+    }
+
+    @Test
+    void spliteratorDelerNøyaktigOgStrømmerIRekkefølge() {
+        Random r = new Random(14);
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int n : new int[]{0, 1, 2, 3, 17, 1000, 20000}) {
+                SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                for (int i = 0; i < n; i++) {
+                    Integer k = r.nextInt(n / 3 + 1); // mange like verdier
+                    tre.leggInn(k);
+                    fasit.merge(k, 1, Integer::sum);
+                }
+                List<Integer> forventet = liste(fasit);
+                for (int runde = 0; runde < 5; runde++) {
+                    List<Integer> delt = new ArrayList<>();
+                    delOgSamle(tre.spliterator(), delt, r);
+                    assertEquals(forventet, delt);
+                }
+                assertEquals(forventet, tre.parallelStream().collect(Collectors.toList()));
+                assertEquals(forventet.stream().mapToLong(Integer::longValue).sum(),
+                        tre.parallelStream().mapToLong(Integer::longValue).sum());
+                assertEquals(fasit.size(), tre.parallelStream().distinct().count());
+                assertEquals(forventet.subList(Math.min(n, 5), n), tre.stream().skip(5).toList());
+                assertEquals(Comparator.naturalOrder(), tre.spliterator().getComparator());
+
+                if (n > 0) { // endringer etter at spliteratoren er laget oppdages
+                    Spliterator<Integer> s = tre.spliterator();
+                    tre.leggInn(0);
+                    assertThrows(ConcurrentModificationException.class, () -> s.tryAdvance(v -> { }));
+                    assertThrows(ConcurrentModificationException.class, () -> s.forEachRemaining(v -> { }));
+                }
+            }
+    }
+
+    @Test
+    void områderOgSynkendeIteratorSomTreeMap() {
+        Random r = new Random(9);
+        for (boolean multimengde : new boolean[]{false, true}) {
+            SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+            TreeMap<Integer, Integer> fasit = new TreeMap<>();
+            for (int steg = 0; steg < 3000; steg++) {
+                Integer fra = r.nextInt(300), til = fra + r.nextInt(60);
+                boolean fraInklusiv = r.nextBoolean(), tilInklusiv = r.nextBoolean();
+                switch (r.nextInt(6)) {
+                    case 0, 1 -> {
+                        for (int i = 0; i < 3; i++) {
+                            Integer k = r.nextInt(300);
+                            tre.leggInn(k);
+                            fasit.merge(k, 1, Integer::sum);
+                        }
+                    }
+                    case 2 -> {
+                        assertEquals(liste(fasit.subMap(fra, fraInklusiv, til, tilInklusiv)),
+                                liste(tre.subSet(fra, fraInklusiv, til, tilInklusiv)));
+                        assertEquals(liste(fasit.headMap(til, tilInklusiv)), liste(tre.headSet(til, tilInklusiv)));
+                        assertEquals(liste(fasit.tailMap(fra, fraInklusiv)), liste(tre.tailSet(fra, fraInklusiv)));
+                    }
+                    case 3 -> { // fjerner annenhver verdi i området gjennom områdeiteratoren
+                        Iterator<Integer> it = switch (r.nextInt(3)) {
+                            case 0 -> tre.subSet(fra, fraInklusiv, til, tilInklusiv).iterator();
+                            case 1 -> tre.headSet(til, tilInklusiv).iterator();
+                            default -> tre.tailSet(fra, fraInklusiv).iterator();
+                        };
+                        boolean fjern = r.nextBoolean();
+                        while (it.hasNext()) {
+                            Integer v = it.next();
+                            if (fjern) {
+                                it.remove();
+                                fjernEn(fasit, v);
+                                assertThrows(IllegalStateException.class, it::remove);
+                            }
+                            fjern = !fjern;
+                        }
+                    }
+                    case 4 -> {
+                        List<Integer> synkende = new ArrayList<>();
+                        tre.synkendeIterator().forEachRemaining(synkende::add);
+                        assertEquals(liste(fasit.descendingMap()), synkende);
+                    }
+                    default -> { // fjerner verdiene over fra gjennom den synkende iteratoren, hver tredje
+                        Iterator<Integer> it = tre.synkendeIterator();
+                        int i = 0;
+                        while (it.hasNext()) {
+                            Integer v = it.next();
+                            if (v < fra) break;
+                            if (i++ % 3 == 0) {
+                                it.remove();
+                                fjernEn(fasit, v);
+                            }
+                        }
+                    }
+                }
+                tre.sjekkInvariant();
+                assertEquals(liste(fasit), liste(tre));
+            }
+            assertThrows(IllegalArgumentException.class, () -> tre.subSet(5, true, 4, true));
+            assertThrows(NullPointerException.class, () -> tre.headSet(null, true));
+            assertFalse(tre.subSet(5, false, 5, true).iterator().hasNext());
+            Iterable<Integer> visning = tre.tailSet(150, true); // visningen følger treet
+            tre.leggInn(1000);
+            assertEquals(1000, liste(visning).get(liste(visning).size() - 1));
+            Iterator<Integer> it = visning.iterator();
+            tre.leggInn(1001);
+            assertThrows(ConcurrentModificationException.class, it::next);
+        }
+    }
+
+    @Test
+    void fjernOmrådeOgFjernHvisSomTreeMap() {
+        Random r = new Random(10);
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int variant = 0; variant < 4; variant++) { // vanlig, fingersøk, hurtigbuffer, gjenbruk
+                SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                if (variant == 1) tre.settFingersøk(true);
+                if (variant == 2) tre.settHurtigbuffer(16);
+                if (variant == 3) tre.settGjenbruk(true);
+                TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                for (int steg = 0; steg < 2000; steg++) {
+                    switch (r.nextInt(5)) {
+                        case 0, 1 -> {
+                            for (int i = 0; i < 20; i++) {
+                                Integer k = r.nextInt(2000);
+                                tre.leggInn(k);
+                                fasit.merge(k, 1, Integer::sum);
+                            }
+                        }
+                        case 2 -> { // også tomme og omvendte områder
+                            Integer fra = r.nextInt(2100) - 50, til = fra + r.nextInt(120) - 10;
+                            int forventet = 0;
+                            if (fra <= til) {
+                                Map<Integer, Integer> område = fasit.subMap(fra, true, til, true);
+                                for (int n : område.values()) forventet += n;
+                                område.clear();
+                            }
+                            assertEquals(forventet, tre.fjernOmråde(fra, til));
+                        }
+                        case 3 -> {
+                            int m = 2 + r.nextInt(9), rest = r.nextInt(m);
+                            int forventet = 0;
+                            for (Iterator<Map.Entry<Integer, Integer>> it = fasit.entrySet().iterator(); it.hasNext(); ) {
+                                Map.Entry<Integer, Integer> e = it.next();
+                                if (e.getKey() % m == rest) {
+                                    forventet += e.getValue();
+                                    it.remove();
+                                }
+                            }
+                            assertEquals(forventet, tre.fjernHvis(v -> v % m == rest));
+                        }
+                        default -> { // søk rett etter fjerningene, så hurtigbuffer og finger ikke peker på fjernede noder
+                            for (int i = 0; i < 20; i++) {
+                                Integer k = r.nextInt(2000);
+                                assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                                assertEquals(fasit.getOrDefault(k, 0), tre.antall(k));
+                            }
+                        }
+                    }
+                    tre.sjekkInvariant();
+                    if (steg % 50 == 0) assertEquals(liste(fasit), liste(tre));
+                }
+                assertEquals(liste(fasit), liste(tre));
+                int alle = tre.antall();
+                assertEquals(alle, tre.fjernHvis(v -> true));
+                assertTrue(tre.tom());
+                assertEquals(0, tre.fjernOmråde(0, 2000));
+                assertThrows(NullPointerException.class, () -> tre.fjernOmråde(null, 1));
+                assertThrows(NullPointerException.class, () -> tre.fjernHvis(null));
+            }
+    }
+
+    // Fasit for skriv: nodene i valgt rekkefølge funnet rekursivt og med kø, uavhengig av NodeGang
+    private static void noder(SøkeBinærTre.Node<Integer> p, SøkeBinærTre.Rekkefølge rekkefølge,
+                              List<SøkeBinærTre.Node<Integer>> ut) {
+        if (p == null) return;
+        if (rekkefølge == SøkeBinærTre.Rekkefølge.PREORDEN) ut.add(p);
+        noder(p.venstre, rekkefølge, ut);
+        if (rekkefølge == SøkeBinærTre.Rekkefølge.INORDEN) ut.add(p);
+        noder(p.høyre, rekkefølge, ut);
+        if (rekkefølge == SøkeBinærTre.Rekkefølge.POSTORDEN) ut.add(p);
+    }
+
+    private static String forventetSkrevet(SøkeBinærTre<Integer> tre, SøkeBinærTre.Rekkefølge rekkefølge,
+                                           long grense, String prefiks) {
+        List<SøkeBinærTre.Node<Integer>> noder = new ArrayList<>();
+        if (rekkefølge == SøkeBinærTre.Rekkefølge.NIVÅORDEN) {
+            ArrayDeque<SøkeBinærTre.Node<Integer>> kø = new ArrayDeque<>();
+            if (tre.rot != null) kø.add(tre.rot);
+            while (!kø.isEmpty()) {
+                SøkeBinærTre.Node<Integer> p = kø.poll();
+                noder.add(p);
+                if (p.venstre != null) kø.add(p.venstre);
+                if (p.høyre != null) kø.add(p.høyre);
+            }
+        } else {
+            noder(tre.rot, rekkefølge, noder);
+        }
+        StringJoiner s = new StringJoiner(",", "[", "]");
+        long skrevet = 0;
+        for (SøkeBinærTre.Node<Integer> p : noder) {
+            Integer v = Integer.valueOf(p.toString());
+            for (int i = tre.erMultimengde() ? tre.antall(v) : 1; i > 0; i--) {
+                if (skrevet++ == grense) return s.add("...").toString();
+                s.add(prefiks + v);
+            }
+        }
+        return s.toString();
+    }
+
+    @Test
+    void skrivGirAlleRekkefølgerMedGrenseOgKanal() throws IOException {
+        Random r = new Random(21);
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int n : new int[]{0, 1, 2, 10, 5000}) { // 5000 verdier er flere tegn enn bufferen i Tegnskriver
+                SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                for (int i = 0; i < n; i++) tre.leggInn(r.nextInt(n / 2 + 1) - n / 4);
+                for (SøkeBinærTre.Rekkefølge rekkefølge : SøkeBinærTre.Rekkefølge.values())
+                    for (long grense : new long[]{0, 1, 3, n - 1, n, n + 5, Long.MAX_VALUE}) {
+                        if (grense < 0) continue;
+                        StringBuilder sb = new StringBuilder();
+                        assertEquals(Math.min(n, grense), tre.skriv(sb, rekkefølge, grense, null));
+                        assertEquals(forventetSkrevet(tre, rekkefølge, grense, ""), sb.toString());
+
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        assertEquals(Math.min(n, grense), tre.skriv(Channels.newChannel(bytes), rekkefølge, grense,
+                                (v, ut) -> ut.append("ø").append(v.toString()))); // ikke-ASCII, så UTF-8 må stemme
+                        assertEquals(forventetSkrevet(tre, rekkefølge, grense, "ø"), bytes.toString(StandardCharsets.UTF_8));
+                    }
+                assertEquals(forventetSkrevet(tre, SøkeBinærTre.Rekkefølge.INORDEN, Long.MAX_VALUE, ""), tre.toString());
+                assertEquals(forventetSkrevet(tre, SøkeBinærTre.Rekkefølge.PREORDEN, Long.MAX_VALUE, ""), tre.toStringPreOrden());
+                assertEquals(forventetSkrevet(tre, SøkeBinærTre.Rekkefølge.POSTORDEN, Long.MAX_VALUE, ""), tre.toStringPostorden());
+            }
+
+        SøkeBinærTre<Integer> syv = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int i = 1; i <= 7; i++) syv.leggInn(i); // gir et perfekt tre med 4 som rot
+        StringBuilder sb = new StringBuilder();
+        assertEquals(7, syv.skriv(sb, SøkeBinærTre.Rekkefølge.NIVÅORDEN));
+        assertEquals("[4,2,6,1,3,5,7]", sb.toString());
+        assertThrows(IllegalArgumentException.class, () -> syv.skriv(new StringBuilder(), SøkeBinærTre.Rekkefølge.INORDEN, -1, null));
+        assertThrows(NullPointerException.class, () -> syv.skriv(new StringBuilder(), null));
+    }
+
+    @Test
+    void leggInnAlleSortertOgSortertKonstruktørSomTreeMap() {
+        Random r = new Random(77);
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int variant = 0; variant < 4; variant++) { // vanlig, fingersøk, hurtigbuffer, gjenbruk
+                SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                if (variant == 1) tre.settFingersøk(true);
+                if (variant == 2) tre.settHurtigbuffer(16);
+                if (variant == 3) tre.settGjenbruk(true);
+                TreeMap<Integer, Integer> fasit = new TreeMap<>();
+                for (int steg = 0; steg < 300; steg++) {
+                    // små kilder i et stort tre går én og én, store kilder flettes
+                    int størrelse = r.nextInt(4) == 0 ? r.nextInt(3000) : r.nextInt(8);
+                    List<Integer> kilde = new ArrayList<>();
+                    for (int i = 0; i < størrelse; i++) kilde.add(r.nextInt(5000));
+                    Collections.sort(kilde);
+                    for (int i = 0; i < 5; i++) { // slå opp før, så finger og hurtigbuffer har noe å holde på
+                        Integer k = r.nextInt(5000);
+                        assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                    }
+                    assertEquals(størrelse, tre.leggInnAlleSortert(kilde));
+                    for (Integer k : kilde) fasit.merge(k, 1, Integer::sum);
+                    tre.sjekkInvariant();
+                    for (int i = 0; i < 5; i++) {
+                        Integer k = r.nextInt(5000);
+                        assertEquals(fasit.containsKey(k), tre.inneholder(k));
+                        assertEquals(fasit.getOrDefault(k, 0), tre.antall(k));
+                    }
+                    if (r.nextInt(3) == 0) { // fjern noe, så fletting også møter et tre med hull
+                        Integer k = fasit.ceilingKey(r.nextInt(5000));
+                        if (k != null && tre.fjern(k)) fjernEn(fasit, k);
+                    }
+                    if (steg % 20 == 0) assertEquals(liste(fasit), liste(tre));
+                    if (steg % 100 == 99) {
+                        tre.nullstill();
+                        fasit.clear();
+                    }
+                }
+                assertEquals(liste(fasit), liste(tre));
+                int før = tre.antall();
+                assertThrows(IllegalArgumentException.class, () -> tre.leggInnAlleSortert(List.of(1, 3, 2)));
+                assertThrows(NullPointerException.class, () -> tre.leggInnAlleSortert(Arrays.asList(1, null)));
+                assertEquals(før, tre.antall()); // en ugyldig kilde endrer ingenting
+                assertEquals(liste(fasit), liste(tre));
+            }
+
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int n : new int[]{0, 1, 2, 3, 7, 8, 1000}) {
+                Integer[] tabell = new Integer[n];
+                for (int i = 0; i < n; i++) tabell[i] = i / 2; // hver verdi to ganger
+                SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde, Arrays.asList(tabell));
+                tre.sjekkInvariant();
+                assertEquals(Arrays.asList(tabell), liste(tre));
+                int noder = multimengde ? (n + 1) / 2 : n;
+                assertEquals(noder == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(noder), tre.hoyde()); // perfekt balansert
+                SøkeBinærTre<Integer> fraStrøm = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde,
+                        Arrays.stream(tabell)::iterator);
+                assertEquals(liste(tre), liste(fraStrøm));
+            }
+        assertThrows(IllegalArgumentException.class,
+                () -> new SøkeBinærTre<>(Comparator.<Integer>naturalOrder(), false, List.of(2, 1)));
+        SøkeBinærTre<Integer> synkende = new SøkeBinærTre<>(Comparator.reverseOrder(), false, List.of(3, 2, 2, 1));
+        synkende.sjekkInvariant();
+        assertEquals(List.of(3, 2, 2, 1), liste(synkende));
+    }
+
+    @Test
+    void leggInnAlleSortertLagerBareNoderDenBruker() {
+        SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), true);
+        tre.settMetrikker(true);
+        tre.leggInnAlleSortert(List.of(1, 1, 2, 3, 3, 3)); // like verdier blir én node
+        assertEquals(3, tre.metrikker().bilde().allokerteNoder());
+        assertThrows(IllegalArgumentException.class, () -> tre.leggInnAlleSortert(List.of(4, 6, 5)));
+        assertEquals(3, tre.metrikker().bilde().allokerteNoder());
+        assertEquals(List.of(1, 1, 2, 3, 3, 3), liste(tre));
+        tre.leggInnAlleSortert(List.of(2, 4, 4)); // fletting: 2 telles opp i noden som finnes
+        assertEquals(4, tre.metrikker().bilde().allokerteNoder());
+        tre.sjekkInvariant();
+
+        SøkeBinærTre<Integer> stort = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int i = 0; i < 1000; i++) stort.leggInn(2 * i);
+        stort.settMetrikker(true);
+        stort.leggInnAlleSortert(List.of(5, 7)); // få nye i et stort tre: én og én
+        assertEquals(2, stort.metrikker().bilde().allokerteNoder());
+        stort.sjekkInvariant();
+
+        // Med gjenbruk skal nodene fra nullstill dekke en ny bygging av like mange verdier
+        SøkeBinærTre<Integer> gjenbrukt = new SøkeBinærTre<>(Comparator.naturalOrder());
+        gjenbrukt.settGjenbruk(true);
+        List<Integer> hundre = new ArrayList<>();
+        for (int i = 0; i < 100; i++) hundre.add(i);
+        gjenbrukt.leggInnAlleSortert(hundre);
+        gjenbrukt.nullstill();
+        gjenbrukt.settMetrikker(true);
+        assertThrows(IllegalArgumentException.class, () -> gjenbrukt.leggInnAlleSortert(List.of(2, 1)));
+        gjenbrukt.leggInnAlleSortert(hundre);
+        assertEquals(0, gjenbrukt.metrikker().bilde().allokerteNoder());
+        assertEquals(hundre, liste(gjenbrukt));
+        gjenbrukt.sjekkInvariant();
+    }
+
+    @Test
+    void mengdeoperasjonerSomListeFasit() {
+        Random r = new Random(1);
+        for (boolean multimengde : new boolean[]{false, true})
+            for (int operasjon = 0; operasjon < 3; operasjon++)
+                for (boolean parallell : new boolean[]{false, true})
+                    for (int runde = 0; runde < 12; runde++) {
+                        int n1 = r.nextInt(runde < 10 ? 300 : 30000), n2 = r.nextInt(runde < 10 ? 300 : 30000);
+                        int område = 1 + r.nextInt(runde % 2 == 0 ? 200 : 50000);
+                        SøkeBinærTre<Integer> x = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                        SøkeBinærTre<Integer> y = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                        List<Integer> lx = new ArrayList<>(), ly = new ArrayList<>();
+                        for (int i = 0; i < n1; i++) {
+                            int k = r.nextInt(område);
+                            x.leggInn(k);
+                            lx.add(k);
+                        }
+                        for (int i = 0; i < n2; i++) {
+                            int k = r.nextInt(område);
+                            y.leggInn(k);
+                            ly.add(k);
+                        }
+                        Set<Integer> sx = new HashSet<>(lx), sy = new HashSet<>(ly);
+                        List<Integer> forventet = new ArrayList<>();
+                        switch (operasjon) {
+                            case 0 -> {
+                                forventet.addAll(lx);
+                                for (Integer k : ly) if (!sx.contains(k)) forventet.add(k);
+                                if (parallell) x.unionOgTømParallell(y);
+                                else x.unionOgTøm(y);
+                            }
+                            case 1 -> {
+                                for (Integer k : lx) if (sy.contains(k)) forventet.add(k);
+                                if (parallell) x.snittOgTømParallell(y);
+                                else x.snittOgTøm(y);
+                            }
+                            default -> {
+                                for (Integer k : lx) if (!sy.contains(k)) forventet.add(k);
+                                if (parallell) x.differanseOgTømParallell(y);
+                                else x.differanseOgTøm(y);
+                            }
+                        }
+                        Collections.sort(forventet);
+                        x.sjekkInvariant();
+                        y.sjekkInvariant();
+                        assertEquals(forventet, liste(x));
+                        assertTrue(y.tom());
+                    }
+    }
+
+    @Test
+    void mengdeoperasjonAvviserUlikComparatorOgModus() {
+        SøkeBinærTre<Integer> x = new SøkeBinærTre<>(Comparator.naturalOrder());
+        x.leggInn(1);
+        SøkeBinærTre<Integer> omvendt = new SøkeBinærTre<>(Comparator.reverseOrder());
+        omvendt.leggInn(2);
+        assertThrows(IllegalArgumentException.class, () -> x.unionOgTøm(omvendt));
+        assertThrows(IllegalArgumentException.class, () -> x.unionOgTøm(new SøkeBinærTre<>(Comparator.naturalOrder(), true)));
+        assertEquals(List.of(2), liste(omvendt)); // ingenting er flyttet
+        assertEquals(List.of(1), liste(x));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreMetrikkerTest {
+    private static SøkeBinærTre<Integer> tre(Random r, int n) {
+        SøkeBinærTre<Integer> t = new SøkeBinærTre<>(Comparator.naturalOrder());
+        for (int i = 0; i < n; i++) t.leggInn(r.nextInt(4 * n));
+        return t;
+    }
+
+    @Test
+    void registrerGjørTellerneSynligeOverJmx() throws Exception {
+        SøkeBinærTre<Integer> tre = new SøkeBinærTre<>(Comparator.naturalOrder());
+        tre.settMetrikker(true);
+        for (int i = 0; i < 100; i++) tre.leggInn(i);
+        tre.inneholder(50);
+        ObjectName navn = tre.metrikker().registrer("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(100L, server.getAttribute(navn, "KallLeggInn"));
+            assertEquals(1L, server.getAttribute(navn, "KallInneholder"));
+            assertEquals(100, server.getAttribute(navn, "Antall"));
+            assertEquals(tre.hoyde(), server.getAttribute(navn, "Hoyde"));
+            server.invoke(navn, "nullstill", null, null);
+            assertEquals(0L, server.getAttribute(navn, "KallLeggInn"));
+        } finally {
+            server.unregisterMBean(navn);
+        }
+    }
+
+    @Test
+    void samtidigeLesereMisterIngenTellinger() throws Exception {
+        // Som lesere under leselåsen i SamtidigSøkeBinærTre: mange tråder søker i det samme treet
+        SøkeBinærTre<Integer> tre = tre(new Random(3), 10_000);
+        tre.settMetrikker(true);
+        int tråder = 8, søk = 100_000;
+        ExecutorService pool = Executors.newFixedThreadPool(tråder);
+        try {
+            List<Future<?>> ferdig = new ArrayList<>();
+            for (int t = 0; t < tråder; t++) {
+                int frø = t;
+                ferdig.add(pool.submit(() -> {
+                    Random r = new Random(frø);
+                    for (int i = 0; i < søk; i++) tre.inneholder(r.nextInt(40_000));
+                }));
+            }
+            for (Future<?> f : ferdig) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        TreMetrikker.Bilde bilde = tre.metrikker().bilde();
+        assertEquals((long) tråder * søk, bilde.kall(TreMetrikker.INNEHOLDER));
+        long iHistogram = 0;
+        for (long d : bilde.dybdeHistogram()) iHistogram += d;
+        assertEquals((long) tråder * søk, iHistogram);
+    }
+
+    @Test
+    void parallelleMengdeoperasjonerMisterIngenRotasjoner() {
+        // Den parallelle utgaven gjør nøyaktig de samme splittene og skjøtene som den sekvensielle,
+        // bare fordelt på arbeiderne i fork-join-poolen, så tellerne skal bli like
+        for (int runde = 0; runde < 3; runde++) {
+            SøkeBinærTre<Integer> x1 = tre(new Random(runde), 200_000), y1 = tre(new Random(runde + 100), 200_000);
+            SøkeBinærTre<Integer> x2 = tre(new Random(runde), 200_000), y2 = tre(new Random(runde + 100), 200_000);
+            x1.settMetrikker(true);
+            x2.settMetrikker(true);
+            x1.unionOgTøm(y1);
+            x2.unionOgTømParallell(y2);
+            TreMetrikker.Bilde sekvensiell = x1.metrikker().bilde(), parallell = x2.metrikker().bilde();
+            long totalt = 0;
+            for (int tilfelle = 0; tilfelle < 4; tilfelle++) {
+                assertEquals(sekvensiell.rotasjoner(tilfelle), parallell.rotasjoner(tilfelle));
+                totalt += parallell.rotasjoner(tilfelle);
+            }
+            assertTrue(totalt > 0);
+            x2.sjekkInvariant();
+        }
+    }
+}
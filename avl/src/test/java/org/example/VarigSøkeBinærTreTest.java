@@ -0,0 +1,170 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VarigSøkeBinærTreTest {
+    @TempDir
+    Path mappe;
+
+    private VarigSøkeBinærTre<String> åpneStreng() throws IOException {
+        return new VarigSøkeBinærTre<>(mappe, Comparator.naturalOrder(), true, Nøkkelkodek.STRENG,
+                VarigSøkeBinærTre.Varighet.perBunt(64), 0);
+    }
+
+    private VarigSøkeBinærTre<Integer> åpneInt(long sjekkpunktBytes) throws IOException {
+        return new VarigSøkeBinærTre<>(mappe, Comparator.naturalOrder(), true, Nøkkelkodek.INT,
+                VarigSøkeBinærTre.Varighet.perBunt(64), sjekkpunktBytes);
+    }
+
+    private static List<String> innhold(VarigSøkeBinærTre<String> t) {
+        List<String> liste = new ArrayList<>();
+        t.forEach(liste::add);
+        return liste;
+    }
+
+    @Test
+    void forStorPostLarVerkenTreetEllerLoggenHalvskrevet() throws IOException {
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            t.leggInn("a");
+            assertThrows(IllegalArgumentException.class, () -> t.leggInn("x".repeat(70_000)));
+            assertEquals(1, t.antall());
+            t.leggInn("b");
+            t.leggInn("c");
+        }
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            assertEquals(List.of("a", "b", "c"), innhold(t));
+        }
+    }
+
+    @Test
+    void verdiStørreEnnHeleBufferenAvvisesUtenOverløp() throws IOException {
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            t.leggInn("a");
+            assertThrows(IllegalArgumentException.class, () -> t.leggInn("y".repeat(2 << 20)));
+            t.leggInn("b");
+            assertEquals(List.of("a", "b"), innhold(t));
+        }
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            assertEquals(List.of("a", "b"), innhold(t));
+        }
+    }
+
+    @Test
+    void fjernAvManglendeVerdiLoggesIkke() throws IOException {
+        long før;
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            t.leggInn("a");
+            t.synk();
+            før = Files.size(mappe.resolve("logg-0.wal"));
+            assertFalse(t.fjern("b"));
+            t.synk();
+            assertEquals(før, Files.size(mappe.resolve("logg-0.wal")));
+        }
+    }
+
+    @Test
+    void halvskrevetPostTilSluttKuttesVedGjenoppretting() throws IOException {
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            for (String s : List.of("a", "b", "c")) t.leggInn(s);
+            t.fjern("b");
+        }
+        Path logg = mappe.resolve("logg-0.wal");
+        long gyldig = Files.size(logg);
+        // et krasj midt i en skriving: lengdefeltet og litt av posten, uten CRC
+        try (FileChannel kanal = FileChannel.open(logg, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            kanal.write(ByteBuffer.wrap(new byte[]{9, 0, 0, 0, 1, 5, 0}));
+        }
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            assertEquals(List.of("a", "c"), innhold(t));
+            t.leggInn("d");
+        }
+        assertTrue(Files.size(logg) > gyldig);
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            assertEquals(List.of("a", "c", "d"), innhold(t));
+        }
+    }
+
+    @Test
+    void ødelagtPostStopperAvspillingen() throws IOException {
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            for (String s : List.of("a", "b", "c")) t.leggInn(s);
+        }
+        Path logg = mappe.resolve("logg-0.wal");
+        byte[] b = Files.readAllBytes(logg);
+        b[b.length - 6] ^= 1; // verdien i siste post, så CRC-en ikke stemmer
+        Files.write(logg, b);
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            assertEquals(List.of("a", "b"), innhold(t));
+        }
+    }
+
+    @Test
+    void tilfeldigeEndringerOverlevesGjennomSjekkpunkter() throws IOException {
+        Random r = new Random(17);
+        TreeMap<Integer, Integer> fasit = new TreeMap<>();
+        for (int runde = 0; runde < 5; runde++) {
+            try (VarigSøkeBinærTre<Integer> t = åpneInt(4096)) {
+                assertEquals(fasit.values().stream().mapToInt(Integer::intValue).sum(), t.antall());
+                for (int i = 0; i < 2000; i++) {
+                    int v = r.nextInt(300);
+                    if (r.nextInt(3) == 0) {
+                        assertEquals(fasit.containsKey(v), t.fjern(v));
+                        fasit.computeIfPresent(v, (k, n) -> n == 1 ? null : n - 1);
+                    } else {
+                        t.leggInn(v);
+                        fasit.merge(v, 1, Integer::sum);
+                    }
+                }
+                if (runde == 2) {
+                    t.nullstill();
+                    fasit.clear();
+                }
+            }
+        }
+        try (VarigSøkeBinærTre<Integer> t = åpneInt(0)) {
+            List<Integer> forventet = new ArrayList<>();
+            fasit.forEach((v, n) -> { for (int i = 0; i < n; i++) forventet.add(v); });
+            List<Integer> faktisk = new ArrayList<>();
+            t.forEach(faktisk::add);
+            assertEquals(forventet, faktisk);
+            assertTrue(t.generasjon() > 0);
+        }
+    }
+
+    @Test
+    void closeMensTidtakerenSynkerMisterIngenting() throws IOException {
+        // Med intervall(1) er bakgrunnstråden nesten alltid midt i en skriving eller fsync når
+        // close() kommer. Den må få gjøre seg ferdig, ikke avbrytes, ellers lukkes kanalen under
+        // den og det som ligger i bufferen går tapt
+        String verdi = "v".repeat(1000);
+        int lagtInn = 0;
+        for (int runde = 0; runde < 60; runde++) {
+            VarigSøkeBinærTre<String> t = new VarigSøkeBinærTre<>(mappe, Comparator.naturalOrder(), true,
+                    Nøkkelkodek.STRENG, VarigSøkeBinærTre.Varighet.intervall(1), 0);
+            assertEquals(lagtInn, t.antall());
+            long slutt = System.nanoTime() + 2_000_000;
+            do {
+                t.leggInn(verdi);
+                lagtInn++;
+            } while (System.nanoTime() < slutt);
+            t.close();
+        }
+        try (VarigSøkeBinærTre<String> t = åpneStreng()) {
+            assertEquals(lagtInn, t.antall());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ØyeblikksbildeTest {
+    private static final int HODE = 24;
+
+    @TempDir
+    Path mappe;
+
+    private static <T> List<T> liste(Iterable<T> tre) {
+        List<T> l = new ArrayList<>();
+        for (T v : tre) l.add(v);
+        return l;
+    }
+
+    private Path skrivStrenger(boolean multimengde, String... verdier) throws IOException {
+        SøkeBinærTre<String> tre = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+        for (String v : verdier) tre.leggInn(v);
+        Path fil = mappe.resolve("tre.bin");
+        Øyeblikksbilde.skriv(tre, fil, Nøkkelkodek.STRENG);
+        return fil;
+    }
+
+    private static void skrivInt(Path fil, int posisjon, int verdi) throws IOException {
+        byte[] b = Files.readAllBytes(fil);
+        ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN).putInt(posisjon, verdi);
+        Files.write(fil, b);
+    }
+
+    @Test
+    void tilfeldigeTrærLesesInnLikt() throws IOException {
+        Random r = new Random(8);
+        for (boolean multimengde : new boolean[]{false, true}) {
+            for (int n : new int[]{0, 1, 7, 5000}) {
+                SøkeBinærTre<Integer> tall = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                SøkeBinærTre<String> strenger = new SøkeBinærTre<>(Comparator.naturalOrder(), multimengde);
+                for (int i = 0; i < n; i++) {
+                    int v = r.nextInt(n + 1);
+                    tall.leggInn(v);
+                    strenger.leggInn("s" + v + "ø".repeat(r.nextInt(4)));
+                }
+                Path a = mappe.resolve("tall.bin"), b = mappe.resolve("strenger.bin");
+                Øyeblikksbilde.skriv(tall, a, Nøkkelkodek.INT);
+                Øyeblikksbilde.skriv(strenger, b, Nøkkelkodek.STRENG);
+                SøkeBinærTre<Integer> tallInn = Øyeblikksbilde.les(a, Comparator.naturalOrder(), Nøkkelkodek.INT);
+                SøkeBinærTre<String> strengerInn = Øyeblikksbilde.les(b, Comparator.naturalOrder(), Nøkkelkodek.STRENG);
+                tallInn.sjekkInvariant();
+                strengerInn.sjekkInvariant();
+                assertEquals(multimengde, tallInn.erMultimengde());
+                assertEquals(liste(tall), liste(tallInn));
+                assertEquals(liste(strenger), liste(strengerInn));
+            }
+        }
+    }
+
+    @Test
+    void primitiveTrærSkrivesOgLesesUtenBokser() throws IOException {
+        Random r = new Random(16);
+        for (int n : new int[]{0, 1, 7, 300_000}) { // 300 000 int fyller skrivebufferen mer enn én gang
+            IntAvlTre tall = new IntAvlTre();
+            LongAvlTre lange = new LongAvlTre();
+            for (int i = 0; i < n; i++) {
+                int v = r.nextInt(n + 1) - n / 2;
+                tall.leggInn(v);
+                lange.leggInn((long) v << 32);
+            }
+            Path a = mappe.resolve("int.bin"), b = mappe.resolve("long.bin");
+            Øyeblikksbilde.skriv(tall, a);
+            Øyeblikksbilde.skriv(lange, b);
+            IntAvlTre tallInn = Øyeblikksbilde.lesInt(a);
+            LongAvlTre langeInn = Øyeblikksbilde.lesLong(b);
+            tallInn.sjekkInvariant();
+            langeInn.sjekkInvariant();
+            assertEquals(tall.toString(), tallInn.toString());
+            assertEquals(lange.toString(), langeInn.toString());
+        }
+    }
+
+    @Test
+    void primitiveOgBoksedeTrærDelerFilformat() throws IOException {
+        SøkeBinærTre<Integer> mengde = new SøkeBinærTre<>(Comparator.naturalOrder(), true);
+        for (int v : new int[]{3, 1, 3, 3, 2, 1}) mengde.leggInn(v);
+        Path fil = mappe.resolve("tall.bin");
+        Øyeblikksbilde.skriv(mengde, fil, Nøkkelkodek.INT);
+        IntAvlTre tall = Øyeblikksbilde.lesInt(fil); // kopiene i multimengde-posten blir egne noder
+        tall.sjekkInvariant();
+        assertEquals("[1,1,2,3,3,3]", tall.toString());
+
+        Øyeblikksbilde.skriv(tall, fil);
+        SøkeBinærTre<Integer> inn = Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.INT);
+        assertFalse(inn.erMultimengde());
+        assertEquals(List.of(1, 1, 2, 3, 3, 3), liste(inn));
+        assertThrows(IOException.class, () -> Øyeblikksbilde.lesLong(fil));
+    }
+
+    @Test
+    void primitivLastingAvviserFeilAntall() throws IOException {
+        IntAvlTre tall = new IntAvlTre();
+        for (int i = 0; i < 10; i++) tall.leggInn(i);
+        Path fil = mappe.resolve("tall.bin");
+        Øyeblikksbilde.skriv(tall, fil);
+        skrivInt(fil, 8, 9); // hodet sier færre verdier enn postene
+        assertThrows(IOException.class, () -> Øyeblikksbilde.lesInt(fil));
+
+        SøkeBinærTre<Integer> mengde = new SøkeBinærTre<>(Comparator.naturalOrder(), true);
+        for (int v : new int[]{1, 1, 2}) mengde.leggInn(v);
+        Øyeblikksbilde.skriv(mengde, fil, Nøkkelkodek.INT);
+        skrivInt(fil, 8, 4); // hodet sier flere verdier enn kopiene gir
+        IOException e = assertThrows(IOException.class, () -> Øyeblikksbilde.lesInt(fil));
+        assertTrue(e.getMessage().startsWith("Ødelagt bilde"), e.getMessage());
+    }
+
+    @Test
+    void avkortetFilGirIOException() throws IOException {
+        Path fil = skrivStrenger(false, "a", "bb", "ccc");
+        byte[] b = Files.readAllBytes(fil);
+        Files.write(fil, Arrays.copyOf(b, b.length - 2));
+        assertThrows(IOException.class, () -> Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG));
+    }
+
+    @Test
+    void negativStrenglengdeGirIOException() throws IOException {
+        Path fil = skrivStrenger(false, "a", "bb", "ccc");
+        skrivInt(fil, HODE, -5);
+        IOException e = assertThrows(IOException.class,
+                () -> Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG));
+        assertTrue(e.getMessage().startsWith("Ødelagt bilde"), e.getMessage());
+    }
+
+    @Test
+    void enormStrenglengdeGirIOExceptionUtenÅAllokere() throws IOException {
+        Path fil = skrivStrenger(false, "a", "bb", "ccc");
+        skrivInt(fil, HODE, Integer.MAX_VALUE);
+        IOException e = assertThrows(IOException.class,
+                () -> Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG));
+        assertTrue(e.getMessage().startsWith("Ødelagt bilde"), e.getMessage());
+    }
+
+    @Test
+    void forMangeKopierGirIOException() throws IOException {
+        Path fil = skrivStrenger(true, "a", "a", "b");
+        skrivInt(fil, HODE + Integer.BYTES + 1, Integer.MAX_VALUE); // kopiene etter "a"
+        assertThrows(IOException.class, () -> Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG));
+    }
+
+    @Test
+    void halvskrevetTmpFraKrasjRørerIkkeForrigeBilde() throws IOException {
+        Path fil = skrivStrenger(true, "a", "a", "b");
+        // et krasj under neste skriving etterlater bare tmp-filen; omdøpingen skjedde aldri
+        Files.write(fil.resolveSibling(fil.getFileName() + ".tmp"), new byte[]{1, 2, 3});
+        SøkeBinærTre<String> tre = Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG);
+        assertEquals(List.of("a", "a", "b"), liste(tre));
+        // neste skriving overskriver tmp-filen og flytter den på plass
+        SøkeBinærTre<String> ny = new SøkeBinærTre<>(Comparator.naturalOrder(), true);
+        ny.leggInn("c");
+        Øyeblikksbilde.skriv(ny, fil, Nøkkelkodek.STRENG);
+        assertFalse(Files.exists(fil.resolveSibling(fil.getFileName() + ".tmp")));
+        assertEquals(List.of("c"), liste(Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG)));
+    }
+
+    @Test
+    void feiletSkrivingSletterTmpOgRørerIkkeForrigeBilde() throws IOException {
+        Path fil = skrivStrenger(false, "a", "b");
+        SøkeBinærTre<String> ny = new SøkeBinærTre<>(Comparator.naturalOrder(), false);
+        ny.leggInn("c");
+        ny.leggInn("x".repeat(70_000)); // over største post, så kodingen feiler midt i skrivingen
+        assertThrows(IllegalArgumentException.class, () -> Øyeblikksbilde.skriv(ny, fil, Nøkkelkodek.STRENG));
+        assertFalse(Files.exists(fil.resolveSibling(fil.getFileName() + ".tmp")));
+        assertEquals(List.of("a", "b"), liste(Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.STRENG)));
+    }
+
+    @Test
+    void feilKodekAvvises() throws IOException {
+        Path fil = skrivStrenger(false, "a");
+        assertThrows(IOException.class, () -> Øyeblikksbilde.les(fil, Comparator.naturalOrder(), Nøkkelkodek.INT));
+    }
+}